@@ -0,0 +1,53 @@
+package com.pardini.vuttr.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.pardini.vuttr.api.exceptions.ApiExceptionHandler;
+import com.pardini.vuttr.api.exceptions.ResourceNotFoundException;
+import com.pardini.vuttr.api.exceptions.StandardError;
+
+/**
+ * A 404 from the exception being thrown to the error body being written: the
+ * stack trace capture, {@link ApiExceptionHandler} and serialization.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ErrorPathBenchmark {
+
+	private final ApiExceptionHandler handler = new ApiExceptionHandler();
+
+	private final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/tools/unknown");
+
+	private ObjectWriter writer;
+
+	@Setup
+	public void setUp() {
+		this.writer = Jackson2ObjectMapperBuilder.json().build().writerFor(StandardError.class);
+	}
+
+	@Benchmark
+	public byte[] notFound() throws IOException {
+		ResponseEntity<StandardError> response;
+		try {
+			throw new ResourceNotFoundException("Tool not found");
+		} catch (ResourceNotFoundException e) {
+			response = this.handler.objectNotFound(e, this.request);
+		}
+		return this.writer.writeValueAsBytes(response.getBody());
+	}
+
+}
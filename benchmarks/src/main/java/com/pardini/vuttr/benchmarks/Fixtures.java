@@ -0,0 +1,56 @@
+package com.pardini.vuttr.benchmarks;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import org.bson.types.ObjectId;
+
+import com.pardini.vuttr.domain.dtos.ToolDto;
+import com.pardini.vuttr.domain.model.Tool;
+
+/**
+ * Deterministic tools shaped like real ones: a handful of tags drawn from a
+ * small vocabulary and a description of a few hundred characters.
+ */
+final class Fixtures {
+
+	static final String[] TAGS = { "java", "spring", "node", "mongodb", "docker", "kotlin", "react", "cli",
+			"testing", "security", "cache", "http" };
+
+	private static final String DESCRIPTION = "Lorem ipsum dolor sit amet, consectetur adipiscing elit, sed do "
+			+ "eiusmod tempor incididunt ut labore et dolore magna aliqua. Ut enim ad minim veniam, quis nostrud "
+			+ "exercitation ullamco laboris nisi ut aliquip ex ea commodo consequat.";
+
+	private Fixtures() {
+	}
+
+	static List<Tool> tools(int count) {
+		List<Tool> tools = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			Tool tool = new Tool(new ObjectId(new Date(1_600_000_000_000L), i).toHexString(), "tool " + i,
+					"https://example.com/tools/" + i, DESCRIPTION, tags(i));
+			tool.setVersion(1L);
+			tool.setLastModified(Instant.ofEpochSecond(1_600_000_000L + i));
+			tools.add(tool);
+		}
+		return tools;
+	}
+
+	static ToolDto toolDto(int i) {
+		ToolDto dto = new ToolDto();
+		dto.setTitle("tool " + i);
+		dto.setLink("https://example.com/tools/" + i);
+		dto.setDescription(DESCRIPTION);
+		dto.setTags(tags(i));
+		return dto;
+	}
+
+	static List<String> tags(int i) {
+		return new ArrayList<>(Arrays.asList(TAGS[i % TAGS.length], TAGS[(i / 3) % TAGS.length],
+				TAGS[(i / 7) % TAGS.length]));
+	}
+
+}
@@ -0,0 +1,95 @@
+package com.pardini.vuttr.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import org.msgpack.jackson.dataformat.MessagePackFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.pardini.vuttr.domain.model.Tool;
+
+/**
+ * Encoding and decoding lists of tools in each wire format the API serves.
+ * The payload size, raw and gzipped, is printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FormatBenchmark {
+
+	@Param({ "json", "cbor", "smile", "msgpack" })
+	public String format;
+
+	@Param({ "20", "1000", "10000" })
+	public int size;
+
+	private ObjectWriter writer;
+
+	private ObjectReader reader;
+
+	private List<Tool> tools;
+
+	private byte[] payload;
+
+	@Setup
+	public void setUp() throws IOException {
+		ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().factory(factory(this.format)).build();
+		JavaType type = objectMapper.getTypeFactory().constructCollectionType(List.class, Tool.class);
+		this.writer = objectMapper.writerFor(type);
+		this.reader = objectMapper.readerFor(type);
+		this.tools = Fixtures.tools(this.size);
+		this.payload = this.writer.writeValueAsBytes(this.tools);
+		System.out.printf("%n%s, %d tools: %d bytes, %d gzipped%n", this.format, this.size, this.payload.length,
+				gzip(this.payload).length);
+	}
+
+	@Benchmark
+	public byte[] encode() throws IOException {
+		return this.writer.writeValueAsBytes(this.tools);
+	}
+
+	@Benchmark
+	public List<Tool> decode() throws IOException {
+		return this.reader.readValue(this.payload);
+	}
+
+	private static JsonFactory factory(String format) {
+		switch (format) {
+			case "cbor":
+				return new CBORFactory();
+			case "smile":
+				return new SmileFactory();
+			case "msgpack":
+				return new MessagePackFactory();
+			default:
+				return new JsonFactory();
+		}
+	}
+
+	private static byte[] gzip(byte[] bytes) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+			gzip.write(bytes);
+		}
+		return out.toByteArray();
+	}
+
+}
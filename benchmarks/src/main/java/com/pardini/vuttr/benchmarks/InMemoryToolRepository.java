@@ -0,0 +1,181 @@
+package com.pardini.vuttr.benchmarks;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.bson.types.ObjectId;
+
+import com.pardini.vuttr.domain.dtos.ToolPatchDto;
+import com.pardini.vuttr.domain.model.Tool;
+import com.pardini.vuttr.domain.repositories.TagMatch;
+import com.pardini.vuttr.domain.repositories.ToolFields;
+import com.pardini.vuttr.domain.repositories.ToolRepository;
+
+/**
+ * {@link ToolRepository} stand-in kept in a sorted map, so service benchmarks
+ * measure the service rather than the database. Only the methods the service
+ * calls on its hot paths are implemented.
+ */
+final class InMemoryToolRepository implements InvocationHandler {
+
+	private final ConcurrentNavigableMap<String, Tool> tools = new ConcurrentSkipListMap<>();
+
+	private final AtomicLong changeSeq = new AtomicLong();
+
+	/** Repository method to the method implementing it here, looked up once. */
+	private final Map<Method, Method> implementations = new ConcurrentHashMap<>();
+
+	private InMemoryToolRepository() {
+	}
+
+	static ToolRepository create(Collection<Tool> tools) {
+		InMemoryToolRepository repository = new InMemoryToolRepository();
+		tools.forEach(tool -> repository.tools.put(tool.getId(), tool));
+		return (ToolRepository) Proxy.newProxyInstance(ToolRepository.class.getClassLoader(),
+				new Class<?>[] { ToolRepository.class }, repository);
+	}
+
+	@Override
+	public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+		if (method.getDeclaringClass() == Object.class) {
+			return method.invoke(this, args);
+		}
+		try {
+			return this.implementations.computeIfAbsent(method, InMemoryToolRepository::implementation).invoke(this,
+					args);
+		} catch (InvocationTargetException e) {
+			throw e.getCause();
+		}
+	}
+
+	private static Method implementation(Method method) {
+		try {
+			return InMemoryToolRepository.class.getDeclaredMethod(method.getName(), method.getParameterTypes());
+		} catch (NoSuchMethodException e) {
+			throw new UnsupportedOperationException(method.toString(), e);
+		}
+	}
+
+	Optional<Tool> findById(String id) {
+		return Optional.ofNullable(this.tools.get(id));
+	}
+
+	Iterable<Tool> findAllById(Iterable<String> ids) {
+		List<Tool> found = new ArrayList<>();
+		for (String id : ids) {
+			Tool tool = this.tools.get(id);
+			if (tool != null) {
+				found.add(tool);
+			}
+		}
+		return found;
+	}
+
+	Optional<Tool> findFields(String id, ToolFields fields) {
+		return this.findById(id).map(fields::project);
+	}
+
+	List<Tool> findPage(List<String> tags, TagMatch match, String afterId, int limit, ToolFields fields) {
+		Collection<Tool> candidates = afterId == null ? this.tools.values()
+				: this.tools.tailMap(afterId, false).values();
+		List<Tool> page = new ArrayList<>(limit);
+		for (Tool tool : candidates) {
+			if (page.size() == limit) {
+				break;
+			}
+			if (tags == null || (match == TagMatch.ANY ? tags.stream().anyMatch(tool.getTags()::contains)
+					: tool.getTags().containsAll(tags))) {
+				page.add(fields.project(tool));
+			}
+		}
+		return page;
+	}
+
+	Tool save(Tool tool) {
+		Tool saved = new Tool(tool.getId() != null ? tool.getId() : new ObjectId().toHexString(), tool.getTitle(),
+				tool.getLink(), tool.getDescription(), tool.getTags());
+		saved.setVersion(tool.getVersion() == null ? 0L : tool.getVersion() + 1);
+		saved.setLastModified(Instant.now());
+		saved.setChangeSeq(tool.getChangeSeq());
+		saved.setCreatedSeq(tool.getCreatedSeq());
+		this.tools.put(saved.getId(), saved);
+		return saved;
+	}
+
+	Optional<Tool> patch(String id, ToolPatchDto patch, long changeSeq) {
+		return Optional.ofNullable(this.tools.computeIfPresent(id, (key, tool) -> {
+			List<String> tags = new ArrayList<>(patch.getTags() != null ? patch.getTags() : tool.getTags());
+			if (patch.getAddTags() != null) {
+				patch.getAddTags().stream().filter(tag -> !tags.contains(tag)).forEach(tags::add);
+			}
+			if (patch.getRemoveTags() != null) {
+				tags.removeAll(patch.getRemoveTags());
+			}
+			Tool patched = new Tool(id, patch.getTitle() != null ? patch.getTitle() : tool.getTitle(),
+					patch.getLink() != null ? patch.getLink() : tool.getLink(),
+					patch.getDescription() != null ? patch.getDescription() : tool.getDescription(), tags);
+			patched.setVersion(tool.getVersion() == null ? 1L : tool.getVersion() + 1);
+			patched.setLastModified(Instant.now());
+			patched.setChangeSeq(changeSeq);
+			patched.setCreatedSeq(tool.getCreatedSeq());
+			return patched;
+		}));
+	}
+
+	boolean removeById(String id) {
+		return this.tools.remove(id) != null;
+	}
+
+	long removeAllById(Collection<String> ids) {
+		return ids.stream().filter(id -> this.tools.remove(id) != null).count();
+	}
+
+	List<String> findIdsByTag(String tag, String afterId, int limit) {
+		Collection<Tool> candidates = afterId == null ? this.tools.values()
+				: this.tools.tailMap(afterId, false).values();
+		List<String> ids = new ArrayList<>(limit);
+		for (Tool tool : candidates) {
+			if (ids.size() == limit) {
+				break;
+			}
+			if (tool.getTags().contains(tag)) {
+				ids.add(tool.getId());
+			}
+		}
+		return ids;
+	}
+
+	long removeTagged(Collection<String> ids, String tag) {
+		long removed = 0;
+		for (String id : ids) {
+			boolean[] tagged = { false };
+			this.tools.computeIfPresent(id, (key, tool) -> {
+				tagged[0] = tool.getTags().contains(tag);
+				return tagged[0] ? null : tool;
+			});
+			removed += tagged[0] ? 1 : 0;
+		}
+		return removed;
+	}
+
+	void saveTombstones(List<String> ids, long firstSeq) {
+		// nothing reads the changes here
+	}
+
+	long allocateChangeSeqs(int count) {
+		return this.changeSeq.addAndGet(count);
+	}
+
+}
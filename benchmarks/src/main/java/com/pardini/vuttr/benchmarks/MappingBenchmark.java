@@ -0,0 +1,44 @@
+package com.pardini.vuttr.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.beans.BeanUtils;
+
+import com.pardini.vuttr.domain.dtos.ToolDto;
+import com.pardini.vuttr.domain.model.Tool;
+
+/**
+ * {@link BeanUtils#copyProperties} as {@code ToolService.save} uses it, next
+ * to the same mapping written out by hand.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MappingBenchmark {
+
+	private final ToolDto dto = Fixtures.toolDto(0);
+
+	@Benchmark
+	public Tool copyProperties() {
+		Tool tool = new Tool();
+		BeanUtils.copyProperties(this.dto, tool);
+		return tool;
+	}
+
+	@Benchmark
+	public Tool setters() {
+		Tool tool = new Tool();
+		tool.setTitle(this.dto.getTitle());
+		tool.setLink(this.dto.getLink());
+		tool.setDescription(this.dto.getDescription());
+		tool.setTags(this.dto.getTags());
+		return tool;
+	}
+
+}
@@ -0,0 +1,107 @@
+package com.pardini.vuttr.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.util.unit.DataSize;
+
+import com.pardini.vuttr.domain.dtos.ToolPatchDto;
+import com.pardini.vuttr.domain.model.Tool;
+import com.pardini.vuttr.domain.repositories.TagMatch;
+import com.pardini.vuttr.domain.repositories.ToolFields;
+import com.pardini.vuttr.domain.repositories.memory.MemoryToolRepository;
+
+/**
+ * Throughput of the in-memory repository used by the {@code memory} profile,
+ * write-ahead log included. Compare with the same operations against MongoDB
+ * through the API.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class MemoryToolRepositoryBenchmark {
+
+	@Param({ "10000" })
+	public int tools;
+
+	@Param({ "false", "true" })
+	public boolean fsync;
+
+	private Path directory;
+
+	private MemoryToolRepository repository;
+
+	private List<Tool> fixtures;
+
+	private ToolPatchDto patch;
+
+	private final AtomicLong changeSeq = new AtomicLong();
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		this.directory = Files.createTempDirectory("vuttr-memory");
+		this.repository = new MemoryToolRepository(this.directory, DataSize.ofMegabytes(16), this.fsync,
+				Duration.ofDays(30));
+		this.fixtures = Fixtures.tools(this.tools);
+		this.repository.insert(this.fixtures.stream()
+			.map(tool -> new Tool(tool.getId(), tool.getTitle(), tool.getLink(), tool.getDescription(), tool.getTags()))
+			.collect(Collectors.toList()));
+		this.patch = new ToolPatchDto();
+		this.patch.setAddTags(List.of("benchmark"));
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		this.repository.close();
+		try (Stream<Path> files = Files.walk(this.directory)) {
+			for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+				Files.delete(file);
+			}
+		}
+	}
+
+	@Benchmark
+	public Optional<Tool> findById() {
+		return this.repository.findById(this.randomId());
+	}
+
+	@Benchmark
+	public List<Tool> findPageByTag() {
+		return this.repository.findPage(List.of(Fixtures.TAGS[0]), TagMatch.ALL, null, 20, ToolFields.ALL);
+	}
+
+	@Benchmark
+	public Optional<Tool> patch() {
+		return this.repository.patch(this.randomId(), this.patch, this.changeSeq.incrementAndGet());
+	}
+
+	@Benchmark
+	public Tool insert() {
+		return this.repository.insert(List.of(new Tool(null, "title", "link", "description", List.of("java")))).get(0);
+	}
+
+	private String randomId() {
+		return this.fixtures.get(ThreadLocalRandom.current().nextInt(this.fixtures.size())).getId();
+	}
+
+}
@@ -0,0 +1,52 @@
+package com.pardini.vuttr.benchmarks;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.util.unit.DataSize;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pardini.vuttr.api.services.ToolResponseCache;
+import com.pardini.vuttr.domain.model.Tool;
+
+/**
+ * A hot tool encoded on every read, next to the bytes kept by
+ * {@link ToolResponseCache}. Run with {@code -prof gc} to compare allocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ResponseCacheBenchmark {
+
+	private final Tool tool = Fixtures.tools(1).get(0);
+
+	private ObjectMapper objectMapper;
+
+	private ToolResponseCache cache;
+
+	@Setup
+	public void setUp() {
+		this.objectMapper = Jackson2ObjectMapperBuilder.json().build();
+		this.cache = new ToolResponseCache(this.objectMapper, DataSize.ofMegabytes(64), Duration.ofMinutes(10));
+	}
+
+	@Benchmark
+	public byte[] encode() throws IOException {
+		return this.objectMapper.writeValueAsBytes(this.tool);
+	}
+
+	@Benchmark
+	public byte[] cached() {
+		return this.cache.tool(this.tool.getId(), () -> this.tool).getBody();
+	}
+
+}
@@ -0,0 +1,78 @@
+package com.pardini.vuttr.benchmarks;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.pardini.vuttr.domain.model.Tool;
+
+/**
+ * Jackson writing lists of tools, configured as Spring Boot configures the
+ * application's mapper.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SerializationBenchmark {
+
+	@Param({ "10", "1000", "100000" })
+	public int size;
+
+	private ObjectWriter writer;
+
+	private List<Tool> tools;
+
+	@Setup
+	public void setUp() {
+		ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+		this.writer = objectMapper.writerFor(objectMapper.getTypeFactory().constructCollectionType(List.class,
+				Tool.class));
+		this.tools = Fixtures.tools(this.size);
+	}
+
+	@Benchmark
+	public byte[] toBytes() throws IOException {
+		return this.writer.writeValueAsBytes(this.tools);
+	}
+
+	@Benchmark
+	public void toStream(Blackhole blackhole) throws IOException {
+		this.writer.writeValue(new BlackholeOutputStream(blackhole), this.tools);
+	}
+
+	/** Discards the output, so only serialization is measured. */
+	private static final class BlackholeOutputStream extends OutputStream {
+
+		private final Blackhole blackhole;
+
+		BlackholeOutputStream(Blackhole blackhole) {
+			this.blackhole = blackhole;
+		}
+
+		@Override
+		public void write(int b) {
+			this.blackhole.consume(b);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			this.blackhole.consume(b);
+		}
+
+	}
+
+}
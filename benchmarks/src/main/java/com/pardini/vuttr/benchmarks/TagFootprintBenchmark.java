@@ -0,0 +1,94 @@
+package com.pardini.vuttr.benchmarks;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.pardini.vuttr.domain.model.TagDictionary;
+import com.pardini.vuttr.domain.model.Tool;
+
+/**
+ * Tags of tools as they come from the database, each one a fresh string.
+ * {@code strings} keeps them as the driver decodes them, in an
+ * {@code ArrayList}; {@code compact} sets them on a {@link Tool}, which holds
+ * them in an array of their exact size; {@code dictionary} swaps them for the
+ * {@link TagDictionary}'s shared copies first, the way tools read from MongoDB
+ * get them.
+ * <p>
+ * The heap retained by the tags of 100000 tools is printed once per trial;
+ * the benchmark itself measures building the tags of one tool.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TagFootprintBenchmark {
+
+	private static final int TOOLS = 100_000;
+
+	@Param({ "strings", "compact", "dictionary" })
+	public String representation;
+
+	private final TagDictionary dictionary = new TagDictionary(100_000);
+
+	private List<String> loaded;
+
+	@Setup
+	public void setUp() {
+		this.loaded = loadedTags(0);
+		MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+		List<List<String>> retained = new ArrayList<>(TOOLS);
+		long before = usedAfterGc(memory);
+		for (int i = 0; i < TOOLS; i++) {
+			retained.add(this.tags(loadedTags(i)));
+		}
+		long after = usedAfterGc(memory);
+		System.out.printf("%n%s: %d bytes of tags per tool, %d tags in the dictionary%n", this.representation,
+				(after - before) / TOOLS, this.dictionary.size());
+		retained.clear();
+	}
+
+	@Benchmark
+	public List<String> load() {
+		return this.tags(new ArrayList<>(this.loaded));
+	}
+
+	/** The tags as the tool ends up holding them. */
+	private List<String> tags(List<String> loaded) {
+		switch (this.representation) {
+		case "compact":
+			return new Tool(null, null, null, null, loaded).getTags();
+		case "dictionary":
+			return new Tool(null, null, null, null, this.dictionary.intern(loaded)).getTags();
+		default:
+			return loaded;
+		}
+	}
+
+	/** Tags of the i-th fixture tool, copied as the driver decodes them. */
+	private static List<String> loadedTags(int i) {
+		List<String> tags = new ArrayList<>();
+		for (String tag : Fixtures.tags(i)) {
+			tags.add(new String(tag));
+		}
+		return tags;
+	}
+
+	private static long usedAfterGc(MemoryMXBean memory) {
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+		}
+		return memory.getHeapMemoryUsage().getUsed();
+	}
+
+}
@@ -0,0 +1,112 @@
+package com.pardini.vuttr.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.pardini.vuttr.domain.model.Tool;
+import com.pardini.vuttr.domain.repositories.TagMatch;
+import com.pardini.vuttr.domain.repositories.ToolFields;
+import com.pardini.vuttr.domain.repositories.ToolRepository;
+
+/**
+ * First page of a two-tag query. {@code serverSide} asks the repository for
+ * the page with the tags and the match, the way the {@code $all} and
+ * {@code $in} queries do; {@code clientSide} reads every tool of each tag
+ * and intersects, or joins, them in the service before cutting the page.
+ * <p>
+ * The repository is {@link InMemoryToolRepository}, so the scores leave out
+ * the round trips and the index work of MongoDB. The number of tools each
+ * side reads, which is what would cross the wire, is printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TagMatchBenchmark {
+
+	private static final int PAGE_SIZE = 20;
+
+	/** Batch size of the driver cursor reading each tag. */
+	private static final int READ_BATCH_SIZE = 1000;
+
+	@Param({ "10000" })
+	public int tools;
+
+	@Param({ "ALL", "ANY" })
+	public TagMatch match;
+
+	private final List<String> tags = List.of(Fixtures.TAGS[0], Fixtures.TAGS[1]);
+
+	private ToolRepository repository;
+
+	/** Tools read by the last call. */
+	private int read;
+
+	@Setup
+	public void setUp() {
+		this.repository = InMemoryToolRepository.create(Fixtures.tools(this.tools));
+		this.serverSide();
+		int serverSide = this.read;
+		this.clientSide();
+		System.out.printf("%n%s: %d tools read server-side, %d client-side%n", this.match, serverSide, this.read);
+	}
+
+	@Benchmark
+	public List<Tool> serverSide() {
+		List<Tool> page = this.repository.findPage(this.tags, this.match, null, PAGE_SIZE, ToolFields.ALL);
+		this.read = page.size();
+		return page;
+	}
+
+	@Benchmark
+	public List<Tool> clientSide() {
+		this.read = 0;
+		Map<String, Tool> matching = null;
+		for (String tag : this.tags) {
+			Map<String, Tool> tagged = this.readTag(tag);
+			if (matching == null) {
+				matching = tagged;
+			} else if (this.match == TagMatch.ALL) {
+				matching.keySet().retainAll(tagged.keySet());
+			} else {
+				matching.putAll(tagged);
+			}
+		}
+		// ids sort as the keyset pagination does
+		List<Tool> page = new ArrayList<>(PAGE_SIZE);
+		for (Tool tool : matching.values()) {
+			if (page.size() == PAGE_SIZE) {
+				break;
+			}
+			page.add(tool);
+		}
+		return page;
+	}
+
+	private Map<String, Tool> readTag(String tag) {
+		Map<String, Tool> tagged = new TreeMap<>();
+		List<Tool> batch;
+		String afterId = null;
+		do {
+			batch = this.repository.findPage(List.of(tag), TagMatch.ALL, afterId, READ_BATCH_SIZE, ToolFields.ALL);
+			for (Tool tool : batch) {
+				tagged.put(tool.getId(), tool);
+			}
+			this.read += batch.size();
+			afterId = batch.isEmpty() ? null : batch.get(batch.size() - 1).getId();
+		} while (batch.size() == READ_BATCH_SIZE);
+		return tagged;
+	}
+
+}
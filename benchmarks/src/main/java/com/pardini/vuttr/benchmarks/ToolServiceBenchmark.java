@@ -0,0 +1,178 @@
+package com.pardini.vuttr.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pardini.vuttr.api.services.TagIndex;
+import com.pardini.vuttr.api.services.ToolService;
+import com.pardini.vuttr.domain.dtos.DeleteResultDto;
+import com.pardini.vuttr.domain.dtos.PageDto;
+import com.pardini.vuttr.domain.dtos.ToolDto;
+import com.pardini.vuttr.domain.dtos.ToolPatchDto;
+import com.pardini.vuttr.domain.model.Tool;
+import com.pardini.vuttr.domain.repositories.ToolFields;
+import com.pardini.vuttr.domain.repositories.ToolRepository;
+
+/**
+ * {@link ToolService} wired as in the application, cache and tag index
+ * included, over {@link InMemoryToolRepository}.
+ * <p>
+ * A tool can only be deleted once, so the deletes are timed as single shots
+ * of a batch of calls, with the tools put back before each iteration. Their
+ * scores are per batch: {@value #DELETES} deletes, {@value #DELETE_ALLS}
+ * deletes of {@value #DELETE_ALL_IDS} ids, or one delete of a tag carried by
+ * about a quarter of the tools.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ToolServiceBenchmark {
+
+	static final int DELETES = 1000;
+
+	static final int DELETE_ALLS = 50;
+
+	static final int DELETE_ALL_IDS = 100;
+
+	@Param({ "10000" })
+	public int tools;
+
+	private AnnotationConfigApplicationContext context;
+
+	private ToolService toolService;
+
+	private ToolRepository repository;
+
+	private List<Tool> fixtures;
+
+	private ToolPatchDto patch;
+
+	private ToolDto newTool;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		this.fixtures = Fixtures.tools(this.tools);
+		this.repository = InMemoryToolRepository.create(this.fixtures);
+		this.context = new AnnotationConfigApplicationContext();
+		this.context.getBeanFactory().setConversionService(ApplicationConversionService.getSharedInstance());
+		this.context.registerBean(ToolRepository.class, () -> this.repository);
+		this.context.registerBean(ObjectMapper.class, () -> new ObjectMapper());
+		this.context.registerBean(LocalValidatorFactoryBean.class);
+		this.context.scan("com.pardini.vuttr.api.services");
+		this.context.refresh();
+		this.context.getBean(TagIndex.class).rebuild(this.fixtures.iterator());
+		this.toolService = this.context.getBean(ToolService.class);
+		this.patch = new ToolPatchDto();
+		this.patch.setAddTags(List.of("benchmark"));
+		this.newTool = Fixtures.toolDto(this.tools);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		this.context.close();
+	}
+
+	@Benchmark
+	public Tool getById() {
+		return this.toolService.getById(this.randomId());
+	}
+
+	@Benchmark
+	public PageDto<Tool> getAll() {
+		return this.toolService.getAll(null, null, ToolFields.ALL);
+	}
+
+	@Benchmark
+	public PageDto<Tool> getByTag() {
+		return this.toolService.getByTag(Fixtures.TAGS[0], null, null, ToolFields.ALL);
+	}
+
+	@Benchmark
+	public Tool patch() {
+		return this.toolService.patch(this.randomId(), this.patch);
+	}
+
+	@Benchmark
+	public Tool save() {
+		return this.toolService.save(this.newTool);
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@Warmup(iterations = 5, batchSize = DELETES)
+	@Measurement(iterations = 5, batchSize = DELETES)
+	public void delete(Deletes deletes) {
+		this.toolService.delete(this.fixtures.get(deletes.next++).getId());
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@Warmup(iterations = 5, batchSize = DELETE_ALLS)
+	@Measurement(iterations = 5, batchSize = DELETE_ALLS)
+	public DeleteResultDto deleteAll(Deletes deletes) {
+		List<String> ids = new ArrayList<>(DELETE_ALL_IDS);
+		for (int i = 0; i < DELETE_ALL_IDS; i++) {
+			ids.add(this.fixtures.get(deletes.next++).getId());
+		}
+		return this.toolService.deleteAll(ids);
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@Warmup(iterations = 5)
+	@Measurement(iterations = 10)
+	public DeleteResultDto deleteByTag(Deletes deletes) {
+		return this.toolService.deleteByTag(Fixtures.TAGS[0]);
+	}
+
+	/**
+	 * Puts back the tools the deletes removed, in the repository and in the
+	 * tag index.
+	 */
+	private void restore() {
+		for (Tool tool : this.fixtures) {
+			if (this.repository.findById(tool.getId()).isEmpty()) {
+				this.repository.save(tool);
+			}
+		}
+		this.context.getBean(TagIndex.class).rebuild(this.fixtures.iterator());
+	}
+
+	private String randomId() {
+		return this.fixtures.get(ThreadLocalRandom.current().nextInt(this.fixtures.size())).getId();
+	}
+
+	@State(Scope.Benchmark)
+	public static class Deletes {
+
+		/** Index of the next fixture to delete. */
+		int next;
+
+		@Setup(Level.Iteration)
+		public void restore(ToolServiceBenchmark benchmark) {
+			benchmark.restore();
+			this.next = 0;
+		}
+
+	}
+
+}
@@ -0,0 +1,174 @@
+package com.pardini.vuttr.api.controllers;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import javax.validation.Valid;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.ResponseEntity.BodyBuilder;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.pardini.vuttr.api.exceptions.BadRequestException;
+import com.pardini.vuttr.api.services.ReactiveToolService;
+import com.pardini.vuttr.domain.dtos.BatchResultDto;
+import com.pardini.vuttr.domain.dtos.DeleteResultDto;
+import com.pardini.vuttr.domain.dtos.PageDto;
+import com.pardini.vuttr.domain.dtos.ToolBatchItemDto;
+import com.pardini.vuttr.domain.dtos.ToolDto;
+import com.pardini.vuttr.domain.dtos.ToolPatchDto;
+import com.pardini.vuttr.domain.model.Tool;
+import com.pardini.vuttr.domain.repositories.TagMatch;
+import com.pardini.vuttr.domain.repositories.ToolFields;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Same API as {@link ToolController}, served on WebFlux.
+ */
+@RestController
+@RequestMapping("/tools")
+@ConditionalOnWebApplication(type = Type.REACTIVE)
+public class ReactiveToolController {
+
+	@Autowired
+	private ReactiveToolService toolService;
+
+	@GetMapping(value = "/{id}")
+	public Mono<ResponseEntity<Tool>> getById(@PathVariable String id,
+			@RequestParam(required = false) List<String> fields) {
+		ToolFields selection = this.parseFields(fields);
+		return this.toolService.getById(id, selection).map(tool -> {
+			BodyBuilder response = ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT);
+			if (tool.getVersion() != null) {
+				response.eTag(ToolETags.of(tool, selection));
+			}
+			if (tool.getLastModified() != null) {
+				response.lastModified(tool.getLastModified());
+			}
+			return response.body(tool);
+		});
+	}
+
+	@GetMapping
+	public Mono<ResponseEntity<PageDto<Tool>>> getRegisters(@RequestParam(required = false) String tag,
+			@RequestParam(required = false) List<String> tags, @RequestParam(defaultValue = "all") String match,
+			@RequestParam(required = false) String cursor, @RequestParam(required = false) Integer limit,
+			@RequestParam(required = false) List<String> fields, ServerWebExchange exchange) {
+		ToolFields selection = this.parseFields(fields);
+		return this.unlessNotModified(exchange, selection, () -> {
+			if (tags != null) {
+				if (tag != null) {
+					throw new BadRequestException("Use either tag or tags");
+				}
+				return this.toolService.getByTags(tags, this.parseMatch(match), cursor, limit, selection);
+			}
+			if (tag == null) {
+				return this.toolService.getAll(cursor, limit, selection);
+			}
+			return this.toolService.getByTag(tag, cursor, limit, selection);
+		});
+	}
+
+	@GetMapping(value = "/search")
+	public Mono<ResponseEntity<PageDto<Tool>>> search(@RequestParam String q,
+			@RequestParam(required = false) String cursor, @RequestParam(required = false) Integer limit,
+			ServerWebExchange exchange) {
+		return this.unlessNotModified(exchange, ToolFields.ALL, () -> this.toolService.search(q, cursor, limit));
+	}
+
+	@GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+	public Flux<Tool> export() {
+		return this.toolService.export();
+	}
+
+	@PutMapping(value = "{id}")
+	public Mono<ResponseEntity<Tool>> update(@PathVariable String id, @RequestBody @Valid ToolDto objDto) {
+		return this.toolService.update(id, objDto).map(ResponseEntity::ok);
+	}
+
+	@PatchMapping(value = "/{id}")
+	public Mono<ResponseEntity<Tool>> patch(@PathVariable String id, @RequestBody @Valid ToolPatchDto patch) {
+		return this.toolService.patch(id, patch).map(ResponseEntity::ok);
+	}
+
+	@PostMapping
+	public Mono<ResponseEntity<Tool>> create(@RequestBody @Valid ToolDto objDto) {
+		return this.toolService.save(objDto).map(tool -> ResponseEntity.status(HttpStatus.CREATED).body(tool));
+	}
+
+	@PostMapping(value = "/batch", consumes = { MediaType.APPLICATION_JSON_VALUE,
+			MediaType.APPLICATION_NDJSON_VALUE })
+	public Mono<ResponseEntity<BatchResultDto>> createBatch(@RequestBody Flux<ToolBatchItemDto> items) {
+		return this.toolService.saveAll(items).map(ResponseEntity::ok);
+	}
+
+	@DeleteMapping(value = "/{id}")
+	public Mono<ResponseEntity<Void>> delete(@PathVariable String id) {
+		return this.toolService.delete(id).then(Mono.fromCallable(() -> ResponseEntity.ok().<Void>build()));
+	}
+
+	/**
+	 * Deletes every tool listed in {@code ids}, or carrying {@code tag}, in a
+	 * single round trip.
+	 */
+	@DeleteMapping
+	public Mono<ResponseEntity<DeleteResultDto>> deleteAll(@RequestParam(required = false) List<String> ids,
+			@RequestParam(required = false) String tag) {
+		if ((ids == null) == (tag == null)) {
+			throw new BadRequestException("Use either ids or tag");
+		}
+		Mono<DeleteResultDto> result = ids != null ? this.toolService.deleteAll(ids)
+				: this.toolService.deleteByTag(tag);
+		return result.map(ResponseEntity::ok);
+	}
+
+	/**
+	 * Completes empty, with a 304 status, when the client already has the
+	 * current collection version. The page is only read otherwise.
+	 */
+	private Mono<ResponseEntity<PageDto<Tool>>> unlessNotModified(ServerWebExchange exchange, ToolFields fields,
+			Supplier<Mono<PageDto<Tool>>> page) {
+		return this.toolService.getCollectionVersion().flatMap(version -> {
+			String eTag = ToolETags.ofCollection(version, fields);
+			exchange.getResponse().getHeaders().setVary(List.of(HttpHeaders.ACCEPT));
+			if (exchange.checkNotModified(eTag)) {
+				return Mono.empty();
+			}
+			return page.get().map(body -> ResponseEntity.ok().eTag(eTag).body(body));
+		});
+	}
+
+	private ToolFields parseFields(List<String> fields) {
+		try {
+			return ToolFields.parse(fields);
+		} catch (IllegalArgumentException e) {
+			throw new BadRequestException(e.getMessage(), e);
+		}
+	}
+
+	private TagMatch parseMatch(String match) {
+		try {
+			return TagMatch.parse(match);
+		} catch (IllegalArgumentException e) {
+			throw new BadRequestException("match must be 'all' or 'any'", e);
+		}
+	}
+}
@@ -0,0 +1,34 @@
+package com.pardini.vuttr.api.controllers;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.pardini.vuttr.api.services.TagService;
+import com.pardini.vuttr.domain.dtos.TagCountDto;
+
+@RestController()
+@RequestMapping("/tags")
+public class TagController {
+
+	@Autowired
+	private TagService tagService;
+
+	@GetMapping
+	public ResponseEntity<List<TagCountDto>> getCounts(@RequestParam(required = false) String with) {
+		List<TagCountDto> tags = this.tagService.getCounts(with);
+		return ResponseEntity.ok(tags);
+	}
+
+	@GetMapping(value = "/suggest")
+	public ResponseEntity<List<TagCountDto>> suggest(@RequestParam(required = false) String prefix,
+			@RequestParam(required = false) Integer limit) {
+		List<TagCountDto> tags = this.tagService.suggest(prefix, limit);
+		return ResponseEntity.ok(tags);
+	}
+}
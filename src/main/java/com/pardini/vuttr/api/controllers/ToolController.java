@@ -1,46 +1,174 @@
 package com.pardini.vuttr.api.controllers;
 
+import java.io.IOException;
+import java.time.Instant;
 import java.util.List;
+import java.util.function.Supplier;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.ResponseEntity.BodyBuilder;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import com.pardini.vuttr.api.exceptions.BadRequestException;
+import com.pardini.vuttr.api.services.CachedJson;
+import com.pardini.vuttr.api.services.ToolEventStream;
+import com.pardini.vuttr.api.services.ToolResponseCache;
 import com.pardini.vuttr.api.services.ToolService;
+import com.pardini.vuttr.api.services.WriteAck;
+import com.pardini.vuttr.domain.dtos.BatchResultDto;
+import com.pardini.vuttr.domain.dtos.ChangesDto;
+import com.pardini.vuttr.domain.dtos.DeleteResultDto;
+import com.pardini.vuttr.domain.dtos.PageDto;
+import com.pardini.vuttr.domain.dtos.ToolBatchItemDto;
 import com.pardini.vuttr.domain.dtos.ToolDto;
+import com.pardini.vuttr.domain.dtos.ToolPatchDto;
 import com.pardini.vuttr.domain.model.Tool;
+import com.pardini.vuttr.domain.repositories.TagMatch;
+import com.pardini.vuttr.domain.repositories.ToolFields;
 
 @RestController()
+@ConditionalOnWebApplication(type = Type.SERVLET)
 @RequestMapping("/tools")
 public class ToolController {
 
 	@Autowired
 	private ToolService toolService;
 
+	@Autowired
+	private ToolResponseCache responseCache;
+
+	@Autowired
+	private ToolEventStream toolEvents;
+
+	/**
+	 * Answers {@code If-None-Match} and {@code If-Modified-Since} with 304 Not
+	 * Modified, in which case the tool is not serialized. {@code fields}
+	 * limits the response to the listed fields, plus the id and version.
+	 * Whole tools asked as JSON are served from the {@link ToolResponseCache}.
+	 */
 	@GetMapping(value = "/{id}")
-	public ResponseEntity<Tool> getById(@PathVariable String id) {
-		return ResponseEntity.ok(this.toolService.getById(id));
+	public ResponseEntity<?> getById(@PathVariable String id, @RequestParam(required = false) List<String> fields,
+			@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+		ToolFields selection = this.parseFields(fields);
+		if (selection.isAll() && this.servesCachedJson(accept)) {
+			CachedJson json = this.responseCache.tool(id, () -> this.toolService.getById(id, selection));
+			return this.ok(json.getVersion(), json.getLastModified(), selection)
+				.contentType(MediaType.APPLICATION_JSON)
+				.body(json.getBody());
+		}
+		Tool tool = this.toolService.getById(id, selection);
+		return this.ok(tool.getVersion(), tool.getLastModified(), selection).body(tool);
 	}
 
+	/**
+	 * The entity tag is the collection version, so a matching
+	 * {@code If-None-Match} is answered before the page is read. Pages asked
+	 * as JSON are served from the {@link ToolResponseCache}.
+	 */
 	@GetMapping
-	public ResponseEntity<List<Tool>> getRegisters(@RequestParam(required = false) String tag) {
-		if (tag == null) {
-			List<Tool> tools = this.toolService.getAll();
-			return ResponseEntity.ok(tools);
+	public ResponseEntity<?> getRegisters(@RequestParam(required = false) String tag,
+			@RequestParam(required = false) List<String> tags, @RequestParam(defaultValue = "all") String match,
+			@RequestParam(required = false) String cursor, @RequestParam(required = false) Integer limit,
+			@RequestParam(required = false) List<String> fields,
+			@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept, WebRequest request) {
+		ToolFields selection = this.parseFields(fields);
+		long version = this.toolService.getCollectionVersion();
+		String eTag = ToolETags.ofCollection(version, selection);
+		if (request.checkNotModified(eTag)) {
+			return this.notModified();
+		}
+		Supplier<PageDto<Tool>> page;
+		String key;
+		if (tags != null) {
+			if (tag != null) {
+				throw new BadRequestException("Use either tag or tags");
+			}
+			TagMatch tagMatch = this.parseMatch(match);
+			page = () -> this.toolService.getByTags(tags, tagMatch, cursor, limit, selection);
+			key = "tags=" + String.join(",", tags) + "&match=" + tagMatch;
+		} else if (tag == null) {
+			page = () -> this.toolService.getAll(cursor, limit, selection);
+			key = "";
+		} else {
+			page = () -> this.toolService.getByTag(tag, cursor, limit, selection);
+			key = "tag=" + tag;
 		}
-		List<Tool> tools = this.toolService.getByTag(tag);
-		return ResponseEntity.ok(tools);
+		if (this.servesCachedJson(accept)) {
+			key += "&cursor=" + cursor + "&limit=" + limit + "&fields=" + selection.key();
+			CachedJson json = this.responseCache.page(version, key, page);
+			return ResponseEntity.ok()
+				.eTag(eTag)
+				.varyBy(HttpHeaders.ACCEPT)
+				.contentType(MediaType.APPLICATION_JSON)
+				.body(json.getBody());
+		}
+		return ResponseEntity.ok().eTag(eTag).varyBy(HttpHeaders.ACCEPT).body(page.get());
+	}
+
+	@GetMapping(value = "/search")
+	public ResponseEntity<PageDto<Tool>> search(@RequestParam String q, @RequestParam(required = false) String cursor,
+			@RequestParam(required = false) Integer limit, WebRequest request) {
+		String eTag = ToolETags.ofCollection(this.toolService.getCollectionVersion(), ToolFields.ALL);
+		if (request.checkNotModified(eTag)) {
+			return this.notModified();
+		}
+		PageDto<Tool> page = this.toolService.search(q, cursor, limit);
+		return ResponseEntity.ok().eTag(eTag).varyBy(HttpHeaders.ACCEPT).body(page);
+	}
+
+	/**
+	 * Creates, updates and deletes since the {@code since} token, or from the
+	 * start without one, with the token to pass next time. 410 Gone means the
+	 * token is too old and the collection has to be read again.
+	 */
+	@GetMapping(value = "/changes")
+	public ResponseEntity<ChangesDto> getChanges(@RequestParam(required = false) String since,
+			@RequestParam(required = false) Integer limit) {
+		return ResponseEntity.ok().body(this.toolService.getChanges(since, limit));
+	}
+
+	/**
+	 * Server-Sent Events for every create, update and delete, from now on or
+	 * after {@code Last-Event-ID}. {@code tags} limits the creates and updates
+	 * to tools carrying any of them.
+	 */
+	@GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public SseEmitter stream(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+			@RequestParam(required = false) List<String> tags) {
+		return this.toolEvents.subscribe(lastEventId, tags);
+	}
+
+	/**
+	 * Written on the request thread rather than as an async response, so no
+	 * async request timeout cuts a long export short.
+	 */
+	@GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+	public void export(HttpServletResponse response) throws IOException {
+		response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+		this.toolService.export(response.getOutputStream());
 	}
 
 	@PutMapping(value = "{id}")
@@ -49,15 +177,121 @@ public class ToolController {
 		return ResponseEntity.ok(updatedTool);
 	}
 
+	@PatchMapping(value = "/{id}")
+	public ResponseEntity<Tool> patch(@PathVariable String id, @RequestBody @Valid ToolPatchDto patch) {
+		Tool updatedTool = this.toolService.patch(id, patch);
+		return ResponseEntity.ok(updatedTool);
+	}
+
+	/**
+	 * Creates a tool. With {@code ack=accepted} and write-behind enabled, the
+	 * tool is answered with 202 as soon as it is queued, and 429 when the
+	 * queue is full.
+	 */
 	@PostMapping
-	public ResponseEntity<Tool> create(@RequestBody @Valid ToolDto objDto) {
+	public ResponseEntity<Tool> create(@RequestBody @Valid ToolDto objDto,
+			@RequestParam(defaultValue = "durable") String ack) {
+		if (this.parseAck(ack) == WriteAck.ACCEPTED) {
+			Tool acceptedTool = this.toolService.accept(objDto);
+			return ResponseEntity.status(HttpStatus.ACCEPTED).body(acceptedTool);
+		}
 		Tool newTool = this.toolService.save(objDto);
 		return ResponseEntity.status(HttpStatus.CREATED).body(newTool);
 	}
 
+	@PostMapping(value = "/batch", consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE,
+			"application/x-jackson-smile", "application/x-msgpack", "application/msgpack" })
+	public ResponseEntity<BatchResultDto> createBatch(@RequestBody List<ToolBatchItemDto> items) {
+		BatchResultDto result = this.toolService.saveAll(items);
+		return ResponseEntity.ok(result);
+	}
+
+	@PostMapping(value = "/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+	public ResponseEntity<BatchResultDto> createBatch(HttpServletRequest request) throws IOException {
+		BatchResultDto result = this.toolService.saveAll(request.getInputStream());
+		return ResponseEntity.ok(result);
+	}
+
 	@DeleteMapping(value = "/{id}")
 	public ResponseEntity<Void> delete(@PathVariable String id) {
 		this.toolService.delete(id);
 		return ResponseEntity.ok().build();
 	}
+
+	/**
+	 * Deletes every tool listed in {@code ids}, or carrying {@code tag}, in a
+	 * single round trip.
+	 */
+	@DeleteMapping
+	public ResponseEntity<DeleteResultDto> deleteAll(@RequestParam(required = false) List<String> ids,
+			@RequestParam(required = false) String tag) {
+		if ((ids == null) == (tag == null)) {
+			throw new BadRequestException("Use either ids or tag");
+		}
+		DeleteResultDto result = ids != null ? this.toolService.deleteAll(ids) : this.toolService.deleteByTag(tag);
+		return ResponseEntity.ok(result);
+	}
+
+	private BodyBuilder ok(Long version, Instant lastModified, ToolFields selection) {
+		BodyBuilder response = ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT);
+		if (version != null) {
+			response.eTag(ToolETags.of(version, selection));
+		}
+		if (lastModified != null) {
+			response.lastModified(lastModified);
+		}
+		return response;
+	}
+
+	/**
+	 * The 304 already set up by {@code checkNotModified}, with the same
+	 * {@code Vary} as the full response.
+	 */
+	private <T> ResponseEntity<T> notModified() {
+		return ResponseEntity.status(HttpStatus.NOT_MODIFIED).varyBy(HttpHeaders.ACCEPT).build();
+	}
+
+	/**
+	 * Whether JSON is what the client prefers, and the cached body can be sent
+	 * without going through content negotiation.
+	 */
+	private boolean servesCachedJson(String accept) {
+		if (!this.responseCache.isEnabled()) {
+			return false;
+		}
+		if (accept == null || accept.equals(MediaType.APPLICATION_JSON_VALUE) || accept.equals(MediaType.ALL_VALUE)) {
+			return true;
+		}
+		try {
+			List<MediaType> mediaTypes = MediaType.parseMediaTypes(accept);
+			MediaType.sortBySpecificityAndQuality(mediaTypes);
+			return !mediaTypes.isEmpty() && mediaTypes.get(0).includes(MediaType.APPLICATION_JSON);
+		} catch (InvalidMediaTypeException e) {
+			return false;
+		}
+	}
+
+	private ToolFields parseFields(List<String> fields) {
+		try {
+			return ToolFields.parse(fields);
+		} catch (IllegalArgumentException e) {
+			throw new BadRequestException(e.getMessage(), e);
+		}
+	}
+
+	private WriteAck parseAck(String ack) {
+		try {
+			return WriteAck.parse(ack);
+		} catch (IllegalArgumentException e) {
+			throw new BadRequestException("ack must be 'durable' or 'accepted'", e);
+		}
+	}
+
+	private TagMatch parseMatch(String match) {
+		try {
+			return TagMatch.parse(match);
+		} catch (IllegalArgumentException e) {
+			throw new BadRequestException("match must be 'all' or 'any'", e);
+		}
+	}
 }
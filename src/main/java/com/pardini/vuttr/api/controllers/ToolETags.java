@@ -0,0 +1,38 @@
+package com.pardini.vuttr.api.controllers;
+
+import com.pardini.vuttr.domain.model.Tool;
+import com.pardini.vuttr.domain.repositories.ToolFields;
+
+/**
+ * Weak entity tags for tool responses, derived from stored versions rather
+ * than from the response body. The same tag covers every format and content
+ * coding of a representation, so it is weak, which also leaves the body free
+ * to be gzipped, and responses carrying it vary by {@code Accept}.
+ */
+final class ToolETags {
+
+	private ToolETags() {
+	}
+
+	/**
+	 * Tag of a single tool. Tools stored before versions existed have none.
+	 * Each field selection is a different representation, so it is part of
+	 * the tag.
+	 */
+	static String of(Tool tool, ToolFields fields) {
+		return of(tool.getVersion(), fields);
+	}
+
+	static String of(long version, ToolFields fields) {
+		return "W/\"" + version + suffix(fields) + "\"";
+	}
+
+	static String ofCollection(long version, ToolFields fields) {
+		return "W/\"tools-" + version + suffix(fields) + "\"";
+	}
+
+	private static String suffix(ToolFields fields) {
+		return fields.isAll() ? "" : ";" + fields.key();
+	}
+
+}
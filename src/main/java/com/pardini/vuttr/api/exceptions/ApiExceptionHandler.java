@@ -4,6 +4,10 @@ import java.time.OffsetDateTime;
 
 import javax.servlet.http.HttpServletRequest;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -12,6 +16,7 @@ import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 
 @ControllerAdvice
+@ConditionalOnWebApplication(type = Type.SERVLET)
 public class ApiExceptionHandler {
 
 	@ExceptionHandler(ResourceNotFoundException.class)
@@ -22,6 +27,46 @@ public class ApiExceptionHandler {
 		return ResponseEntity.status(status).body(error);
 	}
 
+	@ExceptionHandler(BadRequestException.class)
+	public ResponseEntity<StandardError> badRequest(BadRequestException ex, HttpServletRequest request) {
+		HttpStatus status = HttpStatus.BAD_REQUEST;
+		StandardError error = new StandardError(OffsetDateTime.now(), System.currentTimeMillis(), status.value(),
+				status.name(), ex.getMessage(), request.getRequestURI());
+		return ResponseEntity.status(status).body(error);
+	}
+
+	@ExceptionHandler(GoneException.class)
+	public ResponseEntity<StandardError> gone(GoneException ex, HttpServletRequest request) {
+		HttpStatus status = HttpStatus.GONE;
+		StandardError error = new StandardError(OffsetDateTime.now(), System.currentTimeMillis(), status.value(),
+				status.name(), ex.getMessage(), request.getRequestURI());
+		return ResponseEntity.status(status).body(error);
+	}
+
+	@ExceptionHandler(ServiceUnavailableException.class)
+	public ResponseEntity<StandardError> unavailable(ServiceUnavailableException ex, HttpServletRequest request) {
+		HttpStatus status = HttpStatus.SERVICE_UNAVAILABLE;
+		StandardError error = new StandardError(OffsetDateTime.now(), System.currentTimeMillis(), status.value(),
+				status.name(), ex.getMessage(), request.getRequestURI());
+		return ResponseEntity.status(status).body(error);
+	}
+
+	@ExceptionHandler(TooManyRequestsException.class)
+	public ResponseEntity<StandardError> tooManyRequests(TooManyRequestsException ex, HttpServletRequest request) {
+		HttpStatus status = HttpStatus.TOO_MANY_REQUESTS;
+		StandardError error = new StandardError(OffsetDateTime.now(), System.currentTimeMillis(), status.value(),
+				status.name(), ex.getMessage(), request.getRequestURI());
+		return ResponseEntity.status(status).header(HttpHeaders.RETRY_AFTER, "1").body(error);
+	}
+
+	@ExceptionHandler(OptimisticLockingFailureException.class)
+	public ResponseEntity<StandardError> conflict(OptimisticLockingFailureException ex, HttpServletRequest request) {
+		HttpStatus status = HttpStatus.CONFLICT;
+		StandardError error = new StandardError(OffsetDateTime.now(), System.currentTimeMillis(), status.value(),
+				status.name(), "Tool was modified concurrently", request.getRequestURI());
+		return ResponseEntity.status(status).body(error);
+	}
+
 	@ExceptionHandler(MethodArgumentNotValidException.class)
 	public ResponseEntity<StandardError> validation(MethodArgumentNotValidException ex, HttpServletRequest request) {
 		HttpStatus status = HttpStatus.UNPROCESSABLE_ENTITY;
@@ -0,0 +1,18 @@
+package com.pardini.vuttr.api.exceptions;
+
+public class BadRequestException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	public BadRequestException() {
+		super("Bad request");
+	}
+
+	public BadRequestException(String msg) {
+		super(msg);
+	}
+
+	public BadRequestException(String msg, Throwable cause) {
+		super(msg, cause);
+	}
+}
@@ -0,0 +1,14 @@
+package com.pardini.vuttr.api.exceptions;
+
+public class GoneException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	public GoneException(String msg) {
+		super(msg);
+	}
+
+	public GoneException(String msg, Throwable cause) {
+		super(msg, cause);
+	}
+}
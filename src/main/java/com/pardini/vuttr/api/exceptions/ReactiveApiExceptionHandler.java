@@ -0,0 +1,63 @@
+package com.pardini.vuttr.api.exceptions;
+
+import java.time.OffsetDateTime;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.support.WebExchangeBindException;
+
+/**
+ * WebFlux counterpart of {@link ApiExceptionHandler}, with the same bodies.
+ */
+@ControllerAdvice
+@ConditionalOnWebApplication(type = Type.REACTIVE)
+public class ReactiveApiExceptionHandler {
+
+	@ExceptionHandler(ResourceNotFoundException.class)
+	public ResponseEntity<StandardError> objectNotFound(ResourceNotFoundException ex, ServerHttpRequest request) {
+		return this.error(HttpStatus.NOT_FOUND, ex, request);
+	}
+
+	@ExceptionHandler(BadRequestException.class)
+	public ResponseEntity<StandardError> badRequest(BadRequestException ex, ServerHttpRequest request) {
+		return this.error(HttpStatus.BAD_REQUEST, ex, request);
+	}
+
+	@ExceptionHandler(ServiceUnavailableException.class)
+	public ResponseEntity<StandardError> unavailable(ServiceUnavailableException ex, ServerHttpRequest request) {
+		return this.error(HttpStatus.SERVICE_UNAVAILABLE, ex, request);
+	}
+
+	@ExceptionHandler(OptimisticLockingFailureException.class)
+	public ResponseEntity<StandardError> conflict(OptimisticLockingFailureException ex, ServerHttpRequest request) {
+		HttpStatus status = HttpStatus.CONFLICT;
+		StandardError error = new StandardError(OffsetDateTime.now(), System.currentTimeMillis(), status.value(),
+				status.name(), "Tool was modified concurrently", request.getPath().value());
+		return ResponseEntity.status(status).body(error);
+	}
+
+	@ExceptionHandler(WebExchangeBindException.class)
+	public ResponseEntity<StandardError> validation(WebExchangeBindException ex, ServerHttpRequest request) {
+		HttpStatus status = HttpStatus.UNPROCESSABLE_ENTITY;
+		ValidationError err = new ValidationError(OffsetDateTime.now(), System.currentTimeMillis(), status.value(),
+				"Validation error", "Error when trying to validate fields", request.getPath().value());
+		for (FieldError x : ex.getBindingResult().getFieldErrors()) {
+			err.addError(x.getField(), x.getDefaultMessage());
+		}
+		return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(err);
+	}
+
+	private ResponseEntity<StandardError> error(HttpStatus status, RuntimeException ex, ServerHttpRequest request) {
+		StandardError error = new StandardError(OffsetDateTime.now(), System.currentTimeMillis(), status.value(),
+				status.name(), ex.getMessage(), request.getPath().value());
+		return ResponseEntity.status(status).body(error);
+	}
+
+}
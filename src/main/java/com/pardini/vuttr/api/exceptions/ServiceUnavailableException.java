@@ -0,0 +1,18 @@
+package com.pardini.vuttr.api.exceptions;
+
+public class ServiceUnavailableException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	public ServiceUnavailableException() {
+		super("Service unavailable");
+	}
+
+	public ServiceUnavailableException(String msg) {
+		super(msg);
+	}
+
+	public ServiceUnavailableException(String msg, Throwable cause) {
+		super(msg, cause);
+	}
+}
@@ -0,0 +1,18 @@
+package com.pardini.vuttr.api.exceptions;
+
+public class TooManyRequestsException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	public TooManyRequestsException() {
+		super("Too many requests");
+	}
+
+	public TooManyRequestsException(String msg) {
+		super(msg);
+	}
+
+	public TooManyRequestsException(String msg, Throwable cause) {
+		super(msg, cause);
+	}
+}
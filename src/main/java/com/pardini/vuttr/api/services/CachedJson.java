@@ -0,0 +1,36 @@
+package com.pardini.vuttr.api.services;
+
+import java.time.Instant;
+
+/**
+ * A response body already encoded as JSON, with what the response headers
+ * need from the tool it was written from. Both are null for list responses.
+ */
+public final class CachedJson {
+
+	private final byte[] body;
+
+	private final Long version;
+
+	private final Instant lastModified;
+
+	public CachedJson(byte[] body, Long version, Instant lastModified) {
+		this.body = body;
+		this.version = version;
+		this.lastModified = lastModified;
+	}
+
+	/** The encoded body. Shared by every response, so it must not be modified. */
+	public byte[] getBody() {
+		return this.body;
+	}
+
+	public Long getVersion() {
+		return this.version;
+	}
+
+	public Instant getLastModified() {
+		return this.lastModified;
+	}
+
+}
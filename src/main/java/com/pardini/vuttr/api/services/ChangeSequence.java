@@ -0,0 +1,310 @@
+package com.pardini.vuttr.api.services;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.LongFunction;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.pardini.vuttr.api.exceptions.BadRequestException;
+import com.pardini.vuttr.api.exceptions.GoneException;
+import com.pardini.vuttr.domain.repositories.ToolRepository;
+
+/**
+ * Numbers every write in the order it started, so clients can ask for the
+ * changes after the last one they saw. Numbers come from a counter in the
+ * database, fetched {@code vuttr.changes.block-size} at a time so most writes
+ * take theirs without a round trip. Numbers left in a block when the process
+ * stops are skipped.
+ * <p>
+ * A write numbered 10 may land after one numbered 11. Changes are only read
+ * up to the number before the oldest write still in flight, so a client never
+ * moves past a change it hasn't seen. Writes in flight are tracked in
+ * process, like the caches, which assumes a single writing node; the
+ * application refuses to start a second one, see
+ * {@code StoreClaimConfig}.
+ * <p>
+ * The collection version, which keys ETags and cached pages, moves on every
+ * write that returns, failed or not. It is kept in process as well, so it
+ * only sees the writes of this node. It starts from a number taken from the
+ * counter, so it is past every version handed out before a restart and no
+ * store needs an extra write to keep it.
+ * <p>
+ * Tokens carry a change number and the time the client last caught up with
+ * every change, which a token for a page cut short passes on from the one
+ * before. A tool deleted after that time still has its tombstone until
+ * {@code vuttr.changes.tombstone-retention} after it, so older tokens are
+ * refused and the client has to read the collection again.
+ */
+@Component
+public class ChangeSequence {
+
+	private static final Logger log = LoggerFactory.getLogger(ChangeSequence.class);
+
+	private static final int STAMP_BATCH_SIZE = 500;
+
+	private final ToolRepository toolRepository;
+
+	private final Duration tombstoneRetention;
+
+	private final int blockSize;
+
+	/** First number of each write that hasn't returned. */
+	private final ConcurrentSkipListSet<Long> inFlight = new ConcurrentSkipListSet<>();
+
+	// the fields below are guarded by inFlight's monitor, which is never held
+	// while the counter is read
+
+	/** Next number of the block and the last one. */
+	private long next = 1;
+
+	private long blockEnd;
+
+	/** Last number handed out. */
+	private long handedOut;
+
+	/** Whether the counter was read. */
+	private boolean loaded;
+
+	private long version;
+
+	/** Block being fetched, null if none. */
+	private CompletableFuture<Void> fetching;
+
+	public ChangeSequence(ToolRepository toolRepository,
+			@Value("${vuttr.changes.tombstone-retention:30d}") Duration tombstoneRetention,
+			@Value("${vuttr.changes.block-size:1000}") int blockSize) {
+		this.toolRepository = toolRepository;
+		this.tombstoneRetention = tombstoneRetention;
+		this.blockSize = blockSize;
+	}
+
+	/**
+	 * Runs the write with the first of {@code count} consecutive numbers.
+	 */
+	public <T> T write(int count, LongFunction<T> write) {
+		long first = this.take(count);
+		try {
+			return write.apply(first);
+		} finally {
+			this.done(first);
+		}
+	}
+
+	/**
+	 * Highest number below which every write has returned.
+	 */
+	public long stable() {
+		while (true) {
+			synchronized (this.inFlight) {
+				if (this.loaded) {
+					return this.inFlight.isEmpty() ? this.handedOut : this.inFlight.first() - 1;
+				}
+			}
+			this.load();
+		}
+	}
+
+	/**
+	 * Version of the collection as a whole, changed by every write.
+	 */
+	public long version() {
+		Long version;
+		while ((version = this.loadedVersion()) == null) {
+			this.load();
+		}
+		return version;
+	}
+
+	/**
+	 * {@link #version()} if the counter was read, null if reading the version
+	 * would wait for the database.
+	 */
+	Long loadedVersion() {
+		synchronized (this.inFlight) {
+			return this.loaded ? this.version : null;
+		}
+	}
+
+	/**
+	 * First of {@code count} numbers for a write, which must be passed to
+	 * {@link #done(long)} once it returns. May wait for the database.
+	 */
+	long take(int count) {
+		Long first;
+		while ((first = this.tryTake(count)) == null) {
+			this.fetch(Math.max(count, this.blockSize));
+		}
+		return first;
+	}
+
+	/**
+	 * Like {@link #take(int)}, null if the numbers would have to be fetched.
+	 */
+	Long tryTake(int count) {
+		int size = Math.max(count, 1);
+		synchronized (this.inFlight) {
+			if (!this.loaded || this.blockEnd - this.next + 1 < size) {
+				return null;
+			}
+			long first = this.next;
+			this.next += size;
+			this.handedOut = this.next - 1;
+			// handed out in order, so a number not yet in flight is the highest
+			this.inFlight.add(first);
+			return first;
+		}
+	}
+
+	void done(long first) {
+		synchronized (this.inFlight) {
+			this.inFlight.remove(first);
+			this.version++;
+		}
+	}
+
+	private void load() {
+		this.fetch(1);
+	}
+
+	/**
+	 * Fetches a block of {@code size} numbers, or waits for the block another
+	 * thread is fetching.
+	 */
+	private void fetch(int size) {
+		CompletableFuture<Void> pending;
+		CompletableFuture<Void> fetched = new CompletableFuture<>();
+		synchronized (this.inFlight) {
+			pending = this.fetching;
+			if (pending == null) {
+				this.fetching = fetched;
+			}
+		}
+		if (pending != null) {
+			try {
+				pending.join();
+			} catch (CompletionException e) {
+				throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+			}
+			return;
+		}
+		try {
+			long last = this.toolRepository.allocateChangeSeqs(size);
+			synchronized (this.inFlight) {
+				if (this.loaded && last - size < this.handedOut) {
+					throw new IllegalStateException("Change sequence counter went back to " + last);
+				}
+				this.next = last - size + 1;
+				this.blockEnd = last;
+				if (!this.loaded) {
+					// the first number starts the versions, each write after
+					// it takes another number, so versions before a restart
+					// are all below the counter
+					this.version = this.next++;
+					this.handedOut = this.version;
+					this.loaded = true;
+				}
+				this.fetching = null;
+			}
+			fetched.complete(null);
+		} catch (RuntimeException e) {
+			synchronized (this.inFlight) {
+				this.fetching = null;
+			}
+			fetched.completeExceptionally(e);
+			throw e;
+		}
+	}
+
+	/**
+	 * Token for a client that saw the changes up to {@code changeSeq} and had
+	 * seen every change written before {@code syncedAt}.
+	 */
+	public String token(long changeSeq, Instant syncedAt) {
+		return PageCursor.encode(changeSeq + "@" + syncedAt.toEpochMilli());
+	}
+
+	/**
+	 * Position the token stands for, {@link Position#START} for none. Throws
+	 * {@link GoneException} if deletions after it may have been forgotten.
+	 */
+	public Position positionOf(String token) {
+		if (token == null) {
+			return Position.START;
+		}
+		String value = PageCursor.decode(token);
+		int at = value.indexOf('@');
+		long changeSeq;
+		long syncedAt;
+		try {
+			changeSeq = Long.parseLong(value.substring(0, Math.max(at, 0)));
+			syncedAt = Long.parseLong(value.substring(at + 1));
+		} catch (NumberFormatException e) {
+			throw new BadRequestException("Invalid token", e);
+		}
+		Position position = new Position(changeSeq, Instant.ofEpochMilli(syncedAt));
+		if (position.syncedAt.plus(this.tombstoneRetention).isBefore(Instant.now())) {
+			throw new GoneException("Token expired, read the whole collection again");
+		}
+		return position;
+	}
+
+	/**
+	 * Numbers the tools stored before writes were numbered, so the first
+	 * request for changes returns them.
+	 */
+	public void stampUnsequenced() {
+		long stamped = 0;
+		List<String> ids;
+		while (!(ids = this.toolRepository.findUnsequencedIds(STAMP_BATCH_SIZE)).isEmpty()) {
+			List<String> batch = ids;
+			this.write(batch.size(), first -> {
+				this.toolRepository.stampUnsequenced(batch, first);
+				return null;
+			});
+			stamped += batch.size();
+		}
+		if (stamped > 0) {
+			log.info("Numbered {} tools stored before the change sequence", stamped);
+		}
+	}
+
+	/**
+	 * Where a client is in the changes, see {@link #positionOf(String)}.
+	 */
+	public static final class Position {
+
+		/** Before the first change, for a client that has seen nothing. */
+		public static final Position START = new Position(0, null);
+
+		private final long changeSeq;
+
+		private final Instant syncedAt;
+
+		Position(long changeSeq, Instant syncedAt) {
+			this.changeSeq = changeSeq;
+			this.syncedAt = syncedAt;
+		}
+
+		public long getChangeSeq() {
+			return this.changeSeq;
+		}
+
+		/**
+		 * When the client last caught up with every change, null at the
+		 * start.
+		 */
+		public Instant getSyncedAt() {
+			return this.syncedAt;
+		}
+
+	}
+
+}
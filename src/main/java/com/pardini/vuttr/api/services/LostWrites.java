@@ -0,0 +1,41 @@
+package com.pardini.vuttr.api.services;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Tools accepted with write-behind whose queued insert failed after the
+ * client was answered. Each one is logged with its id and counted in
+ * {@code vuttr.writes.lost}.
+ */
+@Component
+public class LostWrites implements MeterBinder {
+
+	private static final Logger log = LoggerFactory.getLogger(LostWrites.class);
+
+	private final LongAdder lost = new LongAdder();
+
+	public void record(String id, Throwable failure) {
+		this.lost.increment();
+		log.error("Accepted tool {} was not stored", id, failure);
+	}
+
+	public long count() {
+		return this.lost.sum();
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		FunctionCounter.builder("vuttr.writes.lost", this.lost, LongAdder::sum)
+			.description("Accepted tools whose queued insert failed")
+			.register(registry);
+	}
+
+}
@@ -0,0 +1,225 @@
+package com.pardini.vuttr.api.services;
+
+import java.util.Arrays;
+
+/**
+ * Immutable set of non-negative ints kept in primitive arrays. Sparse sets are
+ * a sorted {@code int[]}, dense sets a {@code long[]} bitmap, whichever takes
+ * fewer bytes. Updates return a new set, so readers never need a lock.
+ */
+final class OrdinalSet {
+
+	static final OrdinalSet EMPTY = new OrdinalSet(new int[0], null, 0);
+
+	/** Sorted ordinals, or null when the set is a bitmap. */
+	private final int[] values;
+
+	/** Bitmap words, or null when the set is an array. */
+	private final long[] words;
+
+	private final int cardinality;
+
+	private OrdinalSet(int[] values, long[] words, int cardinality) {
+		this.values = values;
+		this.words = words;
+		this.cardinality = cardinality;
+	}
+
+	static OrdinalSet of(int... ordinals) {
+		int[] sorted = ordinals.clone();
+		Arrays.sort(sorted);
+		int size = 0;
+		for (int i = 0; i < sorted.length; i++) {
+			if (size == 0 || sorted[size - 1] != sorted[i]) {
+				sorted[size++] = sorted[i];
+			}
+		}
+		return fromSorted(sorted, size);
+	}
+
+	int cardinality() {
+		return this.cardinality;
+	}
+
+	boolean isEmpty() {
+		return this.cardinality == 0;
+	}
+
+	boolean contains(int ordinal) {
+		if (this.words != null) {
+			int word = ordinal >>> 6;
+			return word < this.words.length && (this.words[word] & (1L << ordinal)) != 0;
+		}
+		return Arrays.binarySearch(this.values, ordinal) >= 0;
+	}
+
+	OrdinalSet with(int ordinal) {
+		if (this.contains(ordinal)) {
+			return this;
+		}
+		if (this.words != null) {
+			long[] copy = Arrays.copyOf(this.words, Math.max(this.words.length, (ordinal >>> 6) + 1));
+			copy[ordinal >>> 6] |= 1L << ordinal;
+			return optimize(copy, this.cardinality + 1);
+		}
+		int insertAt = -Arrays.binarySearch(this.values, ordinal) - 1;
+		int[] copy = new int[this.values.length + 1];
+		System.arraycopy(this.values, 0, copy, 0, insertAt);
+		copy[insertAt] = ordinal;
+		System.arraycopy(this.values, insertAt, copy, insertAt + 1, this.values.length - insertAt);
+		return fromSorted(copy, copy.length);
+	}
+
+	OrdinalSet without(int ordinal) {
+		if (!this.contains(ordinal)) {
+			return this;
+		}
+		if (this.words != null) {
+			long[] copy = this.words.clone();
+			copy[ordinal >>> 6] &= ~(1L << ordinal);
+			return optimize(copy, this.cardinality - 1);
+		}
+		int removeAt = Arrays.binarySearch(this.values, ordinal);
+		int[] copy = new int[this.values.length - 1];
+		System.arraycopy(this.values, 0, copy, 0, removeAt);
+		System.arraycopy(this.values, removeAt + 1, copy, removeAt, copy.length - removeAt);
+		return fromSorted(copy, copy.length);
+	}
+
+	OrdinalSet and(OrdinalSet other) {
+		if (this.words != null && other.words != null) {
+			long[] result = new long[Math.min(this.words.length, other.words.length)];
+			int cardinality = 0;
+			for (int i = 0; i < result.length; i++) {
+				result[i] = this.words[i] & other.words[i];
+				cardinality += Long.bitCount(result[i]);
+			}
+			return optimize(result, cardinality);
+		}
+		OrdinalSet smaller = this.cardinality <= other.cardinality ? this : other;
+		OrdinalSet larger = smaller == this ? other : this;
+		int[] result = new int[smaller.cardinality];
+		int size = 0;
+		for (int ordinal : smaller.toArray()) {
+			if (larger.contains(ordinal)) {
+				result[size++] = ordinal;
+			}
+		}
+		return fromSorted(result, size);
+	}
+
+	int andCardinality(OrdinalSet other) {
+		if (this.words != null && other.words != null) {
+			int cardinality = 0;
+			for (int i = 0, n = Math.min(this.words.length, other.words.length); i < n; i++) {
+				cardinality += Long.bitCount(this.words[i] & other.words[i]);
+			}
+			return cardinality;
+		}
+		OrdinalSet smaller = this.cardinality <= other.cardinality ? this : other;
+		OrdinalSet larger = smaller == this ? other : this;
+		int cardinality = 0;
+		for (int ordinal : smaller.toArray()) {
+			if (larger.contains(ordinal)) {
+				cardinality++;
+			}
+		}
+		return cardinality;
+	}
+
+	OrdinalSet or(OrdinalSet other) {
+		if (this.words != null && other.words != null) {
+			long[] result = Arrays.copyOf(this.words, Math.max(this.words.length, other.words.length));
+			int cardinality = 0;
+			for (int i = 0; i < result.length; i++) {
+				if (i < other.words.length) {
+					result[i] |= other.words[i];
+				}
+				cardinality += Long.bitCount(result[i]);
+			}
+			return optimize(result, cardinality);
+		}
+		int[] left = this.toArray();
+		int[] right = other.toArray();
+		int[] result = new int[left.length + right.length];
+		int i = 0, j = 0, size = 0;
+		while (i < left.length || j < right.length) {
+			if (j == right.length || (i < left.length && left[i] < right[j])) {
+				result[size++] = left[i++];
+			} else if (i == left.length || right[j] < left[i]) {
+				result[size++] = right[j++];
+			} else {
+				result[size++] = left[i++];
+				j++;
+			}
+		}
+		return fromSorted(result, size);
+	}
+
+	/**
+	 * Returns, in ascending order, at most {@code limit} ordinals greater than
+	 * {@code after}. Use -1 to start from the beginning.
+	 */
+	int[] page(int after, int limit) {
+		int[] result = new int[Math.min(limit, this.cardinality)];
+		int size = 0;
+		if (this.words != null) {
+			int ordinal = after + 1;
+			while (size < result.length && (ordinal >>> 6) < this.words.length) {
+				long word = this.words[ordinal >>> 6] & (-1L << ordinal);
+				if (word == 0) {
+					ordinal = ((ordinal >>> 6) + 1) << 6;
+					continue;
+				}
+				ordinal = ((ordinal >>> 6) << 6) + Long.numberOfTrailingZeros(word);
+				result[size++] = ordinal++;
+			}
+		} else {
+			int start = Arrays.binarySearch(this.values, after + 1);
+			start = start < 0 ? -start - 1 : start;
+			size = Math.min(result.length, this.values.length - start);
+			System.arraycopy(this.values, start, result, 0, size);
+		}
+		return size == result.length ? result : Arrays.copyOf(result, size);
+	}
+
+	int[] toArray() {
+		if (this.words == null) {
+			return this.values;
+		}
+		return this.page(-1, this.cardinality);
+	}
+
+	private static OrdinalSet fromSorted(int[] sorted, int size) {
+		if (size == 0) {
+			return EMPTY;
+		}
+		int wordCount = (sorted[size - 1] >>> 6) + 1;
+		// a word costs as much as two array slots
+		if (wordCount * 2 < size) {
+			long[] words = new long[wordCount];
+			for (int i = 0; i < size; i++) {
+				words[sorted[i] >>> 6] |= 1L << sorted[i];
+			}
+			return new OrdinalSet(null, words, size);
+		}
+		return new OrdinalSet(size == sorted.length ? sorted : Arrays.copyOf(sorted, size), null, size);
+	}
+
+	private static OrdinalSet optimize(long[] words, int cardinality) {
+		if (cardinality == 0) {
+			return EMPTY;
+		}
+		int wordCount = words.length;
+		while (words[wordCount - 1] == 0) {
+			wordCount--;
+		}
+		if (wordCount * 2 < cardinality) {
+			return new OrdinalSet(null, wordCount == words.length ? words : Arrays.copyOf(words, wordCount),
+					cardinality);
+		}
+		OrdinalSet bitmap = new OrdinalSet(null, words, cardinality);
+		return new OrdinalSet(bitmap.toArray(), null, cardinality);
+	}
+
+}
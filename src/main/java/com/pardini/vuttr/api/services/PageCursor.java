@@ -0,0 +1,68 @@
+package com.pardini.vuttr.api.services;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import com.pardini.vuttr.api.exceptions.BadRequestException;
+
+/**
+ * Opaque pagination cursor. Clients must treat the value as a token and hand
+ * it back unchanged in the next request.
+ * <p>
+ * A cursor holds either the last tool id of a database page, the last ordinal
+ * of a page served by the {@link TagIndex} (prefixed with {@code #}) or the
+ * offset of the next search page (prefixed with {@code +}).
+ */
+final class PageCursor {
+
+	private static final String ORDINAL_PREFIX = "#";
+
+	private static final String OFFSET_PREFIX = "+";
+
+	private PageCursor() {
+	}
+
+	static String encode(int ordinal) {
+		return encode(ORDINAL_PREFIX + ordinal);
+	}
+
+	static String encodeOffset(int offset) {
+		return encode(OFFSET_PREFIX + offset);
+	}
+
+	static int offsetOf(String key) {
+		try {
+			if (key.startsWith(OFFSET_PREFIX)) {
+				return Integer.parseInt(key.substring(OFFSET_PREFIX.length()));
+			}
+		} catch (NumberFormatException e) {
+			throw new BadRequestException("Invalid cursor", e);
+		}
+		throw new BadRequestException("Invalid cursor");
+	}
+
+	static boolean isOrdinal(String key) {
+		return key.startsWith(ORDINAL_PREFIX);
+	}
+
+	static int ordinalOf(String key) {
+		try {
+			return Integer.parseInt(key.substring(ORDINAL_PREFIX.length()));
+		} catch (NumberFormatException e) {
+			throw new BadRequestException("Invalid cursor", e);
+		}
+	}
+
+	static String encode(String key) {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+	}
+
+	static String decode(String cursor) {
+		try {
+			return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+		} catch (IllegalArgumentException e) {
+			throw new BadRequestException("Invalid cursor", e);
+		}
+	}
+
+}
@@ -0,0 +1,73 @@
+package com.pardini.vuttr.api.services;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.pardini.vuttr.api.exceptions.BadRequestException;
+
+/**
+ * Page size and query bounds shared by the blocking and reactive services.
+ */
+@Component
+class PageLimits {
+
+	@Value("${vuttr.pagination.default-limit:20}")
+	private int defaultLimit;
+
+	@Value("${vuttr.pagination.max-limit:100}")
+	private int maxLimit;
+
+	@Value("${vuttr.pagination.max-tags:20}")
+	private int maxTags;
+
+	@Value("${vuttr.search.max-results:1000}")
+	private int searchMaxResults;
+
+	int resolve(Integer limit) {
+		if (limit == null) {
+			return Math.min(this.defaultLimit, this.maxLimit);
+		}
+		if (limit < 1) {
+			throw new BadRequestException("Limit must be greater than zero");
+		}
+		return Math.min(limit, this.maxLimit);
+	}
+
+	void checkTags(List<String> tags) {
+		if (tags.isEmpty() || tags.size() > this.maxTags) {
+			throw new BadRequestException("Between 1 and " + this.maxTags + " tags are accepted");
+		}
+	}
+
+	void checkSearchText(String text) {
+		if (text == null || text.isBlank()) {
+			throw new BadRequestException("Search text must not be blank");
+		}
+	}
+
+	/**
+	 * Offset of the search page the cursor points to, 0 for the first one.
+	 */
+	int searchOffset(String cursor) {
+		int offset = cursor == null ? 0 : PageCursor.offsetOf(PageCursor.decode(cursor));
+		if (offset < 0 || offset >= this.searchMaxResults) {
+			throw new BadRequestException("Invalid cursor");
+		}
+		return offset;
+	}
+
+	/**
+	 * Size of a search page, shortened so it does not go past the last
+	 * searchable result.
+	 */
+	int searchSize(Integer limit, int offset) {
+		return Math.min(this.resolve(limit), this.searchMaxResults - offset);
+	}
+
+	boolean hasMoreSearchResults(int nextOffset) {
+		return nextOffset < this.searchMaxResults;
+	}
+
+}
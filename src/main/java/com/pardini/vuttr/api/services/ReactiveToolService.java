@@ -0,0 +1,242 @@
+package com.pardini.vuttr.api.services;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.stereotype.Service;
+
+import com.pardini.vuttr.api.exceptions.BadRequestException;
+import com.pardini.vuttr.api.exceptions.ResourceNotFoundException;
+import com.pardini.vuttr.domain.dtos.BatchResultDto;
+import com.pardini.vuttr.domain.dtos.DeleteResultDto;
+import com.pardini.vuttr.domain.dtos.PageDto;
+import com.pardini.vuttr.domain.dtos.ToolBatchItemDto;
+import com.pardini.vuttr.domain.dtos.ToolDto;
+import com.pardini.vuttr.domain.dtos.ToolPatchDto;
+import com.pardini.vuttr.domain.model.TagDictionary;
+import com.pardini.vuttr.domain.model.Tool;
+import com.pardini.vuttr.domain.repositories.ReactiveToolRepository;
+import com.pardini.vuttr.domain.repositories.TagMatch;
+import com.pardini.vuttr.domain.repositories.ToolFields;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Non-blocking counterpart of {@link ToolService}, used when the application
+ * runs on WebFlux ({@code spring.main.web-application-type=reactive}). Reads
+ * and writes go to MongoDB through the reactive driver, so no thread waits on
+ * the database.
+ * <p>
+ * Pages always come from MongoDB; the {@link TagIndex} and {@link ToolCache}
+ * load through blocking calls, so here they are only kept up to date for the
+ * in-memory tag endpoints. Batches are bulk writes with per-item results and
+ * are handed to {@link ToolService} on a bounded worker pool.
+ * <p>
+ * Writes are numbered by the {@link ChangeSequence}, which moves the
+ * collection version when they return, and deletions leave tombstones, as in
+ * {@link ToolService}. Caches, the tag index and the event stream are told
+ * through the same calls. Deleting by tag reads the ids in chunks and is
+ * handed to {@link ToolService} like batches.
+ */
+@Service
+@ConditionalOnWebApplication(type = Type.REACTIVE)
+public class ReactiveToolService {
+
+	@Autowired
+	private ReactiveToolRepository toolRepository;
+
+	@Autowired
+	private ToolService toolService;
+
+	@Autowired
+	private ChangeSequence changeSequence;
+
+	@Autowired
+	private PageLimits pageLimits;
+
+	@Value("${vuttr.batch.max-items:10000}")
+	private int batchMaxItems;
+
+	public Mono<PageDto<Tool>> getAll(String cursor, Integer limit, ToolFields fields) {
+		return this.getPage(null, null, cursor, limit, fields);
+	}
+
+	public Mono<Tool> getById(String id, ToolFields fields) {
+		if (fields.isAll()) {
+			return this.getRegisterById(id);
+		}
+		return this.toolRepository
+			.findFields(id, fields)
+			.switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Tool not found")));
+	}
+
+	public Mono<PageDto<Tool>> getByTag(String tag, String cursor, Integer limit, ToolFields fields) {
+		return this.getPage(Collections.singletonList(TagDictionary.normalize(tag)), TagMatch.ALL, cursor, limit,
+				fields);
+	}
+
+	public Mono<PageDto<Tool>> getByTags(List<String> tags, TagMatch match, String cursor, Integer limit,
+			ToolFields fields) {
+		return Mono.defer(() -> {
+			this.pageLimits.checkTags(tags);
+			return this.getPage(TagDictionary.normalize(tags), match, cursor, limit, fields);
+		});
+	}
+
+	public Mono<PageDto<Tool>> search(String text, String cursor, Integer limit) {
+		return Mono.defer(() -> {
+			this.pageLimits.checkSearchText(text);
+			int offset = this.pageLimits.searchOffset(cursor);
+			int size = this.pageLimits.searchSize(limit, offset);
+			int nextOffset = offset + size;
+			return this.toolRepository.search(text, offset, size + 1).collectList().map(tools -> {
+				if (tools.size() <= size || !this.pageLimits.hasMoreSearchResults(nextOffset)) {
+					return new PageDto<>(tools.subList(0, Math.min(size, tools.size())), null);
+				}
+				return new PageDto<>(tools.subList(0, size), PageCursor.encodeOffset(nextOffset));
+			});
+		});
+	}
+
+	public Mono<Long> getCollectionVersion() {
+		return Mono.defer(() -> Mono.justOrEmpty(this.changeSequence.loadedVersion()))
+			// only the first call reads the counter
+			.switchIfEmpty(Mono.fromCallable(this.changeSequence::version).subscribeOn(Schedulers.boundedElastic()));
+	}
+
+	/**
+	 * Every tool, emitted as it comes from the database cursor and only as
+	 * fast as the client reads.
+	 */
+	public Flux<Tool> export() {
+		return this.toolRepository.findAll();
+	}
+
+	public Mono<Tool> update(String id, ToolDto objDto) {
+		return this.patch(id, ToolPatchDto.of(objDto));
+	}
+
+	public Mono<Tool> patch(String id, ToolPatchDto patch) {
+		return this.numbered(1, changeSeq -> this.toolRepository.patch(id, patch, changeSeq))
+			.switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Tool not found")))
+			.map(this::written);
+	}
+
+	public Mono<Tool> save(ToolDto objDto) {
+		Tool obj = new Tool();
+		BeanUtils.copyProperties(objDto, obj);
+		return this.numbered(1, changeSeq -> {
+			obj.setChangeSeq(changeSeq);
+			obj.setCreatedSeq(changeSeq);
+			return this.toolRepository.save(obj);
+		}).map(this::written);
+	}
+
+	public Mono<BatchResultDto> saveAll(Flux<ToolBatchItemDto> items) {
+		// one item over the limit is enough to reject the batch
+		return items.take(this.batchMaxItems + 1L)
+			.collectList()
+			.publishOn(Schedulers.boundedElastic())
+			.map(this.toolService::saveAll);
+	}
+
+	public Mono<Void> delete(String id) {
+		return this.numbered(1, changeSeq -> this.toolRepository.removeById(id)
+			.flatMap(deleted -> deleted
+					? this.toolRepository.saveTombstones(List.of(id), changeSeq).thenReturn(true)
+					: Mono.just(false)))
+			.flatMap(deleted -> {
+				if (!deleted) {
+					return Mono.error(new ResourceNotFoundException("Tool not found"));
+				}
+				this.toolService.removed(id);
+				this.toolService.collectionChanged();
+				return Mono.empty();
+			});
+	}
+
+	public Mono<DeleteResultDto> deleteAll(List<String> ids) {
+		if (ids.isEmpty() || ids.size() > this.batchMaxItems) {
+			return Mono.error(new BadRequestException("Between 1 and " + this.batchMaxItems + " ids are accepted"));
+		}
+		List<String> distinct = new ArrayList<>(new LinkedHashSet<>(ids));
+		return this.numbered(distinct.size(), firstSeq -> this.toolRepository.removeAllById(distinct)
+			// which ids existed is not known, a tombstone for one that didn't is harmless
+			.flatMap(removed -> removed > 0
+					? this.toolRepository.saveTombstones(distinct, firstSeq).thenReturn(removed)
+					: Mono.just(removed)))
+			.map(deleted -> {
+				distinct.forEach(this.toolService::removed);
+				if (deleted > 0) {
+					this.toolService.collectionChanged();
+				}
+				return new DeleteResultDto(deleted);
+			});
+	}
+
+	public Mono<DeleteResultDto> deleteByTag(String tag) {
+		return Mono.fromCallable(() -> this.toolService.deleteByTag(tag)).subscribeOn(Schedulers.boundedElastic());
+	}
+
+	private Mono<Tool> getRegisterById(String id) {
+		return this.toolRepository
+			.findById(id)
+			.switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Tool not found")));
+	}
+
+	/**
+	 * Runs the write with the first of {@code count} change numbers, like
+	 * {@link ChangeSequence#write}. Numbers are fetched on a worker thread
+	 * when the block runs out. The write runs to the end even if the caller
+	 * cancels, so its numbers aren't released while it may still land.
+	 */
+	private <T> Mono<T> numbered(int count, LongFunction<Mono<T>> write) {
+		return Mono.defer(() -> Mono.justOrEmpty(this.changeSequence.tryTake(count)))
+			.switchIfEmpty(Mono.fromCallable(() -> this.changeSequence.take(count))
+				.subscribeOn(Schedulers.boundedElastic()))
+			.flatMap(first -> {
+				CompletableFuture<T> written = Mono.defer(() -> write.apply(first))
+					.doFinally(signal -> this.changeSequence.done(first))
+					.toFuture();
+				// cancelling a dependent future leaves the write subscribed
+				return Mono.fromFuture(written.thenApply(Function.identity()));
+			});
+	}
+
+	private Tool written(Tool tool) {
+		this.toolService.written(tool);
+		this.toolService.collectionChanged();
+		return tool;
+	}
+
+	private Mono<PageDto<Tool>> getPage(List<String> tags, TagMatch match, String cursor, Integer limit,
+			ToolFields fields) {
+		return Mono.defer(() -> {
+			int size = this.pageLimits.resolve(limit);
+			String after = cursor == null ? null : PageCursor.decode(cursor);
+			if (after != null && PageCursor.isOrdinal(after)) {
+				throw new BadRequestException("Cursor expired");
+			}
+			return this.toolRepository.findPage(tags, match, after, size + 1, fields).collectList().map(tools -> {
+				if (tools.size() <= size) {
+					return new PageDto<>(tools, null);
+				}
+				List<Tool> items = tools.subList(0, size);
+				return new PageDto<>(items, PageCursor.encode(items.get(size - 1).getId()));
+			});
+		});
+	}
+
+}
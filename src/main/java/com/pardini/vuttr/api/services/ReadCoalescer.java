@@ -0,0 +1,97 @@
+package com.pardini.vuttr.api.services;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.pardini.vuttr.domain.dtos.PageDto;
+import com.pardini.vuttr.domain.model.Tool;
+import com.pardini.vuttr.domain.repositories.ToolFields;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Shares one repository call between concurrent identical reads, so a burst
+ * of requests for the same tool or tag reaches the database once.
+ * <p>
+ * Writers must call {@link #forgetTool(String)} and
+ * {@link #forgetCollection()} after the write returns, so later reads don't
+ * join a call that may have read the old data.
+ * <p>
+ * A read joining one in flight waits at most {@code vuttr.coalescing.tool-timeout}
+ * or {@code vuttr.coalescing.page-timeout}, then fails with a 503 while the
+ * read it joined carries on.
+ * <p>
+ * Published as {@code vuttr.reads.coalescing} counters, by {@code read} and
+ * by {@code result}: {@code executed}, {@code coalesced} or
+ * {@code timed_out}.
+ */
+@Component
+public class ReadCoalescer implements MeterBinder {
+
+	private final SingleFlight<String, Tool> tools;
+
+	private final SingleFlight<String, PageDto<Tool>> pages;
+
+	private final boolean enabled;
+
+	public ReadCoalescer(@Value("${vuttr.coalescing.enabled:true}") boolean enabled,
+			@Value("${vuttr.coalescing.tool-timeout:2s}") Duration toolTimeout,
+			@Value("${vuttr.coalescing.page-timeout:5s}") Duration pageTimeout) {
+		this.tools = new SingleFlight<>(toolTimeout);
+		this.pages = new SingleFlight<>(pageTimeout);
+		this.enabled = enabled;
+	}
+
+	public Tool tool(String id, ToolFields fields, Supplier<Tool> call) {
+		return this.enabled ? this.tools.execute(id + ":" + fields.key(), call) : call.get();
+	}
+
+	/**
+	 * The key must tell apart every request returning a different page.
+	 */
+	public PageDto<Tool> page(String key, Supplier<PageDto<Tool>> call) {
+		return this.enabled ? this.pages.execute(key, call) : call.get();
+	}
+
+	/** Detaches the reads of the tool in flight, whatever their fields. */
+	public void forgetTool(String id) {
+		String prefix = id + ":";
+		this.tools.forget(key -> key.startsWith(prefix));
+	}
+
+	public void forgetAllTools() {
+		this.tools.forget(key -> true);
+	}
+
+	/** Detaches the page reads in flight. */
+	public void forgetCollection() {
+		this.pages.forget(key -> true);
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		this.bind(registry, "tool", this.tools);
+		this.bind(registry, "page", this.pages);
+	}
+
+	private void bind(MeterRegistry registry, String read, SingleFlight<?, ?> flight) {
+		this.counter(registry, read, "executed", flight, SingleFlight::executed);
+		this.counter(registry, read, "coalesced", flight, SingleFlight::coalesced);
+		this.counter(registry, read, "timed_out", flight, SingleFlight::timedOut);
+	}
+
+	private void counter(MeterRegistry registry, String read, String result, SingleFlight<?, ?> flight,
+			ToDoubleFunction<SingleFlight<?, ?>> count) {
+		FunctionCounter.builder("vuttr.reads.coalescing", flight, count)
+			.description("Reads by whether they made their own repository call")
+			.tags("read", read, "result", result)
+			.register(registry);
+	}
+
+}
@@ -0,0 +1,120 @@
+package com.pardini.vuttr.api.services;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import com.pardini.vuttr.api.exceptions.ServiceUnavailableException;
+
+/**
+ * Runs at most one call per key at a time. Callers asking for a key while its
+ * call is in flight wait for that call and get its result, or its exception.
+ * <p>
+ * A waiting caller gives up after its timeout with a
+ * {@link ServiceUnavailableException}. The call stays in flight for the key:
+ * it is not restarted, so a slow read isn't repeated by every caller that
+ * stops waiting for it, and its result still serves those that keep waiting.
+ */
+final class SingleFlight<K, V> {
+
+	private final ConcurrentMap<K, CompletableFuture<V>> calls = new ConcurrentHashMap<>();
+
+	private final Duration timeout;
+
+	private final LongAdder executed = new LongAdder();
+
+	private final LongAdder coalesced = new LongAdder();
+
+	private final LongAdder timedOut = new LongAdder();
+
+	SingleFlight(Duration timeout) {
+		this.timeout = timeout;
+	}
+
+	V execute(K key, Supplier<V> call) {
+		return this.execute(key, this.timeout, call);
+	}
+
+	/**
+	 * Same as {@link #execute(Object, Supplier)}, waiting for a call already in
+	 * flight at most {@code timeout} instead of the default.
+	 */
+	V execute(K key, Duration timeout, Supplier<V> call) {
+		CompletableFuture<V> own = new CompletableFuture<>();
+		CompletableFuture<V> inFlight = this.calls.putIfAbsent(key, own);
+		if (inFlight == null) {
+			return this.run(key, own, call);
+		}
+		try {
+			V value = inFlight.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+			this.coalesced.increment();
+			return value;
+		} catch (TimeoutException e) {
+			this.timedOut.increment();
+			throw new ServiceUnavailableException("Timed out waiting for a read in flight", e);
+		} catch (ExecutionException e) {
+			this.coalesced.increment();
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			if (e.getCause() instanceof Error) {
+				throw (Error) e.getCause();
+			}
+			throw new IllegalStateException(e.getCause());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ServiceUnavailableException("Interrupted while waiting for a read", e);
+		}
+	}
+
+	/**
+	 * Detaches the calls in flight for the matching keys. Callers arriving later
+	 * start a new call; those already waiting still get the old result.
+	 */
+	void forget(Predicate<K> keys) {
+		this.calls.keySet().removeIf(keys);
+	}
+
+	/** Callers currently waiting for the call in flight for the key. */
+	int waiting(K key) {
+		CompletableFuture<V> inFlight = this.calls.get(key);
+		return inFlight == null ? 0 : inFlight.getNumberOfDependents();
+	}
+
+	/** Calls actually made. */
+	long executed() {
+		return this.executed.sum();
+	}
+
+	/** Callers served by another caller's call. */
+	long coalesced() {
+		return this.coalesced.sum();
+	}
+
+	/** Waits given up because the call took longer than the caller's timeout. */
+	long timedOut() {
+		return this.timedOut.sum();
+	}
+
+	private V run(K key, CompletableFuture<V> own, Supplier<V> call) {
+		this.executed.increment();
+		try {
+			V value = call.get();
+			own.complete(value);
+			return value;
+		} catch (RuntimeException | Error e) {
+			own.completeExceptionally(e);
+			throw e;
+		} finally {
+			this.calls.remove(key, own);
+		}
+	}
+
+}
@@ -0,0 +1,298 @@
+package com.pardini.vuttr.api.services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.stereotype.Component;
+
+import com.pardini.vuttr.domain.dtos.TagCountDto;
+import com.pardini.vuttr.domain.model.Tool;
+import com.pardini.vuttr.domain.repositories.TagMatch;
+
+/**
+ * In-process inverted index from tag to the tools carrying it. Every tool gets
+ * an internal ordinal and each tag maps to an {@link OrdinalSet} of them.
+ * Ordinals of removed tools are reused, so the sets and arrays stay sized by
+ * the tools present rather than by every tool ever indexed; a reader holding
+ * an ordinal across a write may resolve it to the tool that took it over.
+ * <p>
+ * Reads are lock-free: posting sets are immutable and replaced on write.
+ * Writes are serialized on the index. {@link #rebuild} loads a fresh copy
+ * without blocking writers and replays the writes made meanwhile before
+ * swapping it in.
+ * <p>
+ * The tag vocabulary is also kept as a sorted array, so prefix lookups are a
+ * binary search followed by a scan of the matching range.
+ */
+@Component
+public class TagIndex {
+
+	private static final Comparator<TagCountDto> MOST_USED_FIRST = Comparator
+		.comparingInt(TagCountDto::getCount).reversed()
+		.thenComparing(TagCountDto::getTag);
+
+	private final Object rebuildLock = new Object();
+
+	private volatile State state = new State();
+
+	private volatile boolean ready;
+
+	/** Writes made while a rebuild is loading, null otherwise. */
+	private List<Runnable> pendingWrites;
+
+	public boolean isReady() {
+		return this.ready;
+	}
+
+	public synchronized void put(String id, List<String> tags) {
+		this.state.put(id, tags);
+		this.state.refreshVocabulary();
+		if (this.pendingWrites != null) {
+			this.pendingWrites.add(() -> this.state.put(id, tags));
+		}
+	}
+
+	public synchronized void remove(String id) {
+		this.state.remove(id);
+		this.state.refreshVocabulary();
+		if (this.pendingWrites != null) {
+			this.pendingWrites.add(() -> this.state.remove(id));
+		}
+	}
+
+	/**
+	 * Removes every tool carrying the tag.
+	 */
+	public synchronized void removeTagged(String tag) {
+		this.state.removeTagged(tag);
+		this.state.refreshVocabulary();
+		if (this.pendingWrites != null) {
+			this.pendingWrites.add(() -> this.state.removeTagged(tag));
+		}
+	}
+
+	/**
+	 * Replaces the index content with the given tools and marks it ready. The
+	 * current content is kept if loading fails.
+	 */
+	public void rebuild(Iterator<Tool> tools) {
+		synchronized (this.rebuildLock) {
+			synchronized (this) {
+				this.pendingWrites = new ArrayList<>();
+			}
+			State fresh = new State();
+			try {
+				while (tools.hasNext()) {
+					Tool tool = tools.next();
+					fresh.put(tool.getId(), tool.getTags());
+				}
+			} catch (RuntimeException e) {
+				synchronized (this) {
+					this.pendingWrites = null;
+				}
+				throw e;
+			}
+			fresh.refreshVocabulary();
+			synchronized (this) {
+				this.state = fresh;
+				this.pendingWrites.forEach(Runnable::run);
+				fresh.refreshVocabulary();
+				this.pendingWrites = null;
+				this.ready = true;
+			}
+		}
+	}
+
+	public synchronized void clear() {
+		this.ready = false;
+		this.state = new State();
+	}
+
+	/**
+	 * Returns the ordinals of the tools matching the tags, in ascending order,
+	 * starting after {@code afterOrdinal} (-1 for the first page).
+	 */
+	public int[] find(List<String> tags, TagMatch match, int afterOrdinal, int limit) {
+		return this.state.match(tags, match).page(afterOrdinal, limit);
+	}
+
+	/**
+	 * Returns the most used tags starting with the prefix, most used first.
+	 */
+	public List<TagCountDto> suggest(String prefix, int limit) {
+		State state = this.state;
+		String[] vocabulary = state.vocabulary;
+		int from = Arrays.binarySearch(vocabulary, prefix);
+		from = from < 0 ? -from - 1 : from;
+		PriorityQueue<TagCountDto> best = new PriorityQueue<>(limit + 1, MOST_USED_FIRST.reversed());
+		for (int i = from; i < vocabulary.length && vocabulary[i].startsWith(prefix); i++) {
+			int count = state.count(vocabulary[i]);
+			if (count > 0) {
+				best.add(new TagCountDto(vocabulary[i], count));
+				if (best.size() > limit) {
+					best.poll();
+				}
+			}
+		}
+		List<TagCountDto> result = new ArrayList<>(best);
+		result.sort(MOST_USED_FIRST);
+		return result;
+	}
+
+	/**
+	 * Returns every tag with the number of tools carrying it, most used first.
+	 * With a {@code facet}, only tools that also carry that tag are counted.
+	 */
+	public List<TagCountDto> counts(String facet) {
+		State state = this.state;
+		OrdinalSet restriction = facet == null ? null : state.postings.getOrDefault(facet, OrdinalSet.EMPTY);
+		List<TagCountDto> result = new ArrayList<>();
+		for (String tag : state.vocabulary) {
+			OrdinalSet set = state.postings.getOrDefault(tag, OrdinalSet.EMPTY);
+			int count = restriction == null ? set.cardinality() : set.andCardinality(restriction);
+			if (count > 0) {
+				result.add(new TagCountDto(tag, count));
+			}
+		}
+		result.sort(MOST_USED_FIRST);
+		return result;
+	}
+
+	/**
+	 * Every tag carried by an indexed tool.
+	 */
+	public List<String> tags() {
+		return List.of(this.state.vocabulary);
+	}
+
+	/**
+	 * Id of the tool with the given ordinal, or null if it was removed.
+	 */
+	public String idOf(int ordinal) {
+		return this.state.idOf(ordinal);
+	}
+
+	private static final class State {
+
+		private final Map<String, OrdinalSet> postings = new ConcurrentHashMap<>();
+
+		private final Map<String, Integer> ordinals = new HashMap<>();
+
+		private volatile String[] ids = new String[1024];
+
+		private String[][] tags = new String[1024][];
+
+		private volatile String[] vocabulary = new String[0];
+
+		private boolean vocabularyChanged;
+
+		private int nextOrdinal;
+
+		/** Ordinals released by removed tools, reused before new ones. */
+		private int[] free = new int[16];
+
+		private int freeCount;
+
+		void put(String id, List<String> newTags) {
+			Integer ordinal = this.ordinals.get(id);
+			if (ordinal == null) {
+				ordinal = this.freeCount > 0 ? this.free[--this.freeCount] : this.nextOrdinal++;
+				this.ordinals.put(id, ordinal);
+				this.ensureCapacity(ordinal);
+				// set before the postings so a reader finding the ordinal can resolve it
+				this.ids[ordinal] = id;
+			}
+			List<String> current = newTags == null ? List.of() : newTags;
+			String[] previous = this.tags[ordinal];
+			if (previous != null) {
+				for (String tag : previous) {
+					if (!current.contains(tag)) {
+						this.update(tag, this.postings.getOrDefault(tag, OrdinalSet.EMPTY).without(ordinal));
+					}
+				}
+			}
+			for (String tag : current) {
+				this.update(tag, this.postings.getOrDefault(tag, OrdinalSet.EMPTY).with(ordinal));
+			}
+			this.tags[ordinal] = current.stream().distinct().toArray(String[]::new);
+		}
+
+		void remove(String id) {
+			Integer ordinal = this.ordinals.remove(id);
+			if (ordinal == null) {
+				return;
+			}
+			for (String tag : this.tags[ordinal]) {
+				this.update(tag, this.postings.getOrDefault(tag, OrdinalSet.EMPTY).without(ordinal));
+			}
+			this.tags[ordinal] = null;
+			this.ids[ordinal] = null;
+			if (this.freeCount == this.free.length) {
+				this.free = Arrays.copyOf(this.free, this.free.length * 2);
+			}
+			this.free[this.freeCount++] = ordinal;
+		}
+
+		void removeTagged(String tag) {
+			for (int ordinal : this.postings.getOrDefault(tag, OrdinalSet.EMPTY).toArray()) {
+				this.remove(this.ids[ordinal]);
+			}
+		}
+
+		OrdinalSet match(List<String> tags, TagMatch match) {
+			OrdinalSet result = null;
+			for (String tag : tags) {
+				OrdinalSet set = this.postings.getOrDefault(tag, OrdinalSet.EMPTY);
+				if (result == null) {
+					result = set;
+				} else {
+					result = match == TagMatch.ANY ? result.or(set) : result.and(set);
+				}
+			}
+			return result == null ? OrdinalSet.EMPTY : result;
+		}
+
+		int count(String tag) {
+			return this.postings.getOrDefault(tag, OrdinalSet.EMPTY).cardinality();
+		}
+
+		void refreshVocabulary() {
+			if (this.vocabularyChanged) {
+				String[] vocabulary = this.postings.keySet().toArray(new String[0]);
+				Arrays.sort(vocabulary);
+				this.vocabulary = vocabulary;
+				this.vocabularyChanged = false;
+			}
+		}
+
+		String idOf(int ordinal) {
+			String[] ids = this.ids;
+			return ordinal < ids.length ? ids[ordinal] : null;
+		}
+
+		private void update(String tag, OrdinalSet set) {
+			if (set.isEmpty()) {
+				this.vocabularyChanged |= this.postings.remove(tag) != null;
+			} else {
+				this.vocabularyChanged |= this.postings.put(tag, set) == null;
+			}
+		}
+
+		private void ensureCapacity(int ordinal) {
+			if (ordinal >= this.tags.length) {
+				int capacity = Math.max(this.tags.length * 2, ordinal + 1);
+				this.tags = Arrays.copyOf(this.tags, capacity);
+				this.ids = Arrays.copyOf(this.ids, capacity);
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,50 @@
+package com.pardini.vuttr.api.services;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.pardini.vuttr.api.exceptions.BadRequestException;
+import com.pardini.vuttr.api.exceptions.ServiceUnavailableException;
+import com.pardini.vuttr.domain.dtos.TagCountDto;
+import com.pardini.vuttr.domain.model.TagDictionary;
+
+/**
+ * Tag queries answered from the {@link TagIndex} only; none of them reaches
+ * the database.
+ */
+@Service
+public class TagService {
+
+	@Autowired
+	private TagIndex tagIndex;
+
+	@Value("${vuttr.tags.suggest.default-limit:10}")
+	private int suggestDefaultLimit;
+
+	@Value("${vuttr.tags.suggest.max-limit:50}")
+	private int suggestMaxLimit;
+
+	public List<TagCountDto> getCounts(String facet) {
+		return this.readyIndex().counts(TagDictionary.normalize(facet));
+	}
+
+	public List<TagCountDto> suggest(String prefix, Integer limit) {
+		int size = limit == null ? this.suggestDefaultLimit : limit;
+		if (size < 1) {
+			throw new BadRequestException("Limit must be greater than zero");
+		}
+		String normalized = prefix == null ? "" : TagDictionary.normalize(prefix);
+		return this.readyIndex().suggest(normalized, Math.min(size, this.suggestMaxLimit));
+	}
+
+	private TagIndex readyIndex() {
+		if (!this.tagIndex.isReady()) {
+			throw new ServiceUnavailableException("Tag index is loading");
+		}
+		return this.tagIndex;
+	}
+
+}
@@ -0,0 +1,142 @@
+package com.pardini.vuttr.api.services;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.pardini.vuttr.domain.model.Tool;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Read-through cache of tools by id, bounded by size and time to live.
+ * <p>
+ * Writers must call {@link #invalidate(String)} after the database write
+ * returns. Caffeine blocks the invalidation until an in-flight {@link #get}
+ * of the same key finishes, so a load that read the old document can't be
+ * stored after it. Bulk loads aren't covered, so {@link #getAll} drops what
+ * it stored for a key invalidated while it was loading.
+ * <p>
+ * Hits, misses and evictions are published as the {@code cache.*} meters of
+ * the {@code tools} cache.
+ */
+@Component
+public class ToolCache implements MeterBinder {
+
+	private static final int GENERATION_STRIPES = 1024;
+
+	private final Cache<String, Optional<Tool>> cache;
+
+	/** Invalidations of the keys hashing to each stripe. */
+	private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+	private final boolean negativeCaching;
+
+	public ToolCache(@Value("${vuttr.cache.tools.maximum-size:10000}") long maximumSize,
+			@Value("${vuttr.cache.tools.ttl:10m}") Duration ttl,
+			@Value("${vuttr.cache.tools.negative-caching:false}") boolean negativeCaching) {
+		this.cache = Caffeine.newBuilder()
+			.maximumSize(maximumSize)
+			.expireAfterWrite(ttl)
+			.recordStats()
+			.build();
+		this.negativeCaching = negativeCaching;
+	}
+
+	public Optional<Tool> get(String id, Function<String, Optional<Tool>> loader) {
+		Optional<Tool> tool = this.cache.get(id, key -> {
+			Optional<Tool> loaded = loader.apply(key);
+			// returning null keeps Caffeine from storing the miss
+			return loaded.isPresent() || this.negativeCaching ? loaded : null;
+		});
+		return tool == null ? Optional.empty() : tool;
+	}
+
+	/**
+	 * Returns the tool if it is cached, without loading it. Null if it isn't
+	 * cached or is cached as missing.
+	 */
+	public Tool getIfPresent(String id) {
+		Optional<Tool> tool = this.cache.getIfPresent(id);
+		return tool == null ? null : tool.orElse(null);
+	}
+
+	/**
+	 * Returns the cached tools for the ids, loading all the misses with a single
+	 * call. Ids that don't exist are left out of the result.
+	 */
+	public Map<String, Tool> getAll(Iterable<String> ids, Function<Iterable<String>, Iterable<Tool>> loader) {
+		Map<String, Optional<Tool>> cached = new HashMap<>(this.cache.getAllPresent(ids));
+		Map<String, Long> missing = new LinkedHashMap<>();
+		for (String id : ids) {
+			if (!cached.containsKey(id)) {
+				missing.put(id, this.generation(id));
+			}
+		}
+		if (!missing.isEmpty()) {
+			for (Tool tool : loader.apply(missing.keySet())) {
+				Long generation = missing.get(tool.getId());
+				if (generation == null) {
+					continue;
+				}
+				Optional<Tool> loaded = Optional.of(tool);
+				cached.put(tool.getId(), loaded);
+				this.cache.asMap().putIfAbsent(tool.getId(), loaded);
+				// invalidated meanwhile, the tool may have been read before the write
+				if (this.generation(tool.getId()) != generation) {
+					this.cache.asMap().remove(tool.getId(), loaded);
+				}
+			}
+		}
+		Map<String, Tool> tools = new LinkedHashMap<>();
+		for (String id : ids) {
+			Optional<Tool> tool = cached.get(id);
+			if (tool != null && tool.isPresent()) {
+				tools.put(id, tool.get());
+			}
+		}
+		return tools;
+	}
+
+	public void invalidate(String id) {
+		this.generations.incrementAndGet(stripe(id));
+		this.cache.invalidate(id);
+	}
+
+	public void invalidateAll() {
+		for (int i = 0; i < GENERATION_STRIPES; i++) {
+			this.generations.incrementAndGet(i);
+		}
+		this.cache.invalidateAll();
+	}
+
+	public CacheStats stats() {
+		return this.cache.stats();
+	}
+
+	private long generation(String id) {
+		return this.generations.get(stripe(id));
+	}
+
+	private static int stripe(String id) {
+		return Math.floorMod(id.hashCode(), GENERATION_STRIPES);
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		CaffeineCacheMetrics.monitor(registry, this.cache, "tools");
+	}
+
+}
@@ -0,0 +1,436 @@
+package com.pardini.vuttr.api.services;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter.SseEventBuilder;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pardini.vuttr.domain.dtos.ToolChangeDto;
+import com.pardini.vuttr.domain.model.TagDictionary;
+import com.pardini.vuttr.domain.repositories.ToolChange;
+import com.pardini.vuttr.domain.repositories.ToolRepository;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Pushes tool writes to Server-Sent Events subscribers. Events are read from
+ * the change sequence, so they go out in change order with no gaps, and their
+ * ids are the tokens of {@code GET /tools/changes}. A client reconnecting
+ * with {@code Last-Event-ID} is sent what it missed first.
+ * <p>
+ * Writers call {@link #written()} after the write returns. One dispatcher
+ * thread reads the new changes once and queues them for every subscriber, and
+ * sender threads write the queues out, one at a time per subscriber. Idle
+ * connections hold no thread.
+ * <p>
+ * Each subscriber has a bounded queue. A subscriber whose queue is full, or
+ * whose send has been blocked for longer than {@code vuttr.stream.send-timeout},
+ * is disconnected; it can reconnect with {@code Last-Event-ID}, or catch up
+ * through {@code GET /tools/changes}. A stalled socket only holds its own
+ * sender thread, until the server's write timeout fails the write.
+ * <p>
+ * A tool is sent as {@code create} to a client that hasn't seen it yet, and as
+ * {@code update} otherwise. Changes don't keep the previous tags, so a
+ * subscriber that asked for tags is sent {@code untagged}, with just the id,
+ * for every update of a tool that carries none of them: it drops the tool if
+ * it had it. Deletions are sent to every subscriber.
+ * <p>
+ * Published as the {@code vuttr.stream.subscribers} gauge and the
+ * {@code vuttr.stream.dropped} counter.
+ */
+@Component
+public class ToolEventStream implements MeterBinder {
+
+	private static final Logger log = LoggerFactory.getLogger(ToolEventStream.class);
+
+	private static final int READ_BATCH_SIZE = 500;
+
+	private final ToolRepository toolRepository;
+
+	private final ChangeSequence changeSequence;
+
+	private final ObjectMapper objectMapper;
+
+	private final int bufferSize;
+
+	private final Duration timeout;
+
+	private final long sendTimeoutNanos;
+
+	private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+	private final ExecutorService dispatcher;
+
+	private final ExecutorService senders;
+
+	private final AtomicBoolean dispatchPending = new AtomicBoolean();
+
+	private final LongAdder dropped = new LongAdder();
+
+	/** Last change queued for the subscribers, -1 until read. Dispatcher only. */
+	private long dispatched = -1;
+
+	/** When {@link #dispatched} was read. Dispatcher only. */
+	private Instant dispatchedAt;
+
+	/**
+	 * The repository is injected lazily: meter binders are created with the
+	 * meter registry, which the repository's MongoDB client depends on.
+	 */
+	public ToolEventStream(@Lazy ToolRepository toolRepository, @Lazy ChangeSequence changeSequence,
+			ObjectMapper objectMapper,
+			@Value("${vuttr.stream.buffer-size:256}") int bufferSize,
+			@Value("${vuttr.stream.timeout:30m}") Duration timeout,
+			@Value("${vuttr.stream.send-timeout:10s}") Duration sendTimeout) {
+		this.toolRepository = toolRepository;
+		this.changeSequence = changeSequence;
+		this.objectMapper = objectMapper;
+		this.bufferSize = bufferSize;
+		this.timeout = timeout;
+		this.sendTimeoutNanos = sendTimeout.toNanos();
+		this.dispatcher = Executors.newSingleThreadExecutor(daemon("tool-events-dispatcher"));
+		// at most one thread per subscriber, so a blocked send holds up no one else
+		this.senders = Executors.newCachedThreadPool(daemon("tool-events-sender"));
+	}
+
+	/**
+	 * Opens a stream of the writes after {@code lastEventId}, or from now on
+	 * without one. With {@code tags}, only tools carrying any of them are sent.
+	 */
+	public SseEmitter subscribe(String lastEventId, List<String> tags) {
+		// an invalid or expired id is refused before the stream opens
+		ChangeSequence.Position after = lastEventId == null ? null : this.changeSequence.positionOf(lastEventId);
+		Subscriber subscriber = new Subscriber(new SseEmitter(this.timeout.toMillis()), TagDictionary.normalize(tags));
+		subscriber.emitter.onCompletion(subscriber::close);
+		subscriber.emitter.onTimeout(subscriber::close);
+		subscriber.emitter.onError(error -> subscriber.close());
+		this.dispatcher.execute(() -> this.add(subscriber, after));
+		return subscriber.emitter;
+	}
+
+	/**
+	 * Sends the changes written since the last call. Calls made while a
+	 * dispatch is pending are merged into it.
+	 */
+	public void written() {
+		if (this.dispatchPending.compareAndSet(false, true)) {
+			try {
+				this.dispatcher.execute(this::dispatch);
+			} catch (RejectedExecutionException e) {
+				// shutting down
+			}
+		}
+	}
+
+	/**
+	 * Comments sent to idle subscribers, so proxies keep the connections and
+	 * closed ones are found. Stalled ones are found here when nothing is
+	 * written.
+	 */
+	@Scheduled(initialDelayString = "${vuttr.stream.heartbeat:PT30S}",
+			fixedDelayString = "${vuttr.stream.heartbeat:PT30S}")
+	public void heartbeat() {
+		for (Subscriber subscriber : this.subscribers) {
+			if (subscriber.stalled()) {
+				subscriber.drop();
+			} else if (subscriber.queue.isEmpty()) {
+				subscriber.offer(SseEmitter.event().comment(""));
+			}
+		}
+	}
+
+	public int subscribers() {
+		return this.subscribers.size();
+	}
+
+	@PreDestroy
+	public void close() {
+		this.dispatcher.shutdownNow();
+		this.senders.shutdownNow();
+		this.subscribers.forEach(subscriber -> subscriber.emitter.complete());
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		Gauge.builder("vuttr.stream.subscribers", this, ToolEventStream::subscribers)
+			.description("Open tool event streams")
+			.register(registry);
+		FunctionCounter.builder("vuttr.stream.dropped", this.dropped, LongAdder::sum)
+			.description("Tool event streams closed because the subscriber fell behind or stalled")
+			.register(registry);
+	}
+
+	private void add(Subscriber subscriber, ChangeSequence.Position after) {
+		if (this.dispatched < 0) {
+			this.dispatchedAt = Instant.now();
+			this.dispatched = this.changeSequence.stable();
+		}
+		if (after != null && !this.replay(subscriber, after)) {
+			return;
+		}
+		if (!subscriber.closed) {
+			this.subscribers.add(subscriber);
+		}
+	}
+
+	/**
+	 * Queues the changes after {@code after} up to the dispatched ones.
+	 * Returns false if the subscriber was dropped.
+	 */
+	private boolean replay(Subscriber subscriber, ChangeSequence.Position after) {
+		// until the replay catches up, ids keep the time the client last did
+		Instant syncedAt = after.getSyncedAt() == null ? this.dispatchedAt : after.getSyncedAt();
+		long seq = after.getChangeSeq();
+		try {
+			List<ToolChange> changes;
+			do {
+				changes = this.toolRepository.findChanges(seq, this.dispatched, READ_BATCH_SIZE);
+				for (ToolChange change : changes) {
+					if (!subscriber.deliver(new Event(change, after.getChangeSeq()), syncedAt)) {
+						return false;
+					}
+					seq = change.getSeq();
+				}
+			} while (changes.size() == READ_BATCH_SIZE);
+			return true;
+		} catch (RuntimeException e) {
+			log.warn("Could not replay tool events, closing the stream", e);
+			subscriber.emitter.completeWithError(e);
+			return false;
+		}
+	}
+
+	private void dispatch() {
+		this.dispatchPending.set(false);
+		try {
+			Instant readAt = Instant.now();
+			long upTo = this.changeSequence.stable();
+			if (this.dispatched < 0 || this.subscribers.isEmpty()) {
+				this.dispatched = upTo;
+				this.dispatchedAt = readAt;
+				return;
+			}
+			// subscribers caught up with the last dispatch, not yet with this one
+			Instant syncedAt = this.dispatchedAt;
+			long after = this.dispatched;
+			List<ToolChange> changes;
+			do {
+				changes = this.toolRepository.findChanges(this.dispatched, upTo, READ_BATCH_SIZE);
+				for (ToolChange change : changes) {
+					Event event = new Event(change, after);
+					for (Subscriber subscriber : this.subscribers) {
+						subscriber.deliver(event, syncedAt);
+					}
+					this.dispatched = change.getSeq();
+				}
+			} while (changes.size() == READ_BATCH_SIZE);
+			this.dispatched = upTo;
+			this.dispatchedAt = readAt;
+		} catch (RuntimeException e) {
+			// the changes are read again on the next write
+			log.warn("Could not dispatch tool events", e);
+		}
+	}
+
+	private String json(ToolChangeDto dto, long seq) {
+		try {
+			return this.objectMapper.writeValueAsString(dto);
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException("Could not serialize tool change " + seq, e);
+		}
+	}
+
+	private static ThreadFactory daemon(String name) {
+		AtomicInteger count = new AtomicInteger();
+		return runnable -> {
+			Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		};
+	}
+
+	/**
+	 * A change as sent to the subscribers, serialized once whatever their
+	 * number. The untagged form is only serialized if someone needs it.
+	 */
+	private final class Event {
+
+		private final ToolChange change;
+
+		private final ToolChangeDto dto;
+
+		private String json;
+
+		private String untaggedJson;
+
+		Event(ToolChange change, long after) {
+			this.change = change;
+			this.dto = ToolChangeDto.of(change, after);
+		}
+
+		String name() {
+			return this.dto.getType().name().toLowerCase(Locale.ROOT);
+		}
+
+		String json() {
+			if (this.json == null) {
+				this.json = ToolEventStream.this.json(this.dto, this.change.getSeq());
+			}
+			return this.json;
+		}
+
+		String untaggedJson() {
+			if (this.untaggedJson == null) {
+				this.untaggedJson = ToolEventStream.this.json(
+						new ToolChangeDto(ToolChangeDto.Type.UNTAGGED, this.change.getId(), null),
+						this.change.getSeq());
+			}
+			return this.untaggedJson;
+		}
+
+	}
+
+	private final class Subscriber {
+
+		private final SseEmitter emitter;
+
+		/** Null for every tag. */
+		private final List<String> tags;
+
+		private final BlockingQueue<SseEventBuilder> queue;
+
+		private final AtomicBoolean sending = new AtomicBoolean();
+
+		/** {@link System#nanoTime()} when the send in progress started, 0 between sends. */
+		private volatile long sendStartedAt;
+
+		private volatile boolean closed;
+
+		Subscriber(SseEmitter emitter, List<String> tags) {
+			this.emitter = emitter;
+			this.tags = tags == null || tags.isEmpty() ? null : tags;
+			this.queue = new ArrayBlockingQueue<>(ToolEventStream.this.bufferSize);
+		}
+
+		/**
+		 * Queues the change, or its untagged form for an update of a tool that
+		 * doesn't match the tags. Returns false if the subscriber is dropped.
+		 */
+		boolean deliver(Event event, Instant syncedAt) {
+			ToolChange change = event.change;
+			SseEventBuilder sse = SseEmitter.event()
+				.id(ToolEventStream.this.changeSequence.token(change.getSeq(), syncedAt));
+			if (this.tags != null && !change.isDeleted() && !this.carriesAny(change.getTool().getTags())) {
+				if (event.dto.getType() == ToolChangeDto.Type.CREATE) {
+					return true;
+				}
+				return this.offer(sse.name("untagged").data(event.untaggedJson()));
+			}
+			return this.offer(sse.name(event.name()).data(event.json()));
+		}
+
+		boolean offer(SseEventBuilder event) {
+			if (this.closed) {
+				return false;
+			}
+			if (this.stalled() || !this.queue.offer(event)) {
+				this.drop();
+				return false;
+			}
+			if (this.sending.compareAndSet(false, true)) {
+				try {
+					ToolEventStream.this.senders.execute(this::send);
+				} catch (RejectedExecutionException e) {
+					this.close();
+				}
+			}
+			return true;
+		}
+
+		void close() {
+			this.closed = true;
+			ToolEventStream.this.subscribers.remove(this);
+		}
+
+		private boolean stalled() {
+			long startedAt = this.sendStartedAt;
+			return startedAt != 0 && System.nanoTime() - startedAt > ToolEventStream.this.sendTimeoutNanos;
+		}
+
+		/**
+		 * Completes the stream from a sender thread: completing waits for the
+		 * send in progress, which may be the one that is blocked.
+		 */
+		private void drop() {
+			ToolEventStream.this.dropped.increment();
+			this.close();
+			try {
+				ToolEventStream.this.senders.execute(this.emitter::complete);
+			} catch (RejectedExecutionException e) {
+				// shutting down, every stream is completed
+			}
+		}
+
+		private void send() {
+			do {
+				SseEventBuilder event;
+				while ((event = this.queue.poll()) != null) {
+					this.sendStartedAt = System.nanoTime();
+					try {
+						this.emitter.send(event);
+					} catch (IOException | IllegalStateException e) {
+						// the client went away or the stream completed
+						this.close();
+						this.queue.clear();
+						break;
+					} finally {
+						this.sendStartedAt = 0;
+					}
+				}
+				this.sending.set(false);
+			} while (!this.queue.isEmpty() && this.sending.compareAndSet(false, true));
+		}
+
+		private boolean carriesAny(List<String> toolTags) {
+			if (toolTags == null) {
+				return false;
+			}
+			for (String tag : this.tags) {
+				if (toolTags.contains(tag)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+	}
+
+}
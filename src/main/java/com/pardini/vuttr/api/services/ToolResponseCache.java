@@ -0,0 +1,106 @@
+package com.pardini.vuttr.api.services;
+
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.pardini.vuttr.domain.dtos.PageDto;
+import com.pardini.vuttr.domain.model.Tool;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * JSON bodies of hot responses, encoded once and then copied as they are to
+ * every client. Bounded by the total size of the bodies, not by their count.
+ * <p>
+ * Tools are cached by id and must be invalidated by writers after the
+ * database write returns, as with {@link ToolCache}. Pages are cached under
+ * the collection version, so a write makes them unreachable and they are
+ * evicted as the cache fills up.
+ * <p>
+ * Published as the {@code cache.*} meters of the {@code responses} cache.
+ */
+@Component
+public class ToolResponseCache implements MeterBinder {
+
+	private final Cache<String, CachedJson> cache;
+
+	private final ObjectMapper objectMapper;
+
+	private final boolean enabled;
+
+	public ToolResponseCache(ObjectMapper objectMapper,
+			@Value("${vuttr.cache.responses.maximum-size:64MB}") DataSize maximumSize,
+			@Value("${vuttr.cache.responses.ttl:10m}") Duration ttl) {
+		this.cache = Caffeine.newBuilder()
+			.maximumWeight(maximumSize.toBytes())
+			.<String, CachedJson>weigher((key, json) -> json.getBody().length + key.length())
+			.expireAfterWrite(ttl)
+			.recordStats()
+			.build();
+		this.objectMapper = objectMapper;
+		this.enabled = maximumSize.toBytes() > 0;
+	}
+
+	/**
+	 * False when {@code vuttr.cache.responses.maximum-size} is 0, in which case
+	 * responses are encoded by the message converters as usual.
+	 */
+	public boolean isEnabled() {
+		return this.enabled;
+	}
+
+	public CachedJson tool(String id, Supplier<Tool> loader) {
+		return this.cache.get("tool:" + id, key -> {
+			Tool tool = loader.get();
+			return new CachedJson(this.encode(tool), tool.getVersion(), tool.getLastModified());
+		});
+	}
+
+	/**
+	 * Returns the page cached for the request at the given collection version,
+	 * loading it on a miss. The key must tell apart every request returning a
+	 * different page.
+	 */
+	public CachedJson page(long collectionVersion, String key, Supplier<PageDto<Tool>> loader) {
+		return this.cache.get("page:" + collectionVersion + ":" + key,
+				cacheKey -> new CachedJson(this.encode(loader.get()), null, null));
+	}
+
+	public void invalidate(String id) {
+		this.cache.invalidate("tool:" + id);
+	}
+
+	public void invalidateAll() {
+		this.cache.invalidateAll();
+	}
+
+	public CacheStats stats() {
+		return this.cache.stats();
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		CaffeineCacheMetrics.monitor(registry, this.cache, "responses");
+	}
+
+	private byte[] encode(Object value) {
+		try {
+			return this.objectMapper.writeValueAsBytes(value);
+		} catch (JsonProcessingException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+}
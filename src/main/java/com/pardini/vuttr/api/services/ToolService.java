@@ -1,14 +1,63 @@
 package com.pardini.vuttr.api.services;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+
+import org.bson.types.ObjectId;
 
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.pardini.vuttr.api.exceptions.BadRequestException;
 import com.pardini.vuttr.api.exceptions.ResourceNotFoundException;
+import com.pardini.vuttr.api.exceptions.ServiceUnavailableException;
+import com.pardini.vuttr.domain.dtos.BatchItemResultDto;
+import com.pardini.vuttr.domain.dtos.BatchResultDto;
+import com.pardini.vuttr.domain.dtos.ChangesDto;
+import com.pardini.vuttr.domain.dtos.DeleteResultDto;
+import com.pardini.vuttr.domain.dtos.PageDto;
+import com.pardini.vuttr.domain.dtos.ToolBatchItemDto;
+import com.pardini.vuttr.domain.dtos.ToolChangeDto;
 import com.pardini.vuttr.domain.dtos.ToolDto;
+import com.pardini.vuttr.domain.dtos.ToolPatchDto;
+import com.pardini.vuttr.domain.model.TagDictionary;
 import com.pardini.vuttr.domain.model.Tool;
+import com.pardini.vuttr.domain.repositories.BulkUpsertResult;
+import com.pardini.vuttr.domain.repositories.TagMatch;
+import com.pardini.vuttr.domain.repositories.ToolChange;
+import com.pardini.vuttr.domain.repositories.ToolFields;
 import com.pardini.vuttr.domain.repositories.ToolRepository;
 
 @Service
@@ -17,39 +66,596 @@ public class ToolService {
 	@Autowired
 	private ToolRepository toolRepository;
 
-	public List<Tool> getAll() {
-		return this.toolRepository.findAll();
+	@Autowired
+	private ToolCache toolCache;
+
+	@Autowired
+	private ToolResponseCache responseCache;
+
+	@Autowired
+	private ReadCoalescer readCoalescer;
+
+	@Autowired
+	private ChangeSequence changeSequence;
+
+	@Autowired
+	private ToolEventStream toolEvents;
+
+	@Autowired
+	private TagIndex tagIndex;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private Validator validator;
+
+	@Autowired
+	private PageLimits pageLimits;
+
+	@Value("${vuttr.batch.chunk-size:500}")
+	private int batchChunkSize;
+
+	@Value("${vuttr.batch.max-items:10000}")
+	private int batchMaxItems;
+
+	@Value("${vuttr.write-behind.enabled:false}")
+	private boolean writeBehindEnabled;
+
+	@Value("${vuttr.write-behind.queue-capacity:10000}")
+	private int writeBehindQueueCapacity;
+
+	@Value("${vuttr.write-behind.batch-size:500}")
+	private int writeBehindBatchSize;
+
+	@Value("${vuttr.write-behind.max-delay:50ms}")
+	private Duration writeBehindMaxDelay;
+
+	@Value("${vuttr.write-behind.timeout:5s}")
+	private Duration writeBehindTimeout;
+
+	@Autowired
+	private LostWrites lostWrites;
+
+	/** Null unless write-behind is enabled. */
+	private ToolWriteBehind writeBehind;
+
+	@PostConstruct
+	public void startWriteBehind() {
+		if (this.writeBehindEnabled) {
+			this.writeBehind = new ToolWriteBehind(this.writeBehindQueueCapacity, this.writeBehindBatchSize,
+					this.writeBehindMaxDelay, this::insertQueued);
+		}
 	}
 
+	@PreDestroy
+	public void stopWriteBehind() throws InterruptedException {
+		if (this.writeBehind != null) {
+			this.writeBehind.close();
+		}
+	}
+
+	public PageDto<Tool> getAll(String cursor, Integer limit, ToolFields fields) {
+		return this.getPage(null, null, cursor, limit, fields);
+	}
+
+	/**
+	 * Concurrent calls for the same tool share one read, here and in
+	 * {@link #getById(String, ToolFields)}.
+	 */
 	public Tool getById(String id) {
-		return this.getRegisterById(id);
+		return this.readCoalescer.tool(id, ToolFields.ALL, () -> this.toolCache
+			.get(id, this.toolRepository::findById)
+			.orElseThrow(() -> new ResourceNotFoundException("Tool not found")));
+	}
+
+	/**
+	 * Same as {@link #getById(String)} with only the selected fields. A cached
+	 * tool is trimmed in memory, otherwise only those fields are read.
+	 */
+	public Tool getById(String id, ToolFields fields) {
+		if (fields.isAll()) {
+			return this.getById(id);
+		}
+		Tool cached = this.toolCache.getIfPresent(id);
+		if (cached != null) {
+			return fields.project(cached);
+		}
+		return this.readCoalescer.tool(id, fields, () -> this.toolRepository
+			.findFields(id, fields)
+			.orElseThrow(() -> new ResourceNotFoundException("Tool not found")));
+	}
+
+	public PageDto<Tool> getByTag(String tag, String cursor, Integer limit, ToolFields fields) {
+		return this.getPage(Collections.singletonList(TagDictionary.normalize(tag)), TagMatch.ALL, cursor, limit,
+				fields);
+	}
+
+	public PageDto<Tool> getByTags(List<String> tags, TagMatch match, String cursor, Integer limit,
+			ToolFields fields) {
+		this.pageLimits.checkTags(tags);
+		return this.getPage(TagDictionary.normalize(tags), match, cursor, limit, fields);
+	}
+
+	/**
+	 * Full text search over title and description, ranked by relevance. Ranked
+	 * results can't be read by key, so pages are offsets and stop after
+	 * {@code vuttr.search.max-results} results.
+	 */
+	public PageDto<Tool> search(String text, String cursor, Integer limit) {
+		this.pageLimits.checkSearchText(text);
+		int offset = this.pageLimits.searchOffset(cursor);
+		int size = this.pageLimits.searchSize(limit, offset);
+		List<Tool> tools = this.toolRepository.search(text, offset, size + 1);
+		int nextOffset = offset + size;
+		if (tools.size() <= size || !this.pageLimits.hasMoreSearchResults(nextOffset)) {
+			return new PageDto<>(tools.subList(0, Math.min(size, tools.size())), null);
+		}
+		return new PageDto<>(tools.subList(0, size), PageCursor.encodeOffset(nextOffset));
+	}
+
+	/**
+	 * Writes every tool as newline delimited JSON, one document at a time, as
+	 * it comes from the database cursor.
+	 */
+	public void export(OutputStream out) throws IOException {
+		// flushing after each document would turn every line into its own chunk,
+		// and the default root value separator would start each line after the
+		// first with a space
+		ObjectWriter writer = this.objectMapper.writer()
+			.without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+			.withRootValueSeparator("");
+		JsonGenerator generator = writer.createGenerator(out);
+		try (Stream<Tool> tools = this.toolRepository.streamAll()) {
+			Iterator<Tool> iterator = tools.iterator();
+			while (iterator.hasNext()) {
+				writer.writeValue(generator, iterator.next());
+				generator.writeRaw('\n');
+			}
+		}
+		generator.flush();
+	}
+
+	/**
+	 * Version of the whole collection, changed by every write. List responses
+	 * use it as their entity tag.
+	 */
+	public long getCollectionVersion() {
+		return this.changeSequence.version();
 	}
 
-	public List<Tool> getByTag(String tag) {
-		return this.toolRepository.findByTags(tag);
+	/**
+	 * Creates, updates and deletes after the token, in the order they were
+	 * written, and the token to ask for the next ones. Without a token,
+	 * starts from the first write.
+	 * <p>
+	 * A page cut short by the limit leaves the client behind, so its token
+	 * keeps the time the client last caught up: deletions after that time
+	 * must still be there on the next call.
+	 */
+	public ChangesDto getChanges(String since, Integer limit) {
+		int size = this.pageLimits.resolve(limit);
+		ChangeSequence.Position position = this.changeSequence.positionOf(since);
+		long after = position.getChangeSeq();
+		// a tool seen on this page was still there now, its deletion comes later
+		Instant readAt = Instant.now();
+		List<ToolChange> changes = this.toolRepository.findChanges(after, this.changeSequence.stable(), size);
+		List<ToolChangeDto> items = new ArrayList<>(changes.size());
+		for (ToolChange change : changes) {
+			items.add(ToolChangeDto.of(change, after));
+		}
+		long last = changes.isEmpty() ? after : changes.get(changes.size() - 1).getSeq();
+		Instant syncedAt = changes.size() < size || position.getSyncedAt() == null ? readAt
+				: position.getSyncedAt();
+		return new ChangesDto(items, this.changeSequence.token(last, syncedAt));
 	}
 
+	/**
+	 * Replaces the content of the tool in a single round trip, keeping its id
+	 * and bumping its version.
+	 */
 	public Tool update(String id, ToolDto objDto) {
-		Tool tool = this.getRegisterById(id);
-		BeanUtils.copyProperties(objDto, tool);
-		return this.toolRepository.save(tool);
+		return this.patch(id, ToolPatchDto.of(objDto));
+	}
+
+	/**
+	 * Changes only the fields set in the patch, atomically and in a single
+	 * round trip, and returns the tool as it is after the change.
+	 */
+	public Tool patch(String id, ToolPatchDto patch) {
+		Tool updatedTool = this.changeSequence
+			.write(1, changeSeq -> this.toolRepository.patch(id, patch, changeSeq))
+			.orElseThrow(() -> new ResourceNotFoundException("Tool not found"));
+		this.written(updatedTool);
+		this.collectionChanged();
+		return updatedTool;
 	}
 
+	/**
+	 * Stores the tool and returns it once stored. With write-behind, the tool
+	 * is inserted with the next batch; if that takes longer than
+	 * {@code vuttr.write-behind.timeout}, a {@link ServiceUnavailableException}
+	 * is thrown and the tool may still be stored later.
+	 */
 	public Tool save(ToolDto objDto) {
+		if (this.writeBehind != null) {
+			try {
+				return this.writeBehind.submit(this.queued(objDto))
+					.get(this.writeBehindTimeout.toNanos(), TimeUnit.NANOSECONDS);
+			} catch (TimeoutException e) {
+				throw new ServiceUnavailableException("Write was not stored in time, it may still be", e);
+			} catch (ExecutionException e) {
+				throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause()
+						: new IllegalStateException(e.getCause());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new ServiceUnavailableException("Interrupted while waiting for a write", e);
+			}
+		}
 		Tool obj = new Tool();
 		BeanUtils.copyProperties(objDto, obj);
-		return this.toolRepository.save(obj);
+		Tool newTool = this.changeSequence.write(1, changeSeq -> {
+			obj.setChangeSeq(changeSeq);
+			obj.setCreatedSeq(changeSeq);
+			return this.toolRepository.save(obj);
+		});
+		this.written(newTool);
+		this.collectionChanged();
+		return newTool;
+	}
+
+	/**
+	 * Same as {@link #save(ToolDto)}, but with write-behind the tool is
+	 * returned with its id as soon as it is queued, before it is stored.
+	 * Throws {@link com.pardini.vuttr.api.exceptions.TooManyRequestsException}
+	 * when the queue is full. An insert failing after that is logged and
+	 * counted by {@link LostWrites}.
+	 */
+	public Tool accept(ToolDto objDto) {
+		if (this.writeBehind == null) {
+			return this.save(objDto);
+		}
+		Tool tool = this.queued(objDto);
+		String id = tool.getId();
+		this.writeBehind.submit(tool).whenComplete((stored, failure) -> {
+			if (failure != null) {
+				this.lostWrites.record(id, failure);
+			}
+		});
+		// the queued instance is completed by the insert, answer with a copy
+		return new Tool(tool.getId(), tool.getTitle(), tool.getLink(), tool.getDescription(), tool.getTags());
+	}
+
+	public BatchResultDto saveAll(List<ToolBatchItemDto> items) {
+		if (items.size() > this.batchMaxItems) {
+			throw new BadRequestException("A batch accepts at most " + this.batchMaxItems + " items");
+		}
+		return this.saveAll(items.iterator());
+	}
+
+	/**
+	 * Same as {@link #saveAll(List)} for a newline delimited JSON body. Items
+	 * are parsed as they are written, so only one chunk is held in memory. A
+	 * line that can't be parsed, or one past {@code batchMaxItems}, ends the
+	 * batch: the items before it are written, it is reported
+	 * {@link BatchItemResultDto.Status#INVALID} and the rest is left unread.
+	 */
+	public BatchResultDto saveAll(InputStream ndjson) throws IOException {
+		MappingIterator<ToolBatchItemDto> items;
+		try {
+			items = this.objectMapper.readerFor(ToolBatchItemDto.class).readValues(ndjson);
+		} catch (JsonProcessingException e) {
+			throw new BadRequestException("Malformed NDJSON body", e);
+		}
+		try (items) {
+			return this.saveAll(items);
+		}
 	}
 
 	public void delete(String id) {
-		Tool obj = this.getRegisterById(id);
-		this.toolRepository.delete(obj);
+		boolean deleted = this.changeSequence.write(1, changeSeq -> {
+			if (!this.toolRepository.removeById(id)) {
+				return false;
+			}
+			this.toolRepository.saveTombstones(List.of(id), changeSeq);
+			return true;
+		});
+		if (!deleted) {
+			throw new ResourceNotFoundException("Tool not found");
+		}
+		this.removed(id);
+		this.collectionChanged();
 	}
 
-	private Tool getRegisterById(String id) {
-		return this.toolRepository
-			.findById(id)
-			.orElseThrow(() -> new ResourceNotFoundException("Tool not found"));
+	public DeleteResultDto deleteAll(List<String> ids) {
+		if (ids.isEmpty() || ids.size() > this.batchMaxItems) {
+			throw new BadRequestException("Between 1 and " + this.batchMaxItems + " ids are accepted");
+		}
+		List<String> distinct = new ArrayList<>(new LinkedHashSet<>(ids));
+		long deleted = this.changeSequence.write(distinct.size(), firstSeq -> {
+			long removed = this.toolRepository.removeAllById(distinct);
+			if (removed > 0) {
+				// which ids existed is not known, a tombstone for one that didn't is harmless
+				this.toolRepository.saveTombstones(distinct, firstSeq);
+			}
+			return removed;
+		});
+		for (String id : ids) {
+			this.removed(id);
+		}
+		if (deleted > 0) {
+			this.collectionChanged();
+		}
+		return new DeleteResultDto(deleted);
+	}
+
+	/**
+	 * Deletes the tools carrying the tag a chunk of at most
+	 * {@code batchMaxItems} ids at a time, each chunk numbered with its
+	 * tombstones in one write. Tools tagged while this runs may be left in
+	 * place.
+	 */
+	public DeleteResultDto deleteByTag(String tag) {
+		String normalized = TagDictionary.normalize(tag);
+		long deleted = 0;
+		String afterId = null;
+		List<String> ids;
+		while (!(ids = this.toolRepository.findIdsByTag(normalized, afterId, this.batchMaxItems)).isEmpty()) {
+			List<String> chunk = ids;
+			long[] removed = { 0 };
+			List<String> gone = this.changeSequence.write(chunk.size(), firstSeq -> {
+				removed[0] = this.toolRepository.removeTagged(chunk, normalized);
+				List<String> absent = removed[0] < chunk.size() ? this.absent(chunk) : chunk;
+				if (!absent.isEmpty()) {
+					this.toolRepository.saveTombstones(absent, firstSeq);
+				}
+				return absent;
+			});
+			gone.forEach(this::removed);
+			if (removed[0] > 0) {
+				this.collectionChanged();
+			}
+			deleted += removed[0];
+			afterId = chunk.get(chunk.size() - 1);
+		}
+		return new DeleteResultDto(deleted);
+	}
+
+	/**
+	 * The given ids no longer in the repository. Tools that lost the tag
+	 * while being deleted by it are still there and get no tombstone.
+	 */
+	private List<String> absent(List<String> ids) {
+		Set<String> present = new HashSet<>();
+		this.toolRepository.findAllById(ids).forEach(tool -> present.add(tool.getId()));
+		return ids.stream().filter(id -> !present.contains(id)).collect(Collectors.toList());
+	}
+
+	private Tool queued(ToolDto objDto) {
+		return new Tool(new ObjectId().toHexString(), objDto.getTitle(), objDto.getLink(), objDto.getDescription(),
+				objDto.getTags());
+	}
+
+	/**
+	 * Inserts a batch taken from the write-behind queue with one unordered
+	 * bulk write. Tools rejected by the database fail alone.
+	 */
+	private Map<Integer, RuntimeException> insertQueued(List<Tool> tools) {
+		Map<Integer, String> errors = this.changeSequence.write(tools.size(), firstSeq -> {
+			this.stamp(tools, firstSeq);
+			return this.toolRepository.insertUnordered(tools);
+		});
+		Map<Integer, RuntimeException> failures = new HashMap<>();
+		for (int i = 0; i < tools.size(); i++) {
+			String error = errors.get(i);
+			if (error == null) {
+				this.written(tools.get(i));
+			} else {
+				failures.put(i, new DataIntegrityViolationException(error));
+			}
+		}
+		if (errors.size() < tools.size()) {
+			this.collectionChanged();
+		}
+		return failures;
+	}
+
+	/**
+	 * Keeps the in-process views in step with a tool that was just written. A
+	 * cached miss for a new id is dropped as well. Also used by
+	 * {@link ReactiveToolService}.
+	 */
+	void written(Tool tool) {
+		this.toolCache.invalidate(tool.getId());
+		this.responseCache.invalidate(tool.getId());
+		this.readCoalescer.forgetTool(tool.getId());
+		this.tagIndex.put(tool.getId(), tool.getTags());
+	}
+
+	/**
+	 * Same as {@link #written(Tool)} for a tool that was just deleted.
+	 */
+	void removed(String id) {
+		this.toolCache.invalidate(id);
+		this.responseCache.invalidate(id);
+		this.readCoalescer.forgetTool(id);
+		this.tagIndex.remove(id);
+	}
+
+	/**
+	 * Numbers the writes. The creation number is only kept by the ones that
+	 * turn out to insert.
+	 */
+	private void stamp(List<Tool> tools, long firstSeq) {
+		for (int i = 0; i < tools.size(); i++) {
+			tools.get(i).setChangeSeq(firstSeq + i);
+			tools.get(i).setCreatedSeq(firstSeq + i);
+		}
+	}
+
+	/**
+	 * Pushes the write to the event stream. Page reads in flight may have read
+	 * the collection before the write, so later reads don't join them.
+	 */
+	void collectionChanged() {
+		this.readCoalescer.forgetCollection();
+		this.toolEvents.written();
+	}
+
+	/**
+	 * Concurrent requests for the same page share one read.
+	 */
+	private PageDto<Tool> getPage(List<String> tags, TagMatch match, String cursor, Integer limit,
+			ToolFields fields) {
+		// tags may contain any character but NUL
+		String key = (tags == null ? "" : "\0" + String.join("\0", tags)) + ":" + match + ":" + cursor + ":" + limit
+				+ ":" + fields.key();
+		return this.readCoalescer.page(key, () -> this.readPage(tags, match, cursor, limit, fields));
+	}
+
+	private PageDto<Tool> readPage(List<String> tags, TagMatch match, String cursor, Integer limit,
+			ToolFields fields) {
+		int size = this.pageLimits.resolve(limit);
+		String after = cursor == null ? null : PageCursor.decode(cursor);
+		boolean ordinalCursor = after != null && PageCursor.isOrdinal(after);
+		if (tags != null && this.tagIndex.isReady() && (after == null || ordinalCursor)) {
+			return this.getIndexedPage(tags, match, ordinalCursor ? PageCursor.ordinalOf(after) : -1, size, fields);
+		}
+		if (ordinalCursor) {
+			throw new BadRequestException("Cursor expired");
+		}
+		// one extra element tells whether there is a next page without a count query
+		List<Tool> tools = this.toolRepository.findPage(tags, match, after, size + 1, fields);
+		if (tools.size() <= size) {
+			return new PageDto<>(tools, null);
+		}
+		List<Tool> items = tools.subList(0, size);
+		return new PageDto<>(items, PageCursor.encode(items.get(size - 1).getId()));
+	}
+
+	private BatchResultDto saveAll(Iterator<ToolBatchItemDto> items) {
+		BatchResultDto result = new BatchResultDto();
+		List<Tool> chunk = new ArrayList<>(this.batchChunkSize);
+		List<Integer> chunkIndexes = new ArrayList<>(this.batchChunkSize);
+		int index = 0;
+		while (true) {
+			ToolBatchItemDto item;
+			try {
+				if (!items.hasNext()) {
+					break;
+				}
+				if (index == this.batchMaxItems) {
+					result.addItem(this.rejected(index, "A batch accepts at most " + this.batchMaxItems + " items"));
+					break;
+				}
+				item = items.next();
+			} catch (RuntimeException e) {
+				// MappingIterator reports parse failures as unchecked exceptions
+				if (!(e instanceof RuntimeJsonMappingException || e.getCause() instanceof JsonProcessingException)) {
+					throw e;
+				}
+				result.addItem(this.rejected(index, "Malformed NDJSON line"));
+				break;
+			}
+			BatchItemResultDto invalid = this.validate(index, item);
+			if (invalid != null) {
+				result.addItem(invalid);
+			} else {
+				String id = item.getId() != null ? item.getId() : new ObjectId().toHexString();
+				chunk.add(new Tool(id, item.getTitle(), item.getLink(), item.getDescription(), item.getTags()));
+				chunkIndexes.add(index);
+			}
+			if (chunk.size() == this.batchChunkSize) {
+				this.flush(chunk, chunkIndexes, result);
+			}
+			index++;
+		}
+		if (!chunk.isEmpty()) {
+			this.flush(chunk, chunkIndexes, result);
+		}
+		result.getItems().sort((a, b) -> Integer.compare(a.getIndex(), b.getIndex()));
+		return result;
+	}
+
+	private BatchItemResultDto rejected(int index, String message) {
+		BatchItemResultDto rejected = new BatchItemResultDto(index, null, BatchItemResultDto.Status.INVALID);
+		rejected.addError("body", message);
+		return rejected;
+	}
+
+	private BatchItemResultDto validate(int index, ToolBatchItemDto item) {
+		Set<ConstraintViolation<ToolBatchItemDto>> violations = this.validator.validate(item);
+		// keyset pagination relies on every _id being an ObjectId
+		boolean invalidId = item.getId() != null && !ObjectId.isValid(item.getId());
+		if (violations.isEmpty() && !invalidId) {
+			return null;
+		}
+		BatchItemResultDto invalid = new BatchItemResultDto(index, item.getId(), BatchItemResultDto.Status.INVALID);
+		for (ConstraintViolation<ToolBatchItemDto> violation : violations) {
+			invalid.addError(violation.getPropertyPath().toString(), violation.getMessage());
+		}
+		if (invalidId) {
+			invalid.addError("id", "must be a valid ObjectId");
+		}
+		return invalid;
+	}
+
+	private void flush(List<Tool> chunk, List<Integer> chunkIndexes, BatchResultDto result) {
+		BulkUpsertResult outcome = this.changeSequence.write(chunk.size(), firstSeq -> {
+			this.stamp(chunk, firstSeq);
+			return this.toolRepository.upsertAll(chunk);
+		});
+		if (outcome.getErrors().size() < chunk.size()) {
+			this.collectionChanged();
+		}
+		for (int i = 0; i < chunk.size(); i++) {
+			String id = chunk.get(i).getId();
+			int index = chunkIndexes.get(i);
+			String error = outcome.getErrors().get(i);
+			if (error != null) {
+				BatchItemResultDto failed = new BatchItemResultDto(index, id, BatchItemResultDto.Status.FAILED);
+				failed.addError("id", error);
+				result.addItem(failed);
+				continue;
+			}
+			this.written(chunk.get(i));
+			if (outcome.getInserted().contains(i)) {
+				result.addItem(new BatchItemResultDto(index, id, BatchItemResultDto.Status.CREATED));
+			} else {
+				result.addItem(new BatchItemResultDto(index, id, BatchItemResultDto.Status.UPDATED));
+			}
+		}
+		chunk.clear();
+		chunkIndexes.clear();
+	}
+
+	/**
+	 * Tag page answered from the {@link TagIndex} and the {@link ToolCache}; only
+	 * tools missing from the cache are read, in one query. Cached tools are
+	 * whole, so a field selection is applied in memory.
+	 */
+	private PageDto<Tool> getIndexedPage(List<String> tags, TagMatch match, int afterOrdinal, int size,
+			ToolFields fields) {
+		int[] ordinals = this.tagIndex.find(tags, match, afterOrdinal, size + 1);
+		int count = Math.min(ordinals.length, size);
+		List<String> ids = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			String id = this.tagIndex.idOf(ordinals[i]);
+			if (id != null) {
+				ids.add(id);
+			}
+		}
+		Map<String, Tool> tools = this.toolCache.getAll(ids, this.toolRepository::findAllById);
+		List<Tool> items = new ArrayList<>(tools.size());
+		for (String id : ids) {
+			Tool tool = tools.get(id);
+			// an ordinal released and reused after the find resolves to another tool
+			if (tool != null && match.matches(tool.getTags(), tags)) {
+				items.add(fields.project(tool));
+			}
+		}
+		String next = ordinals.length > size ? PageCursor.encode(ordinals[size - 1]) : null;
+		return new PageDto<>(items, next);
 	}
 
 }
@@ -0,0 +1,159 @@
+package com.pardini.vuttr.api.services;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import com.pardini.vuttr.api.exceptions.ServiceUnavailableException;
+import com.pardini.vuttr.api.exceptions.TooManyRequestsException;
+import com.pardini.vuttr.domain.model.Tool;
+
+/**
+ * Bounded queue of tools waiting to be inserted. A single thread takes them
+ * out in batches, written as soon as {@code batchSize} tools are queued or
+ * {@code maxDelay} after the first one of the batch, whichever comes first.
+ * <p>
+ * A full queue rejects new tools instead of blocking the caller. Tools the
+ * writer rejects one by one fail alone, and the rest of their batch is
+ * stored. If the batch as a whole fails, every tool in it fails with the same
+ * exception, without retrying them one at a time: a database that failed the
+ * batch would most likely fail each retry too, holding up the tools queued
+ * behind it.
+ */
+final class ToolWriteBehind {
+
+	/**
+	 * Inserts tools, updating them in place as stored, and returns the failure
+	 * of each position that wasn't.
+	 */
+	interface Writer {
+
+		Map<Integer, RuntimeException> insertAll(List<Tool> tools);
+
+	}
+
+	private static final long IDLE_POLL_MILLIS = 100;
+
+	private final BlockingQueue<Pending> queue;
+
+	private final int batchSize;
+
+	private final long maxDelayNanos;
+
+	private final Writer writer;
+
+	private final Thread flusher;
+
+	private volatile boolean closed;
+
+	ToolWriteBehind(int capacity, int batchSize, Duration maxDelay, Writer writer) {
+		this.queue = new ArrayBlockingQueue<>(capacity);
+		this.batchSize = batchSize;
+		this.maxDelayNanos = maxDelay.toNanos();
+		this.writer = writer;
+		this.flusher = new Thread(this::flushLoop, "tool-write-behind");
+		this.flusher.setDaemon(true);
+		this.flusher.start();
+	}
+
+	/**
+	 * Queues the tool, which must already have its id. The returned future
+	 * completes with the stored tool.
+	 */
+	CompletableFuture<Tool> submit(Tool tool) {
+		if (this.closed) {
+			throw new ServiceUnavailableException("Writes are not accepted while shutting down");
+		}
+		Pending pending = new Pending(tool);
+		if (!this.queue.offer(pending)) {
+			throw new TooManyRequestsException("Write queue is full, retry later");
+		}
+		return pending.result;
+	}
+
+	int size() {
+		return this.queue.size();
+	}
+
+	/**
+	 * Writes what is already queued and stops the flushing thread. Tools
+	 * queued concurrently with the close are failed.
+	 */
+	void close() throws InterruptedException {
+		this.closed = true;
+		this.flusher.join();
+		List<Pending> left = new ArrayList<>();
+		this.queue.drainTo(left);
+		left.forEach(pending -> pending.result
+			.completeExceptionally(new ServiceUnavailableException("Writes are not accepted while shutting down")));
+	}
+
+	private void flushLoop() {
+		List<Pending> batch = new ArrayList<>(this.batchSize);
+		while (!this.closed || !this.queue.isEmpty()) {
+			try {
+				Pending first = this.queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+				if (first == null) {
+					continue;
+				}
+				batch.add(first);
+				long deadline = System.nanoTime() + this.maxDelayNanos;
+				while (batch.size() < this.batchSize) {
+					this.queue.drainTo(batch, this.batchSize - batch.size());
+					long remaining = deadline - System.nanoTime();
+					if (batch.size() == this.batchSize || remaining <= 0) {
+						break;
+					}
+					Pending next = this.queue.poll(remaining, TimeUnit.NANOSECONDS);
+					if (next != null) {
+						batch.add(next);
+					}
+				}
+			} catch (InterruptedException e) {
+				// close() never interrupts, keep draining
+			}
+			this.flush(batch);
+			batch.clear();
+		}
+	}
+
+	private void flush(List<Pending> batch) {
+		if (batch.isEmpty()) {
+			return;
+		}
+		List<Tool> tools = new ArrayList<>(batch.size());
+		batch.forEach(pending -> tools.add(pending.tool));
+		try {
+			Map<Integer, RuntimeException> failures = this.writer.insertAll(tools);
+			for (int i = 0; i < batch.size(); i++) {
+				Pending pending = batch.get(i);
+				RuntimeException failure = failures.get(i);
+				if (failure == null) {
+					pending.result.complete(pending.tool);
+				} else {
+					pending.result.completeExceptionally(failure);
+				}
+			}
+		} catch (RuntimeException e) {
+			batch.forEach(pending -> pending.result.completeExceptionally(e));
+		}
+	}
+
+	private static final class Pending {
+
+		private final Tool tool;
+
+		private final CompletableFuture<Tool> result = new CompletableFuture<>();
+
+		Pending(Tool tool) {
+			this.tool = tool;
+		}
+
+	}
+
+}
@@ -0,0 +1,22 @@
+package com.pardini.vuttr.api.services;
+
+/**
+ * When a create request is answered.
+ */
+public enum WriteAck {
+
+	/** Once the tool is stored. */
+	DURABLE,
+
+	/** Once the tool is queued to be stored, with write-behind enabled. */
+	ACCEPTED;
+
+	public static WriteAck parse(String value) {
+		for (WriteAck ack : values()) {
+			if (ack.name().equalsIgnoreCase(value)) {
+				return ack;
+			}
+		}
+		throw new IllegalArgumentException("Unknown write acknowledgement: " + value);
+	}
+}
@@ -0,0 +1,95 @@
+package com.pardini.vuttr.config;
+
+import java.util.List;
+
+import org.msgpack.jackson.dataformat.MessagePackFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.http.codec.cbor.Jackson2CborEncoder;
+import org.springframework.http.codec.json.Jackson2SmileDecoder;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.pardini.vuttr.config.formats.MessagePackDecoder;
+import com.pardini.vuttr.config.formats.MessagePackEncoder;
+import com.pardini.vuttr.config.formats.MessagePackHttpMessageConverter;
+
+/**
+ * CBOR, Smile and MessagePack bodies next to JSON, picked by {@code Accept}
+ * and {@code Content-Type}. The mappers come from the same builder as the JSON
+ * one, so every format writes the same fields and dates.
+ */
+@Configuration
+public class BinaryFormatsConfig {
+
+	public static final MediaType APPLICATION_MSGPACK = MediaType.parseMediaType("application/x-msgpack");
+
+	public static final MediaType APPLICATION_MSGPACK_IANA = MediaType.parseMediaType("application/msgpack");
+
+	/**
+	 * Spring MVC already registers CBOR and Smile converters with a plain mapper;
+	 * they are swapped for ours and moved after JSON, so JSON still wins when the
+	 * client accepts anything.
+	 */
+	@Bean
+	@ConditionalOnWebApplication(type = Type.SERVLET)
+	public WebMvcConfigurer binaryFormatsMvcConfigurer(ObjectProvider<Jackson2ObjectMapperBuilder> builder) {
+		return new WebMvcConfigurer() {
+
+			@Override
+			public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+				converters.removeIf(converter -> converter instanceof MappingJackson2CborHttpMessageConverter
+						|| converter instanceof MappingJackson2SmileHttpMessageConverter);
+				converters.add(new MappingJackson2CborHttpMessageConverter(cbor(builder)));
+				converters.add(new MappingJackson2SmileHttpMessageConverter(smile(builder)));
+				converters.add(new MessagePackHttpMessageConverter(messagePack(builder), APPLICATION_MSGPACK,
+						APPLICATION_MSGPACK_IANA));
+			}
+
+		};
+	}
+
+	@Bean
+	@ConditionalOnWebApplication(type = Type.REACTIVE)
+	public CodecCustomizer binaryFormatsCodecCustomizer(ObjectProvider<Jackson2ObjectMapperBuilder> builder) {
+		ObjectMapper cbor = cbor(builder);
+		ObjectMapper smile = smile(builder);
+		ObjectMapper messagePack = messagePack(builder);
+		return configurer -> {
+			configurer.customCodecs().register(new Jackson2CborEncoder(cbor));
+			configurer.customCodecs().register(new Jackson2CborDecoder(cbor));
+			configurer.defaultCodecs().jackson2SmileEncoder(new Jackson2SmileEncoder(smile));
+			configurer.defaultCodecs().jackson2SmileDecoder(new Jackson2SmileDecoder(smile));
+			configurer.customCodecs().register(new MessagePackEncoder(messagePack, APPLICATION_MSGPACK,
+					APPLICATION_MSGPACK_IANA));
+			configurer.customCodecs().register(new MessagePackDecoder(messagePack, APPLICATION_MSGPACK,
+					APPLICATION_MSGPACK_IANA));
+		};
+	}
+
+	private static ObjectMapper cbor(ObjectProvider<Jackson2ObjectMapperBuilder> builder) {
+		return builder.getObject().factory(new CBORFactory()).build();
+	}
+
+	private static ObjectMapper smile(ObjectProvider<Jackson2ObjectMapperBuilder> builder) {
+		return builder.getObject().factory(new SmileFactory()).build();
+	}
+
+	private static ObjectMapper messagePack(ObjectProvider<Jackson2ObjectMapperBuilder> builder) {
+		return builder.getObject().factory(new MessagePackFactory()).build();
+	}
+
+}
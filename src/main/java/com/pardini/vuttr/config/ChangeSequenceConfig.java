@@ -0,0 +1,27 @@
+package com.pardini.vuttr.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+
+import com.pardini.vuttr.api.services.ChangeSequence;
+
+/**
+ * Numbers the tools stored before writes were numbered once the application
+ * is up. Until it is done, the changes endpoint doesn't return them.
+ */
+@Configuration
+@ConditionalOnProperty(name = "vuttr.changes.stamp-unsequenced", havingValue = "true", matchIfMissing = true)
+public class ChangeSequenceConfig {
+
+	@Autowired
+	private ChangeSequence changeSequence;
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void stampUnsequenced() {
+		this.changeSequence.stampUnsequenced();
+	}
+
+}
@@ -0,0 +1,19 @@
+package com.pardini.vuttr.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.config.EnableMongoAuditing;
+import org.springframework.data.mongodb.config.EnableReactiveMongoAuditing;
+
+/**
+ * Fills {@code lastModified} on saved tools, in both execution modes. Kept
+ * apart from the application class so web slice tests don't need MongoDB, and
+ * left out with the in-memory store, which sets the date itself.
+ */
+@Configuration
+@Profile("!memory")
+@EnableMongoAuditing
+@EnableReactiveMongoAuditing
+public class MongoAuditingConfig {
+
+}
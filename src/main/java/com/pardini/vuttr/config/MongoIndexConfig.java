@@ -0,0 +1,78 @@
+package com.pardini.vuttr.config;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import javax.annotation.PostConstruct;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.TextIndexDefinition.TextIndexDefinitionBuilder;
+
+import com.pardini.vuttr.domain.model.Tool;
+
+/**
+ * Creates the indexes the repository queries rely on before the application
+ * starts serving requests.
+ */
+@Configuration
+@ConditionalOnProperty(name = "vuttr.mongo.ensure-indexes", havingValue = "true", matchIfMissing = true)
+public class MongoIndexConfig {
+
+	private static final String TOMBSTONES = "tool_tombstones";
+
+	private static final String DELETED_AT_TTL = "deletedAt_ttl";
+
+	@Autowired
+	private MongoTemplate mongoTemplate;
+
+	@Value("${vuttr.changes.tombstone-retention:30d}")
+	private Duration tombstoneRetention;
+
+	@PostConstruct
+	public void ensureIndexes() {
+		IndexOperations tools = this.mongoTemplate.indexOps(Tool.class);
+		// multikey on tags, with _id so tag pages are read in keyset order
+		tools.ensureIndex(new Index().on("tags", Direction.ASC).on("_id", Direction.ASC).named("tags_id"));
+		tools.ensureIndex(new TextIndexDefinitionBuilder()
+			.onField("title", 3F)
+			.onField("description")
+			.named("title_description_text")
+			.build());
+		// range scans of GET /tools/changes, on the tools and on the tombstones
+		tools.ensureIndex(new Index().on("changeSeq", Direction.ASC).named("changeSeq"));
+		IndexOperations tombstones = this.mongoTemplate.indexOps(TOMBSTONES);
+		tombstones.ensureIndex(new Index().on("changeSeq", Direction.ASC).named("changeSeq"));
+		this.ensureTombstoneTtl(tombstones);
+	}
+
+	/**
+	 * Creates the TTL index of the tombstones, or changes its expiry in place
+	 * if the retention changed: creating it again with another expiry fails
+	 * with {@code IndexOptionsConflict}.
+	 */
+	private void ensureTombstoneTtl(IndexOperations tombstones) {
+		Optional<Duration> expireAfter = tombstones.getIndexInfo().stream()
+			.filter(index -> DELETED_AT_TTL.equals(index.getName()))
+			.findFirst()
+			.flatMap(IndexInfo::getExpireAfter);
+		if (expireAfter.isPresent() && !expireAfter.get().equals(this.tombstoneRetention)) {
+			this.mongoTemplate.executeCommand(new Document("collMod", TOMBSTONES)
+				.append("index", new Document("name", DELETED_AT_TTL)
+					.append("expireAfterSeconds", this.tombstoneRetention.getSeconds())));
+			return;
+		}
+		tombstones.ensureIndex(new Index().on("deletedAt", Direction.ASC)
+			.expire(this.tombstoneRetention)
+			.named(DELETED_AT_TTL));
+	}
+
+}
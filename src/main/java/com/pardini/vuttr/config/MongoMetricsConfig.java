@@ -0,0 +1,22 @@
+package com.pardini.vuttr.config;
+
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Adds the reply sizes of MongoDB commands to the command latencies Spring Boot
+ * already records as {@code mongodb.driver.commands}. Applies to the blocking
+ * and the reactive client.
+ */
+@Configuration
+public class MongoMetricsConfig {
+
+	@Bean
+	public MongoClientSettingsBuilderCustomizer mongoReplySizeCustomizer(MeterRegistry registry) {
+		return builder -> builder.addCommandListener(new MongoReplySizeListener(registry));
+	}
+
+}
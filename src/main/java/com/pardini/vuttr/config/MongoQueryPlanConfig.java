@@ -0,0 +1,71 @@
+package com.pardini.vuttr.config;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import com.pardini.vuttr.domain.repositories.ToolQueryPlans;
+
+/**
+ * Explains the repository queries once the indexes are ensured, before the
+ * application starts serving requests, so a deployment missing an index is
+ * caught instead of scanning the tools on every request.
+ * <p>
+ * {@code vuttr.mongo.query-plan-check} is {@code fail} to refuse to start,
+ * {@code warn} to log an error and start anyway, or {@code off}. Any other
+ * value refuses to start.
+ */
+@Configuration
+@ConditionalOnExpression("!'${vuttr.mongo.query-plan-check:fail}'.equalsIgnoreCase('off')")
+public class MongoQueryPlanConfig implements SmartInitializingSingleton {
+
+	private static final Logger log = LoggerFactory.getLogger(MongoQueryPlanConfig.class);
+
+	@Autowired
+	private MongoTemplate mongoTemplate;
+
+	private final Mode mode;
+
+	public MongoQueryPlanConfig(@Value("${vuttr.mongo.query-plan-check:fail}") String mode) {
+		this.mode = Mode.parse(mode);
+	}
+
+	@Override
+	public void afterSingletonsInstantiated() {
+		List<String> scans = new ToolQueryPlans(this.mongoTemplate).collectionScans();
+		if (scans.isEmpty()) {
+			log.info("Every repository query uses an index");
+			return;
+		}
+		String message = "Repository queries would scan the whole collection: " + scans
+				+ "; create the indexes or enable vuttr.mongo.ensure-indexes";
+		if (this.mode == Mode.FAIL) {
+			throw new IllegalStateException(message);
+		}
+		log.error(message);
+	}
+
+	public enum Mode {
+
+		FAIL, WARN, OFF;
+
+		public static Mode parse(String value) {
+			for (Mode mode : values()) {
+				if (mode.name().equalsIgnoreCase(value)) {
+					return mode;
+				}
+			}
+			throw new IllegalArgumentException(
+					"Unknown vuttr.mongo.query-plan-check: " + value + ", expected fail, warn or off");
+		}
+
+	}
+
+}
@@ -0,0 +1,51 @@
+package com.pardini.vuttr.config;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.bson.BsonDocument;
+import org.bson.RawBsonDocument;
+
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandSucceededEvent;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Records the size of every command reply as {@code mongodb.driver.reply.size},
+ * tagged with the command name. The driver hands replies over as raw BSON, so
+ * the size is read from the buffer and meters are looked up once per command.
+ */
+public class MongoReplySizeListener implements CommandListener {
+
+	private final MeterRegistry registry;
+
+	private final Map<String, DistributionSummary> summaries = new ConcurrentHashMap<>();
+
+	public MongoReplySizeListener(MeterRegistry registry) {
+		this.registry = registry;
+	}
+
+	@Override
+	public void commandSucceeded(CommandSucceededEvent event) {
+		BsonDocument response = event.getResponse();
+		if (response instanceof RawBsonDocument) {
+			this.summary(event.getCommandName()).record(((RawBsonDocument) response).getByteBuffer().remaining());
+		}
+	}
+
+	private DistributionSummary summary(String command) {
+		DistributionSummary summary = this.summaries.get(command);
+		if (summary == null) {
+			summary = this.summaries.computeIfAbsent(command, name -> DistributionSummary
+				.builder("mongodb.driver.reply.size")
+				.description("Size of MongoDB command replies")
+				.baseUnit("bytes")
+				.tag("command", name)
+				.register(this.registry));
+		}
+		return summary;
+	}
+
+}
@@ -0,0 +1,84 @@
+package com.pardini.vuttr.config;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import com.pardini.vuttr.domain.repositories.ToolRepository;
+
+/**
+ * Keeps a single node running against the store. The collection version that
+ * keys the list ETags, the writes in flight of the change sequence and the
+ * caches are all kept in process, so a second node would serve stale pages
+ * under unchanged tags.
+ * <p>
+ * The node claims the store before serving and renews the claim every
+ * {@code vuttr.store-claim.renewal}; the claim expires
+ * {@code vuttr.store-claim.ttl} after the last renewal. A node that finds
+ * another node's claim refuses to start, and one that finds its claim taken
+ * over shuts down. The claim is dropped on a clean shutdown, so a restart
+ * doesn't wait for it to expire. Expiry is compared against the clocks of the
+ * nodes.
+ */
+@Configuration
+@ConditionalOnProperty(name = "vuttr.store-claim.enabled", havingValue = "true", matchIfMissing = true)
+public class StoreClaimConfig {
+
+	private static final Logger log = LoggerFactory.getLogger(StoreClaimConfig.class);
+
+	private final String node = UUID.randomUUID().toString();
+
+	@Autowired
+	private ToolRepository toolRepository;
+
+	@Autowired
+	private ConfigurableApplicationContext context;
+
+	@Value("${vuttr.store-claim.ttl:30s}")
+	private Duration ttl;
+
+	@PostConstruct
+	public void claimStore() {
+		if (!this.toolRepository.claimStore(this.node, this.ttl)) {
+			throw new IllegalStateException("Another node is running against the store, only one is supported; "
+					+ "it may also have stopped less than " + this.ttl + " ago");
+		}
+	}
+
+	@PreDestroy
+	public void releaseStore() {
+		try {
+			this.toolRepository.releaseStore(this.node);
+		} catch (RuntimeException e) {
+			log.warn("Could not release the claim on the store, it expires in {}", this.ttl, e);
+		}
+	}
+
+	@Scheduled(initialDelayString = "${vuttr.store-claim.renewal:PT10S}",
+			fixedDelayString = "${vuttr.store-claim.renewal:PT10S}")
+	public void renewClaim() {
+		boolean claimed;
+		try {
+			claimed = this.toolRepository.claimStore(this.node, this.ttl);
+		} catch (RuntimeException e) {
+			log.warn("Could not renew the claim on the store", e);
+			return;
+		}
+		if (!claimed) {
+			log.error("Another node claimed the store, shutting down");
+			this.context.close();
+		}
+	}
+
+}
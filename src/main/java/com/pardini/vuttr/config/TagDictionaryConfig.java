@@ -0,0 +1,36 @@
+package com.pardini.vuttr.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.mapping.event.AfterConvertCallback;
+import org.springframework.data.mongodb.core.mapping.event.ReactiveAfterConvertCallback;
+
+import com.pardini.vuttr.domain.model.TagDictionary;
+import com.pardini.vuttr.domain.model.Tool;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Swaps the tags of every tool read from MongoDB, blocking or reactive, for
+ * the {@link TagDictionary}'s copies.
+ */
+@Configuration
+public class TagDictionaryConfig {
+
+	@Bean
+	public AfterConvertCallback<Tool> internToolTags(TagDictionary tagDictionary) {
+		return (tool, document, collection) -> {
+			tool.setTags(tagDictionary.intern(tool.getTags()));
+			return tool;
+		};
+	}
+
+	@Bean
+	public ReactiveAfterConvertCallback<Tool> reactiveInternToolTags(TagDictionary tagDictionary) {
+		return (tool, document, collection) -> {
+			tool.setTags(tagDictionary.intern(tool.getTags()));
+			return Mono.just(tool);
+		};
+	}
+
+}
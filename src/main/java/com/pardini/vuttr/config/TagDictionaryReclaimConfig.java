@@ -0,0 +1,32 @@
+package com.pardini.vuttr.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import com.pardini.vuttr.domain.model.TagDictionary;
+import com.pardini.vuttr.domain.repositories.ToolRepository;
+
+/**
+ * Without the tag index, periodically drops the tags no tool carries anymore
+ * from the {@link TagDictionary}, against the tags counted by the database.
+ * With the index, {@link TagIndexConfig} does it against the index instead.
+ */
+@Configuration
+@ConditionalOnProperty(name = "vuttr.tag-index.enabled", havingValue = "false")
+public class TagDictionaryReclaimConfig {
+
+	@Autowired
+	private TagDictionary tagDictionary;
+
+	@Autowired
+	private ToolRepository toolRepository;
+
+	@Scheduled(initialDelayString = "${vuttr.tags.dictionary-reclaim-interval:PT10M}",
+			fixedDelayString = "${vuttr.tags.dictionary-reclaim-interval:PT10M}")
+	public void reclaimTagDictionary() {
+		this.tagDictionary.retainAll(this.toolRepository.countByTag().keySet());
+	}
+
+}
@@ -0,0 +1,73 @@
+package com.pardini.vuttr.config;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import com.pardini.vuttr.api.services.TagIndex;
+import com.pardini.vuttr.domain.model.TagDictionary;
+import com.pardini.vuttr.domain.model.Tool;
+import com.pardini.vuttr.domain.repositories.ToolRepository;
+
+/**
+ * Loads the {@link TagIndex} once the application is up. Tag queries are sent
+ * to the database until the load completes.
+ * <p>
+ * The index is then reconciled periodically against counts aggregated by the
+ * database, and rebuilt if they drifted apart, e.g. because of writes made
+ * to the database directly. Each load and reconciliation also drops the tags
+ * no tool carries anymore from the {@link TagDictionary}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "vuttr.tag-index.enabled", havingValue = "true", matchIfMissing = true)
+public class TagIndexConfig {
+
+	private static final Logger log = LoggerFactory.getLogger(TagIndexConfig.class);
+
+	@Autowired
+	private TagIndex tagIndex;
+
+	@Autowired
+	private ToolRepository toolRepository;
+
+	@Autowired
+	private TagDictionary tagDictionary;
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void loadTagIndex() {
+		long start = System.currentTimeMillis();
+		try (Stream<Tool> tools = this.toolRepository.streamTags()) {
+			this.tagIndex.rebuild(tools.iterator());
+		}
+		this.tagDictionary.retainAll(this.tagIndex.tags());
+		log.info("Tag index loaded in {} ms", System.currentTimeMillis() - start);
+	}
+
+	@Scheduled(initialDelayString = "${vuttr.tag-index.reconcile-interval:PT10M}",
+			fixedDelayString = "${vuttr.tag-index.reconcile-interval:PT10M}")
+	public void reconcileTagIndex() {
+		if (!this.tagIndex.isReady()) {
+			return;
+		}
+		Map<String, Integer> expected = this.toolRepository.countByTag();
+		Map<String, Integer> actual = new HashMap<>();
+		this.tagIndex.counts(null).forEach(count -> actual.put(count.getTag(), count.getCount()));
+		if (!expected.equals(actual)) {
+			log.warn("Tag index drifted from the database ({} tags expected, {} indexed), rebuilding",
+					expected.size(), actual.size());
+			this.loadTagIndex();
+		} else {
+			this.tagDictionary.retainAll(this.tagIndex.tags());
+		}
+	}
+
+}
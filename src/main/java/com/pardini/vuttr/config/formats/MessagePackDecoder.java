@@ -0,0 +1,31 @@
+package com.pardini.vuttr.config.formats;
+
+import java.util.Map;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.codec.json.AbstractJackson2Decoder;
+import org.springframework.util.MimeType;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import reactor.core.publisher.Flux;
+
+/**
+ * Reads MessagePack bodies in reactive mode. The MessagePack parser can't
+ * read a body as it arrives, so only whole bodies are decoded, like CBOR.
+ */
+public class MessagePackDecoder extends AbstractJackson2Decoder {
+
+	public MessagePackDecoder(ObjectMapper objectMapper, MimeType... mimeTypes) {
+		super(objectMapper, mimeTypes);
+	}
+
+	@Override
+	public Flux<Object> decode(Publisher<DataBuffer> input, ResolvableType elementType, MimeType mimeType,
+			Map<String, Object> hints) {
+		throw new UnsupportedOperationException("Does not support stream decoding");
+	}
+
+}
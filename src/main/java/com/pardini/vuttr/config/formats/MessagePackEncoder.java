@@ -0,0 +1,18 @@
+package com.pardini.vuttr.config.formats;
+
+import org.springframework.http.codec.json.AbstractJackson2Encoder;
+import org.springframework.util.MimeType;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Writes MessagePack bodies in reactive mode. A {@code Flux} is written as a
+ * single array.
+ */
+public class MessagePackEncoder extends AbstractJackson2Encoder {
+
+	public MessagePackEncoder(ObjectMapper objectMapper, MimeType... mimeTypes) {
+		super(objectMapper, mimeTypes);
+	}
+
+}
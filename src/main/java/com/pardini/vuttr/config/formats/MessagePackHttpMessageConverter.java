@@ -0,0 +1,18 @@
+package com.pardini.vuttr.config.formats;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Reads and writes MessagePack bodies with a Jackson mapper built on a
+ * {@code MessagePackFactory}.
+ */
+public class MessagePackHttpMessageConverter extends AbstractJackson2HttpMessageConverter {
+
+	public MessagePackHttpMessageConverter(ObjectMapper objectMapper, MediaType... mediaTypes) {
+		super(objectMapper, mediaTypes);
+	}
+
+}
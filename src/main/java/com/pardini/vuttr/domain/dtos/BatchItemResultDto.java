@@ -0,0 +1,65 @@
+package com.pardini.vuttr.domain.dtos;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.pardini.vuttr.api.exceptions.FieldErrorMessage;
+
+public class BatchItemResultDto {
+
+	public enum Status {
+		CREATED, UPDATED, INVALID, FAILED
+	}
+
+	private int index;
+
+	private String id;
+
+	private Status status;
+
+	private List<FieldErrorMessage> errors = new ArrayList<>();
+
+	public BatchItemResultDto(int index, String id, Status status) {
+		super();
+		this.index = index;
+		this.id = id;
+		this.status = status;
+	}
+
+	public int getIndex() {
+		return index;
+	}
+
+	public void setIndex(int index) {
+		this.index = index;
+	}
+
+	public String getId() {
+		return id;
+	}
+
+	public void setId(String id) {
+		this.id = id;
+	}
+
+	public Status getStatus() {
+		return status;
+	}
+
+	public void setStatus(Status status) {
+		this.status = status;
+	}
+
+	public List<FieldErrorMessage> getErrors() {
+		return errors;
+	}
+
+	public void setErrors(List<FieldErrorMessage> errors) {
+		this.errors = errors;
+	}
+
+	public void addError(String fieldName, String message) {
+		this.errors.add(new FieldErrorMessage(fieldName, message));
+	}
+
+}
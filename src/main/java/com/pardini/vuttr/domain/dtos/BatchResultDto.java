@@ -0,0 +1,56 @@
+package com.pardini.vuttr.domain.dtos;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class BatchResultDto {
+
+	private int created;
+
+	private int updated;
+
+	private int invalid;
+
+	private int failed;
+
+	private List<BatchItemResultDto> items = new ArrayList<>();
+
+	public int getCreated() {
+		return created;
+	}
+
+	public int getUpdated() {
+		return updated;
+	}
+
+	public int getInvalid() {
+		return invalid;
+	}
+
+	public int getFailed() {
+		return failed;
+	}
+
+	public List<BatchItemResultDto> getItems() {
+		return items;
+	}
+
+	public void addItem(BatchItemResultDto item) {
+		this.items.add(item);
+		switch (item.getStatus()) {
+		case CREATED:
+			this.created++;
+			break;
+		case UPDATED:
+			this.updated++;
+			break;
+		case INVALID:
+			this.invalid++;
+			break;
+		case FAILED:
+			this.failed++;
+			break;
+		}
+	}
+
+}
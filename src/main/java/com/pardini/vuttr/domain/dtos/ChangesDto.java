@@ -0,0 +1,41 @@
+package com.pardini.vuttr.domain.dtos;
+
+import java.util.List;
+
+/**
+ * Changes in the order they were written, and the token to ask for the ones
+ * after them. {@code next} is set even when there are no changes.
+ */
+public class ChangesDto {
+
+	private List<ToolChangeDto> changes;
+
+	private String next;
+
+	public ChangesDto(List<ToolChangeDto> changes, String next) {
+		super();
+		this.changes = changes;
+		this.next = next;
+	}
+
+	public ChangesDto() {
+		super();
+	}
+
+	public List<ToolChangeDto> getChanges() {
+		return changes;
+	}
+
+	public void setChanges(List<ToolChangeDto> changes) {
+		this.changes = changes;
+	}
+
+	public String getNext() {
+		return next;
+	}
+
+	public void setNext(String next) {
+		this.next = next;
+	}
+
+}
@@ -0,0 +1,24 @@
+package com.pardini.vuttr.domain.dtos;
+
+public class DeleteResultDto {
+
+	private long deleted;
+
+	public DeleteResultDto(long deleted) {
+		super();
+		this.deleted = deleted;
+	}
+
+	public DeleteResultDto() {
+		super();
+	}
+
+	public long getDeleted() {
+		return deleted;
+	}
+
+	public void setDeleted(long deleted) {
+		this.deleted = deleted;
+	}
+
+}
@@ -0,0 +1,37 @@
+package com.pardini.vuttr.domain.dtos;
+
+import java.util.List;
+
+public class PageDto<T> {
+
+	private List<T> items;
+
+	private String next;
+
+	public PageDto(List<T> items, String next) {
+		super();
+		this.items = items;
+		this.next = next;
+	}
+
+	public PageDto() {
+		super();
+	}
+
+	public List<T> getItems() {
+		return items;
+	}
+
+	public void setItems(List<T> items) {
+		this.items = items;
+	}
+
+	public String getNext() {
+		return next;
+	}
+
+	public void setNext(String next) {
+		this.next = next;
+	}
+
+}
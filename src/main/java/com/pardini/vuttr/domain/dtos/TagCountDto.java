@@ -0,0 +1,35 @@
+package com.pardini.vuttr.domain.dtos;
+
+public class TagCountDto {
+
+	private String tag;
+
+	private int count;
+
+	public TagCountDto(String tag, int count) {
+		super();
+		this.tag = tag;
+		this.count = count;
+	}
+
+	public TagCountDto() {
+		super();
+	}
+
+	public String getTag() {
+		return tag;
+	}
+
+	public void setTag(String tag) {
+		this.tag = tag;
+	}
+
+	public int getCount() {
+		return count;
+	}
+
+	public void setCount(int count) {
+		this.count = count;
+	}
+
+}
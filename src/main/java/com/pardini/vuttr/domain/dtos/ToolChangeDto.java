@@ -0,0 +1,72 @@
+package com.pardini.vuttr.domain.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.pardini.vuttr.domain.model.Tool;
+import com.pardini.vuttr.domain.repositories.ToolChange;
+
+@JsonInclude(Include.NON_NULL)
+public class ToolChangeDto {
+
+	/**
+	 * {@code UNTAGGED} is only sent on tag-filtered event streams, for a tool
+	 * that was updated and no longer carries any of the tags.
+	 */
+	public enum Type {
+		CREATE, UPDATE, DELETE, UNTAGGED
+	}
+
+	private Type type;
+
+	private String id;
+
+	private Tool tool;
+
+	public ToolChangeDto(Type type, String id, Tool tool) {
+		super();
+		this.type = type;
+		this.id = id;
+		this.tool = tool;
+	}
+
+	public ToolChangeDto() {
+		super();
+	}
+
+	/**
+	 * The change as seen by a client that has the changes up to
+	 * {@code after}.
+	 */
+	public static ToolChangeDto of(ToolChange change, long after) {
+		if (change.isDeleted()) {
+			return new ToolChangeDto(Type.DELETE, change.getId(), null);
+		}
+		return new ToolChangeDto(change.isCreatedAfter(after) ? Type.CREATE : Type.UPDATE, change.getId(),
+				change.getTool());
+	}
+
+	public Type getType() {
+		return type;
+	}
+
+	public void setType(Type type) {
+		this.type = type;
+	}
+
+	public String getId() {
+		return id;
+	}
+
+	public void setId(String id) {
+		this.id = id;
+	}
+
+	public Tool getTool() {
+		return tool;
+	}
+
+	public void setTool(Tool tool) {
+		this.tool = tool;
+	}
+
+}
@@ -6,6 +6,8 @@ import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.Size;
 
+import com.pardini.vuttr.domain.model.TagDictionary;
+
 public class ToolDto {
 
 	@NotBlank()
@@ -49,7 +51,7 @@ public class ToolDto {
 	}
 
 	public void setTags(List<String> tags) {
-		this.tags = tags;
+		this.tags = TagDictionary.normalize(tags);
 	}
 
 	@Override
@@ -0,0 +1,134 @@
+package com.pardini.vuttr.domain.dtos;
+
+import java.util.List;
+import java.util.Objects;
+
+import javax.validation.constraints.AssertTrue;
+import javax.validation.constraints.Pattern;
+import javax.validation.constraints.Size;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.pardini.vuttr.domain.model.TagDictionary;
+
+/**
+ * Partial update of a tool. Only the fields that are set are changed.
+ * {@code tags} replaces the whole list, while {@code addTags} and
+ * {@code removeTags} change it in place; only one of the three may be used.
+ * Tags are normalized as they are set.
+ */
+public class ToolPatchDto {
+
+	private static final String NOT_BLANK = "(?s).*\\S.*";
+
+	@Pattern(regexp = NOT_BLANK, message = "must not be blank")
+	private String title;
+
+	@Pattern(regexp = NOT_BLANK, message = "must not be blank")
+	private String link;
+
+	@Size(min = 15, max = 2000)
+	private String description;
+
+	@Size(min = 1)
+	private List<String> tags;
+
+	@Size(min = 1)
+	private List<String> addTags;
+
+	@Size(min = 1)
+	private List<String> removeTags;
+
+	public static ToolPatchDto of(ToolDto dto) {
+		ToolPatchDto patch = new ToolPatchDto();
+		patch.setTitle(dto.getTitle());
+		patch.setLink(dto.getLink());
+		patch.setDescription(dto.getDescription());
+		patch.setTags(dto.getTags());
+		return patch;
+	}
+
+	@JsonIgnore
+	@AssertTrue(message = "must change at least one field")
+	public boolean isChangingAnything() {
+		return title != null || link != null || description != null || tags != null || addTags != null
+				|| removeTags != null;
+	}
+
+	/**
+	 * MongoDB rejects two operators on the same field in one update.
+	 */
+	@JsonIgnore
+	@AssertTrue(message = "use only one of tags, addTags and removeTags")
+	public boolean isChangingTagsOnce() {
+		int changes = (tags != null ? 1 : 0) + (addTags != null ? 1 : 0) + (removeTags != null ? 1 : 0);
+		return changes <= 1;
+	}
+
+	public String getTitle() {
+		return title;
+	}
+
+	public void setTitle(String title) {
+		this.title = title;
+	}
+
+	public String getLink() {
+		return link;
+	}
+
+	public void setLink(String link) {
+		this.link = link;
+	}
+
+	public String getDescription() {
+		return description;
+	}
+
+	public void setDescription(String description) {
+		this.description = description;
+	}
+
+	public List<String> getTags() {
+		return tags;
+	}
+
+	public void setTags(List<String> tags) {
+		this.tags = TagDictionary.normalize(tags);
+	}
+
+	public List<String> getAddTags() {
+		return addTags;
+	}
+
+	public void setAddTags(List<String> addTags) {
+		this.addTags = TagDictionary.normalize(addTags);
+	}
+
+	public List<String> getRemoveTags() {
+		return removeTags;
+	}
+
+	public void setRemoveTags(List<String> removeTags) {
+		this.removeTags = TagDictionary.normalize(removeTags);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(addTags, description, link, removeTags, tags, title);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		ToolPatchDto other = (ToolPatchDto) obj;
+		return Objects.equals(addTags, other.addTags) && Objects.equals(description, other.description)
+				&& Objects.equals(link, other.link) && Objects.equals(removeTags, other.removeTags)
+				&& Objects.equals(tags, other.tags) && Objects.equals(title, other.title);
+	}
+
+}
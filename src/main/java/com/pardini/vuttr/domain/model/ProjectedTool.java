@@ -0,0 +1,20 @@
+package com.pardini.vuttr.domain.model;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+
+/**
+ * A tool holding only the fields a client selected. The fields left out are
+ * absent from its representation rather than null; a whole {@link Tool}
+ * keeps writing its nulls.
+ */
+@JsonInclude(Include.NON_NULL)
+public class ProjectedTool extends Tool {
+
+	public ProjectedTool(String id, String title, String link, String description, List<String> tags) {
+		super(id, title, link, description, tags);
+	}
+
+}
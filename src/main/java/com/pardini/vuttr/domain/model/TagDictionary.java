@@ -0,0 +1,110 @@
+package com.pardini.vuttr.domain.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Dictionary of tag values, so tools loaded with the same tags share one copy
+ * of each string instead of holding their own. Tools keep the strings
+ * themselves, see {@link TagList}, so an entry can be dropped at any time;
+ * later loads of the tag just stop sharing it.
+ * <p>
+ * At most {@code vuttr.tags.dictionary-max-size} tags are kept; past that, new
+ * tags are left as loaded. {@link #retainAll(Collection)} reclaims the tags no
+ * tool carries anymore; it runs periodically against the tag index, or
+ * against the database when the index is disabled.
+ */
+@Component
+public class TagDictionary {
+
+	private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+	private final Map<String, String> tags = new ConcurrentHashMap<>();
+
+	private final int maxSize;
+
+	public TagDictionary(@Value("${vuttr.tags.dictionary-max-size:100000}") int maxSize) {
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * Canonical form of a tag: trimmed, inner whitespace collapsed to one space
+	 * and lower case.
+	 */
+	public static String normalize(String tag) {
+		if (tag == null) {
+			return null;
+		}
+		return WHITESPACE.matcher(tag.strip()).replaceAll(" ").toLowerCase(Locale.ROOT);
+	}
+
+	/**
+	 * Normalizes every tag, dropping the ones that become duplicates. Null
+	 * stays null.
+	 */
+	public static List<String> normalize(List<String> tags) {
+		if (tags == null) {
+			return null;
+		}
+		List<String> normalized = new ArrayList<>(tags.size());
+		for (String tag : tags) {
+			String canonical = normalize(tag);
+			if (!normalized.contains(canonical)) {
+				normalized.add(canonical);
+			}
+		}
+		return normalized;
+	}
+
+	/**
+	 * The tags as a {@link TagList} holding the dictionary's copy of each one.
+	 * Null stays null.
+	 */
+	public List<String> intern(List<String> tags) {
+		if (tags == null) {
+			return null;
+		}
+		String[] interned = new String[tags.size()];
+		int i = 0;
+		for (String tag : tags) {
+			interned[i++] = tag == null ? null : this.intern(tag);
+		}
+		return TagList.wrap(interned);
+	}
+
+	/**
+	 * Drops the tags missing from {@code live}, e.g. the vocabulary of the tag
+	 * index.
+	 */
+	public void retainAll(Collection<String> live) {
+		Set<String> kept = live instanceof Set ? (Set<String>) live : new HashSet<>(live);
+		this.tags.keySet().retainAll(kept);
+	}
+
+	public int size() {
+		return this.tags.size();
+	}
+
+	private String intern(String tag) {
+		String canonical = this.tags.get(tag);
+		if (canonical != null) {
+			return canonical;
+		}
+		if (this.tags.size() >= this.maxSize) {
+			return tag;
+		}
+		canonical = this.tags.putIfAbsent(tag, tag);
+		return canonical != null ? canonical : tag;
+	}
+
+}
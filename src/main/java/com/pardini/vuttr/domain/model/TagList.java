@@ -0,0 +1,42 @@
+package com.pardini.vuttr.domain.model;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Immutable list of tags in an array of exactly their number, without the
+ * spare capacity of an {@code ArrayList}. {@link TagDictionary#intern(List)}
+ * builds one holding shared strings.
+ */
+final class TagList extends AbstractList<String> implements RandomAccess {
+
+	private final String[] tags;
+
+	private TagList(String[] tags) {
+		this.tags = tags;
+	}
+
+	static List<String> of(List<String> tags) {
+		if (tags == null || tags instanceof TagList) {
+			return tags;
+		}
+		return new TagList(tags.toArray(new String[0]));
+	}
+
+	/** Takes ownership of the array. */
+	static TagList wrap(String[] tags) {
+		return new TagList(tags);
+	}
+
+	@Override
+	public String get(int index) {
+		return this.tags[index];
+	}
+
+	@Override
+	public int size() {
+		return this.tags.length;
+	}
+
+}
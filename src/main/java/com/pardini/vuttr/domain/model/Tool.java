@@ -1,10 +1,17 @@
 package com.pardini.vuttr.domain.model;
 
+import java.time.Instant;
 import java.util.List;
 
+import org.springframework.data.annotation.AccessType;
+import org.springframework.data.annotation.AccessType.Type;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 @Document(collection = "tools")
 public class Tool {
 
@@ -17,15 +24,41 @@ public class Tool {
 
 	private String description;
 
+	/**
+	 * A {@link TagList}. Set through the accessors when read from the database
+	 * as well, where the {@link TagDictionary} swaps the loaded strings for
+	 * shared ones.
+	 */
+	@AccessType(Type.PROPERTY)
 	private List<String> tags;
 
+	@Version
+	private Long version;
+
+	@LastModifiedDate
+	private Instant lastModified;
+
+	/**
+	 * Position of the last write of the tool in the change sequence, see
+	 * {@code GET /tools/changes}. Not part of the representation.
+	 */
+	@JsonIgnore
+	private Long changeSeq;
+
+	/**
+	 * Position of the write that created the tool, so changes can tell a new
+	 * tool from an updated one. Null for tools stored before it was kept.
+	 */
+	@JsonIgnore
+	private Long createdSeq;
+
 	public Tool(String id, String title, String link, String description, List<String> tags) {
 		super();
 		this.id = id;
 		this.title = title;
 		this.link = link;
 		this.description = description;
-		this.tags = tags;
+		this.tags = TagList.of(tags);
 	}
 
 	public Tool() {
@@ -65,7 +98,39 @@ public class Tool {
 	}
 
 	public void setTags(List<String> tags) {
-		this.tags = tags;
+		this.tags = TagList.of(tags);
+	}
+
+	public Long getVersion() {
+		return version;
+	}
+
+	public void setVersion(Long version) {
+		this.version = version;
+	}
+
+	public Instant getLastModified() {
+		return lastModified;
+	}
+
+	public void setLastModified(Instant lastModified) {
+		this.lastModified = lastModified;
+	}
+
+	public Long getChangeSeq() {
+		return changeSeq;
+	}
+
+	public void setChangeSeq(Long changeSeq) {
+		this.changeSeq = changeSeq;
+	}
+
+	public Long getCreatedSeq() {
+		return createdSeq;
+	}
+
+	public void setCreatedSeq(Long createdSeq) {
+		this.createdSeq = createdSeq;
 	}
 
 	@Override
@@ -0,0 +1,31 @@
+package com.pardini.vuttr.domain.repositories;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Outcome of an unordered bulk upsert. Positions refer to the list handed to
+ * the repository; every position that is neither inserted nor failed replaced
+ * an existing document.
+ */
+public class BulkUpsertResult {
+
+	private final Set<Integer> inserted;
+
+	private final Map<Integer, String> errors;
+
+	public BulkUpsertResult(Set<Integer> inserted, Map<Integer, String> errors) {
+		super();
+		this.inserted = inserted;
+		this.errors = errors;
+	}
+
+	public Set<Integer> getInserted() {
+		return inserted;
+	}
+
+	public Map<Integer, String> getErrors() {
+		return errors;
+	}
+
+}
@@ -0,0 +1,14 @@
+package com.pardini.vuttr.domain.repositories;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import com.pardini.vuttr.domain.model.Tool;
+
+/**
+ * {@link ToolRepository} over MongoDB, implemented by Spring Data and
+ * {@link ToolRepositoryCustomImpl}, which Spring Data only looks up for the
+ * interfaces extended directly.
+ */
+public interface MongoToolRepository extends MongoRepository<Tool, String>, ToolRepositoryCustom, ToolRepository {
+
+}
@@ -0,0 +1,9 @@
+package com.pardini.vuttr.domain.repositories;
+
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+
+import com.pardini.vuttr.domain.model.Tool;
+
+public interface ReactiveToolRepository extends ReactiveMongoRepository<Tool, String>, ReactiveToolRepositoryCustom {
+
+}
@@ -0,0 +1,49 @@
+package com.pardini.vuttr.domain.repositories;
+
+import java.util.Collection;
+import java.util.List;
+
+import com.pardini.vuttr.domain.dtos.ToolPatchDto;
+import com.pardini.vuttr.domain.model.Tool;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveToolRepositoryCustom {
+
+	/**
+	 * Non-blocking counterpart of {@link ToolRepositoryCustom#findPage}.
+	 */
+	public Flux<Tool> findPage(List<String> tags, TagMatch match, String afterId, int limit, ToolFields fields);
+
+	/**
+	 * Non-blocking counterpart of {@link ToolRepositoryCustom#findFields}.
+	 */
+	public Mono<Tool> findFields(String id, ToolFields fields);
+
+	/**
+	 * Non-blocking counterpart of {@link ToolRepositoryCustom#search}.
+	 */
+	public Flux<Tool> search(String text, int skip, int limit);
+
+	/**
+	 * Non-blocking counterpart of {@link ToolRepositoryCustom#patch}.
+	 */
+	public Mono<Tool> patch(String id, ToolPatchDto patch, long changeSeq);
+
+	/**
+	 * Non-blocking counterpart of {@link ToolRepositoryCustom#removeById}.
+	 */
+	public Mono<Boolean> removeById(String id);
+
+	/**
+	 * Non-blocking counterpart of {@link ToolRepositoryCustom#removeAllById}.
+	 */
+	public Mono<Long> removeAllById(Collection<String> ids);
+
+	/**
+	 * Non-blocking counterpart of {@link ToolRepositoryCustom#saveTombstones}.
+	 */
+	public Mono<Void> saveTombstones(List<String> ids, long firstSeq);
+
+}
@@ -0,0 +1,76 @@
+package com.pardini.vuttr.domain.repositories;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.result.DeleteResult;
+import com.pardini.vuttr.domain.dtos.ToolPatchDto;
+import com.pardini.vuttr.domain.model.Tool;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public class ReactiveToolRepositoryCustomImpl implements ReactiveToolRepositoryCustom {
+
+	@Autowired
+	private ReactiveMongoTemplate reactiveMongoTemplate;
+
+	@Override
+	public Flux<Tool> findPage(List<String> tags, TagMatch match, String afterId, int limit, ToolFields fields) {
+		return this.reactiveMongoTemplate.find(ToolQueries.page(tags, match, afterId, limit, fields), Tool.class)
+			.map(fields::project);
+	}
+
+	@Override
+	public Mono<Tool> findFields(String id, ToolFields fields) {
+		return this.reactiveMongoTemplate.findOne(fields.applyTo(ToolQueries.byId(id)), Tool.class)
+			.map(fields::project);
+	}
+
+	@Override
+	public Flux<Tool> search(String text, int skip, int limit) {
+		return this.reactiveMongoTemplate.find(ToolQueries.search(text, skip, limit), Tool.class);
+	}
+
+	@Override
+	public Mono<Tool> patch(String id, ToolPatchDto patch, long changeSeq) {
+		return this.reactiveMongoTemplate.findAndModify(ToolQueries.byId(id), ToolQueries.patch(patch, changeSeq),
+				FindAndModifyOptions.options().returnNew(true), Tool.class);
+	}
+
+	@Override
+	public Mono<Boolean> removeById(String id) {
+		return this.reactiveMongoTemplate.remove(ToolQueries.byId(id), Tool.class)
+			.map(result -> result.getDeletedCount() > 0);
+	}
+
+	@Override
+	public Mono<Long> removeAllById(Collection<String> ids) {
+		return this.reactiveMongoTemplate.remove(ToolQueries.byIds(ids), Tool.class)
+			.map(DeleteResult::getDeletedCount);
+	}
+
+	@Override
+	public Mono<Void> saveTombstones(List<String> ids, long firstSeq) {
+		List<UpdateOneModel<Document>> upserts = new ArrayList<>(ids.size());
+		for (int i = 0; i < ids.size(); i++) {
+			upserts.add(new UpdateOneModel<>(new Document("_id", ids.get(i)),
+					new Document("$set", new Document(ToolQueries.CHANGE_SEQ, firstSeq + i))
+						.append("$currentDate", new Document("deletedAt", true)),
+					new UpdateOptions().upsert(true)));
+		}
+		return this.reactiveMongoTemplate.getCollection(ToolQueries.TOMBSTONES_COLLECTION)
+			.flatMap(collection -> Mono.from(collection.bulkWrite(upserts, new BulkWriteOptions().ordered(false))))
+			.then();
+	}
+
+}
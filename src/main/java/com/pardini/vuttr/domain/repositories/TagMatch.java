@@ -0,0 +1,31 @@
+package com.pardini.vuttr.domain.repositories;
+
+import java.util.List;
+
+public enum TagMatch {
+
+	/** Tools carrying every requested tag. */
+	ALL,
+
+	/** Tools carrying at least one of the requested tags. */
+	ANY;
+
+	/**
+	 * Whether a tool carrying {@code carried} matches the requested tags.
+	 */
+	public boolean matches(List<String> carried, List<String> requested) {
+		if (carried == null) {
+			return false;
+		}
+		return this == ALL ? carried.containsAll(requested) : requested.stream().anyMatch(carried::contains);
+	}
+
+	public static TagMatch parse(String value) {
+		for (TagMatch match : values()) {
+			if (match.name().equalsIgnoreCase(value)) {
+				return match;
+			}
+		}
+		throw new IllegalArgumentException("Unknown tag match: " + value);
+	}
+}
@@ -0,0 +1,51 @@
+package com.pardini.vuttr.domain.repositories;
+
+import com.pardini.vuttr.domain.model.Tool;
+
+/**
+ * A create or update of a tool, or its deletion, at a position of the change
+ * sequence.
+ */
+public class ToolChange {
+
+	private final long seq;
+
+	private final String id;
+
+	private final Tool tool;
+
+	public ToolChange(long seq, String id, Tool tool) {
+		super();
+		this.seq = seq;
+		this.id = id;
+		this.tool = tool;
+	}
+
+	public long getSeq() {
+		return seq;
+	}
+
+	public String getId() {
+		return id;
+	}
+
+	/**
+	 * State of the tool after the write, null if it was deleted.
+	 */
+	public Tool getTool() {
+		return tool;
+	}
+
+	public boolean isDeleted() {
+		return tool == null;
+	}
+
+	/**
+	 * Whether the tool was created after {@code after}, so a client that has
+	 * the changes up to there hasn't seen it yet.
+	 */
+	public boolean isCreatedAfter(long after) {
+		return tool != null && tool.getCreatedSeq() != null && tool.getCreatedSeq() > after;
+	}
+
+}
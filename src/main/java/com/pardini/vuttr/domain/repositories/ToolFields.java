@@ -0,0 +1,94 @@
+package com.pardini.vuttr.domain.repositories;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.springframework.data.mongodb.core.query.Field;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.pardini.vuttr.domain.model.ProjectedTool;
+import com.pardini.vuttr.domain.model.Tool;
+
+/**
+ * Subset of the tool fields a client asked for. It is applied as a MongoDB
+ * projection, so the other fields are neither read nor decoded. The id, the
+ * version and the modification date are always included. Projected tools
+ * are returned as {@link #project(Tool)} copies, which leave the other
+ * fields out of the response.
+ */
+public final class ToolFields {
+
+	public static final ToolFields ALL = new ToolFields(null);
+
+	private static final List<String> SELECTABLE = List.of("title", "link", "description", "tags");
+
+	/** Requested fields in {@link #SELECTABLE} order, null for every field. */
+	private final List<String> names;
+
+	private ToolFields(List<String> names) {
+		this.names = names;
+	}
+
+	/**
+	 * Parses the {@code fields} parameter. Null or empty selects every field.
+	 */
+	public static ToolFields parse(List<String> fields) {
+		if (fields == null || fields.isEmpty()) {
+			return ALL;
+		}
+		for (String field : fields) {
+			if (!field.equals("id") && !SELECTABLE.contains(field)) {
+				throw new IllegalArgumentException("Unknown field: " + field);
+			}
+		}
+		List<String> names = new ArrayList<>();
+		for (String field : SELECTABLE) {
+			if (fields.contains(field)) {
+				names.add(field);
+			}
+		}
+		return new ToolFields(Collections.unmodifiableList(names));
+	}
+
+	public boolean isAll() {
+		return this.names == null;
+	}
+
+	/**
+	 * Canonical form of the selection, the same for any order of the
+	 * requested fields. Empty when every field is selected.
+	 */
+	public String key() {
+		return this.isAll() ? "" : String.join(",", this.names);
+	}
+
+	Query applyTo(Query query) {
+		if (!this.isAll()) {
+			Field projection = query.fields().include("id", "version", "lastModified");
+			this.names.forEach(projection::include);
+		}
+		return query;
+	}
+
+	/**
+	 * Copy of a tool holding only the selected fields, as a
+	 * {@link ProjectedTool} unless every field is selected.
+	 */
+	public Tool project(Tool tool) {
+		if (this.isAll()) {
+			return tool;
+		}
+		Tool projected = new ProjectedTool(tool.getId(), this.select("title", tool.getTitle()),
+				this.select("link", tool.getLink()), this.select("description", tool.getDescription()),
+				this.select("tags", tool.getTags()));
+		projected.setVersion(tool.getVersion());
+		projected.setLastModified(tool.getLastModified());
+		return projected;
+	}
+
+	private <T> T select(String field, T value) {
+		return this.names.contains(field) ? value : null;
+	}
+
+}
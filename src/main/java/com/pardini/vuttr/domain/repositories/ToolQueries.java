@@ -0,0 +1,146 @@
+package com.pardini.vuttr.domain.repositories;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+import org.bson.Document;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.TextQuery;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.pardini.vuttr.domain.dtos.ToolPatchDto;
+
+/**
+ * Queries shared by the blocking and the reactive repositories.
+ */
+final class ToolQueries {
+
+	static final String COUNTERS_COLLECTION = "counters";
+
+	/** Deleted tools, kept so change feeds can report the deletions. */
+	static final String TOMBSTONES_COLLECTION = "tool_tombstones";
+
+	static final String CHANGE_SEQ = "changeSeq";
+
+	private static final String CHANGE_SEQ_ID = "changes";
+
+	private static final String STORE_CLAIM_ID = "store_claim";
+
+	private ToolQueries() {
+	}
+
+	static Query page(List<String> tags, TagMatch match, String afterId, int limit, ToolFields fields) {
+		Query query = new Query();
+		if (tags != null && tags.size() == 1) {
+			query.addCriteria(Criteria.where("tags").is(tags.get(0)));
+		} else if (tags != null && !tags.isEmpty()) {
+			Criteria criteria = Criteria.where("tags");
+			query.addCriteria(match == TagMatch.ANY ? criteria.in(tags) : criteria.all(tags));
+		}
+		if (afterId != null) {
+			query.addCriteria(Criteria.where("id").gt(afterId));
+		}
+		return fields.applyTo(query).with(Sort.by(Sort.Direction.ASC, "id")).limit(limit);
+	}
+
+	static Query search(String text, int skip, int limit) {
+		return TextQuery.queryText(TextCriteria.forDefaultLanguage().matching(text))
+			.sortByScore()
+			.skip(skip)
+			.limit(limit);
+	}
+
+	static Query byId(String id) {
+		return Query.query(Criteria.where("id").is(id));
+	}
+
+	static Query byIds(Collection<String> ids) {
+		return Query.query(Criteria.where("id").in(ids));
+	}
+
+	static Query byIdsAndTag(Collection<String> ids, String tag) {
+		return Query.query(Criteria.where("id").in(ids).and("tags").is(tag));
+	}
+
+	/**
+	 * Update applying only the fields set in the patch, bumping the version
+	 * and the modification date and stamping the change number in the same
+	 * write.
+	 */
+	static Update patch(ToolPatchDto patch, long changeSeq) {
+		Update update = new Update();
+		if (patch.getTitle() != null) {
+			update.set("title", patch.getTitle());
+		}
+		if (patch.getLink() != null) {
+			update.set("link", patch.getLink());
+		}
+		if (patch.getDescription() != null) {
+			update.set("description", patch.getDescription());
+		}
+		if (patch.getTags() != null) {
+			update.set("tags", patch.getTags());
+		}
+		if (patch.getAddTags() != null) {
+			update.addToSet("tags").each(patch.getAddTags().toArray());
+		}
+		if (patch.getRemoveTags() != null) {
+			update.pullAll("tags", patch.getRemoveTags().toArray());
+		}
+		update.set(CHANGE_SEQ, changeSeq);
+		return update.inc("version", 1).currentDate("lastModified");
+	}
+
+	/**
+	 * The claim document, if it is {@code node}'s or expired: otherwise the
+	 * upsert collides with it on {@code _id}.
+	 */
+	static Query claimableBy(String node, Instant now) {
+		return Query.query(Criteria.where("_id").is(STORE_CLAIM_ID)
+			.orOperator(Criteria.where("node").is(node), Criteria.where("expiresAt").lt(now)));
+	}
+
+	static Query claimOf(String node) {
+		return Query.query(Criteria.where("_id").is(STORE_CLAIM_ID).and("node").is(node));
+	}
+
+	static Update claim(String node, Instant expiresAt) {
+		return new Update().set("node", node).set("expiresAt", expiresAt);
+	}
+
+	static Query changeSeqCounter() {
+		return Query.query(Criteria.where("_id").is(CHANGE_SEQ_ID));
+	}
+
+	static Update allocateChangeSeqs(int count) {
+		return new Update().inc(CHANGE_SEQ, (long) count);
+	}
+
+	static long changeSeqOf(Document document) {
+		return document.get(CHANGE_SEQ, Number.class).longValue();
+	}
+
+	/**
+	 * Range of the change sequence, on the {@code changeSeq} index of the
+	 * tools or of the tombstones.
+	 */
+	static Query changes(long after, long upTo, int limit) {
+		return Query.query(Criteria.where(CHANGE_SEQ).gt(after).lte(upTo))
+			.with(Sort.by(Sort.Direction.ASC, CHANGE_SEQ))
+			.limit(limit);
+	}
+
+	static Query unsequenced(int limit) {
+		return Query.query(Criteria.where(CHANGE_SEQ).exists(false)).limit(limit);
+	}
+
+	static Query unsequenced(String id) {
+		return Query.query(Criteria.where("id").is(id).and(CHANGE_SEQ).exists(false));
+	}
+
+}
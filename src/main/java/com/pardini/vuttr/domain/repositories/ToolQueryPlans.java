@@ -0,0 +1,115 @@
+package com.pardini.vuttr.domain.repositories;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.mongodb.ExplainVerbosity;
+import com.mongodb.client.FindIterable;
+import com.pardini.vuttr.domain.model.Tool;
+
+/**
+ * Explains the query shapes the repositories send, to find the ones the
+ * database would answer by scanning a whole collection. Only the planner runs;
+ * no documents are read.
+ * <p>
+ * Reads of every tool by design, the exports, the tag index load and the tag
+ * count aggregation, are left out.
+ */
+public final class ToolQueryPlans {
+
+	private static final String SAMPLE_ID = "000000000000000000000000";
+
+	private static final List<String> SAMPLE_TAGS = List.of("tag1", "tag2");
+
+	private final MongoTemplate mongoTemplate;
+
+	private final QueryMapper queryMapper;
+
+	public ToolQueryPlans(MongoTemplate mongoTemplate) {
+		this.mongoTemplate = mongoTemplate;
+		this.queryMapper = new QueryMapper(mongoTemplate.getConverter());
+	}
+
+	/**
+	 * Names of the query shapes whose winning plan scans a collection, empty
+	 * if every one of them uses an index.
+	 */
+	public List<String> collectionScans() {
+		List<String> scans = new ArrayList<>();
+		shapes().forEach((name, query) -> {
+			String collection = name.startsWith("tombstone") ? ToolQueries.TOMBSTONES_COLLECTION
+					: this.mongoTemplate.getCollectionName(Tool.class);
+			if (scansCollection(this.explain(collection, query))) {
+				scans.add(name);
+			}
+		});
+		return scans;
+	}
+
+	static Map<String, Query> shapes() {
+		Map<String, Query> shapes = new LinkedHashMap<>();
+		shapes.put("page", ToolQueries.page(null, null, SAMPLE_ID, 21, ToolFields.ALL));
+		shapes.put("page by tag", ToolQueries.page(SAMPLE_TAGS.subList(0, 1), TagMatch.ALL, SAMPLE_ID, 21, ToolFields.ALL));
+		shapes.put("page by all tags", ToolQueries.page(SAMPLE_TAGS, TagMatch.ALL, SAMPLE_ID, 21, ToolFields.ALL));
+		shapes.put("page by any tag", ToolQueries.page(SAMPLE_TAGS, TagMatch.ANY, SAMPLE_ID, 21, ToolFields.ALL));
+		shapes.put("search", ToolQueries.search("sample", 0, 20));
+		shapes.put("by id", ToolQueries.byId(SAMPLE_ID));
+		shapes.put("by ids", ToolQueries.byIds(List.of(SAMPLE_ID)));
+		shapes.put("by ids and tag", ToolQueries.byIdsAndTag(List.of(SAMPLE_ID), SAMPLE_TAGS.get(0)));
+		shapes.put("changes", ToolQueries.changes(0, 100, 500));
+		shapes.put("tombstone changes", ToolQueries.changes(0, 100, 500));
+		shapes.put("unsequenced", ToolQueries.unsequenced(500));
+		return shapes;
+	}
+
+	/**
+	 * Whether the winning plan of an {@code explain} reply has a
+	 * {@code COLLSCAN} stage, on a single server or on any shard.
+	 */
+	static boolean scansCollection(Document explain) {
+		Document planner = explain.get("queryPlanner", Document.class);
+		return planner != null && hasCollectionScan(planner.get("winningPlan"));
+	}
+
+	private static boolean hasCollectionScan(Object plan) {
+		if (plan instanceof Document) {
+			Document stage = (Document) plan;
+			if ("COLLSCAN".equals(stage.get("stage"))) {
+				return true;
+			}
+			for (Map.Entry<String, Object> entry : stage.entrySet()) {
+				// plans the shards rejected don't run
+				if (!entry.getKey().equals("rejectedPlans") && hasCollectionScan(entry.getValue())) {
+					return true;
+				}
+			}
+		} else if (plan instanceof List) {
+			for (Object element : (List<?>) plan) {
+				if (hasCollectionScan(element)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	private Document explain(String collection, Query query) {
+		MongoPersistentEntity<?> entity = collection.equals(ToolQueries.TOMBSTONES_COLLECTION) ? null
+				: this.mongoTemplate.getConverter().getMappingContext().getPersistentEntity(Tool.class);
+		FindIterable<Document> find = this.mongoTemplate.getCollection(collection)
+			.find(this.queryMapper.getMappedObject(query.getQueryObject(), entity))
+			.projection(this.queryMapper.getMappedFields(query.getFieldsObject(), entity))
+			.sort(this.queryMapper.getMappedSort(query.getSortObject(), entity))
+			.limit(query.getLimit());
+		return find.explain(ExplainVerbosity.QUERY_PLANNER);
+	}
+
+}
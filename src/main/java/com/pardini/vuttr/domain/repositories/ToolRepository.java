@@ -1,12 +1,32 @@
 package com.pardini.vuttr.domain.repositories;
 
 import java.util.List;
-
-import org.springframework.data.mongodb.repository.MongoRepository;
+import java.util.Optional;
 
 import com.pardini.vuttr.domain.model.Tool;
 
-public interface ToolRepository extends MongoRepository<Tool, String>{
+/**
+ * Storage of the tools, limited to the calls the services make, so a store
+ * other than MongoDB implements only those.
+ */
+public interface ToolRepository extends ToolRepositoryCustom {
+
+	/**
+	 * Inserts a tool without a version, or replaces the one whose version
+	 * matches, and returns it as stored.
+	 */
+	public <S extends Tool> S save(S entity);
+
+	/**
+	 * Inserts the tools, failing on an id that already exists.
+	 */
+	public <S extends Tool> List<S> insert(Iterable<S> entities);
+
+	public Optional<Tool> findById(String id);
+
+	/**
+	 * The tools with the ids, leaving out the ones that don't exist.
+	 */
+	public Iterable<Tool> findAllById(Iterable<String> ids);
 
-	public List<Tool> findByTags(String tag);
 }
@@ -0,0 +1,137 @@
+package com.pardini.vuttr.domain.repositories;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import com.pardini.vuttr.domain.dtos.ToolPatchDto;
+import com.pardini.vuttr.domain.model.Tool;
+
+public interface ToolRepositoryCustom {
+
+	/**
+	 * Keyset page ordered by id. Only tools whose id is greater than
+	 * {@code afterId} are returned, so the cost of a page does not depend on how
+	 * deep into the collection it is. A null or empty {@code tags} matches every
+	 * tool. Only the selected {@code fields} are read.
+	 */
+	public List<Tool> findPage(List<String> tags, TagMatch match, String afterId, int limit, ToolFields fields);
+
+	/**
+	 * Reads only the selected fields of the tool with the id.
+	 */
+	public Optional<Tool> findFields(String id, ToolFields fields);
+
+	/**
+	 * Streams the whole collection from a live cursor. The returned stream must
+	 * be closed to release the cursor.
+	 */
+	public Stream<Tool> streamAll();
+
+	/**
+	 * Text search over title and description, best matches first.
+	 */
+	public List<Tool> search(String text, int skip, int limit);
+
+	/**
+	 * Same as {@link #streamAll()}, reading only the id and tags of each tool.
+	 */
+	public Stream<Tool> streamTags();
+
+	/**
+	 * Inserts the tools, which already have their ids, in a single unordered
+	 * bulk write and returns the error of each position that wasn't stored.
+	 * The tools are updated in place with their version and
+	 * {@code lastModified}.
+	 */
+	public Map<Integer, String> insertUnordered(List<Tool> tools);
+
+	/**
+	 * Replaces the content of every tool by id, inserting the ones that don't
+	 * exist yet, in a single unordered bulk write. Versions are incremented and
+	 * {@code lastModified} set by the database.
+	 */
+	public BulkUpsertResult upsertAll(List<Tool> tools);
+
+	/**
+	 * Applies the patch to the tool and returns its new state, in a single
+	 * atomic round trip. Empty if there is no tool with the id. The tool is
+	 * stamped with {@code changeSeq} in the same write.
+	 */
+	public Optional<Tool> patch(String id, ToolPatchDto patch, long changeSeq);
+
+	/**
+	 * Deletes the tool with a single {@code deleteOne}. Returns false if there
+	 * was no tool with the id.
+	 */
+	public boolean removeById(String id);
+
+	/**
+	 * Deletes the tools with the given ids in a single {@code deleteMany} and
+	 * returns how many were deleted.
+	 */
+	public long removeAllById(Collection<String> ids);
+
+	/**
+	 * Ids of at most {@code limit} tools carrying the tag, in id order after
+	 * {@code afterId}, read off the tags index.
+	 */
+	public List<String> findIdsByTag(String tag, String afterId, int limit);
+
+	/**
+	 * Deletes the tools among the given ids that still carry the tag in a
+	 * single {@code deleteMany} and returns how many were deleted.
+	 */
+	public long removeTagged(Collection<String> ids, String tag);
+
+	/**
+	 * Number of tools carrying each tag, computed by the database.
+	 */
+	public Map<String, Integer> countByTag();
+
+	/**
+	 * Reserves {@code count} consecutive numbers of the change sequence and
+	 * returns the last one. The first number is 1.
+	 */
+	public long allocateChangeSeqs(int count);
+
+	/**
+	 * Claims the store for {@code node} until {@code ttl} from now, or extends
+	 * its claim. False if another node holds a claim that hasn't expired.
+	 */
+	public boolean claimStore(String node, Duration ttl);
+
+	/**
+	 * Drops the claim of {@code node}, if it still holds it.
+	 */
+	public void releaseStore(String node);
+
+	/**
+	 * Records the deletion of {@code ids.get(i)} at change {@code firstSeq + i}.
+	 */
+	public void saveTombstones(List<String> ids, long firstSeq);
+
+	/**
+	 * Writes and deletions whose change number is greater than {@code after}
+	 * and at most {@code upTo}, in change order, read through the change
+	 * number indexes of the tools and of the tombstones. A tombstone of a tool
+	 * that is still there, written before it, carries the tool.
+	 */
+	public List<ToolChange> findChanges(long after, long upTo, int limit);
+
+	/**
+	 * Ids of up to {@code limit} tools stored before they were stamped with a
+	 * change number.
+	 */
+	public List<String> findUnsequencedIds(int limit);
+
+	/**
+	 * Stamps {@code ids.get(i)} with change {@code firstSeq + i}, unless a
+	 * write has stamped it since it was found.
+	 */
+	public void stampUnsequenced(List<String> ids, long firstSeq);
+
+}
@@ -0,0 +1,273 @@
+package com.pardini.vuttr.domain.repositories;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.util.StreamUtils;
+
+import org.bson.Document;
+
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.bulk.BulkWriteUpsert;
+import com.pardini.vuttr.domain.dtos.ToolPatchDto;
+import com.pardini.vuttr.domain.model.Tool;
+
+public class ToolRepositoryCustomImpl implements ToolRepositoryCustom {
+
+	private static final int STREAM_BATCH_SIZE = 500;
+
+	@Autowired
+	private MongoTemplate mongoTemplate;
+
+	@Override
+	public List<Tool> findPage(List<String> tags, TagMatch match, String afterId, int limit, ToolFields fields) {
+		List<Tool> page = this.mongoTemplate.find(ToolQueries.page(tags, match, afterId, limit, fields), Tool.class);
+		return fields.isAll() ? page : page.stream().map(fields::project).collect(Collectors.toList());
+	}
+
+	@Override
+	public Optional<Tool> findFields(String id, ToolFields fields) {
+		return Optional.ofNullable(this.mongoTemplate.findOne(fields.applyTo(ToolQueries.byId(id)), Tool.class))
+			.map(fields::project);
+	}
+
+	@Override
+	public Stream<Tool> streamAll() {
+		Query query = new Query().cursorBatchSize(STREAM_BATCH_SIZE);
+		return StreamUtils.createStreamFromIterator(this.mongoTemplate.stream(query, Tool.class));
+	}
+
+	@Override
+	public List<Tool> search(String text, int skip, int limit) {
+		return this.mongoTemplate.find(ToolQueries.search(text, skip, limit), Tool.class);
+	}
+
+	@Override
+	public Stream<Tool> streamTags() {
+		Query query = new Query().cursorBatchSize(STREAM_BATCH_SIZE);
+		query.fields().include("tags");
+		return StreamUtils.createStreamFromIterator(this.mongoTemplate.stream(query, Tool.class));
+	}
+
+	@Override
+	public Map<Integer, String> insertUnordered(List<Tool> tools) {
+		BulkOperations operations = this.mongoTemplate.bulkOps(BulkMode.UNORDERED, Tool.class);
+		for (Tool tool : tools) {
+			// bulk inserts don't initialize the version the way insert does
+			if (tool.getVersion() == null) {
+				tool.setVersion(0L);
+			}
+			operations.insert(tool);
+		}
+		Map<Integer, String> errors = new HashMap<>();
+		try {
+			operations.execute();
+		} catch (BulkOperationException e) {
+			for (BulkWriteError error : e.getErrors()) {
+				errors.put(error.getIndex(), error.getMessage());
+			}
+		}
+		return errors;
+	}
+
+	@Override
+	public BulkUpsertResult upsertAll(List<Tool> tools) {
+		BulkOperations operations = this.mongoTemplate.bulkOps(BulkMode.UNORDERED, Tool.class);
+		for (Tool tool : tools) {
+			Update update = new Update()
+				.set("title", tool.getTitle())
+				.set("link", tool.getLink())
+				.set("description", tool.getDescription())
+				.set("tags", tool.getTags())
+				.set(ToolQueries.CHANGE_SEQ, tool.getChangeSeq())
+				.setOnInsert("createdSeq", tool.getCreatedSeq())
+				.inc("version", 1)
+				.currentDate("lastModified");
+			operations.upsert(ToolQueries.byId(tool.getId()), update);
+		}
+		Map<Integer, String> errors = new HashMap<>();
+		BulkWriteResult result;
+		try {
+			result = operations.execute();
+		} catch (BulkOperationException e) {
+			for (BulkWriteError error : e.getErrors()) {
+				errors.put(error.getIndex(), error.getMessage());
+			}
+			result = e.getResult();
+		}
+		Set<Integer> inserted = new HashSet<>();
+		for (BulkWriteUpsert upsert : result.getUpserts()) {
+			inserted.add(upsert.getIndex());
+		}
+		return new BulkUpsertResult(inserted, errors);
+	}
+
+	@Override
+	public Optional<Tool> patch(String id, ToolPatchDto patch, long changeSeq) {
+		Tool tool = this.mongoTemplate.findAndModify(ToolQueries.byId(id), ToolQueries.patch(patch, changeSeq),
+				FindAndModifyOptions.options().returnNew(true), Tool.class);
+		return Optional.ofNullable(tool);
+	}
+
+	@Override
+	public boolean removeById(String id) {
+		return this.mongoTemplate.remove(ToolQueries.byId(id), Tool.class).getDeletedCount() > 0;
+	}
+
+	@Override
+	public long removeAllById(Collection<String> ids) {
+		return this.mongoTemplate.remove(ToolQueries.byIds(ids), Tool.class).getDeletedCount();
+	}
+
+	@Override
+	public List<String> findIdsByTag(String tag, String afterId, int limit) {
+		return this.findIds(ToolQueries.page(List.of(tag), TagMatch.ALL, afterId, limit, ToolFields.ALL));
+	}
+
+	@Override
+	public long removeTagged(Collection<String> ids, String tag) {
+		return this.mongoTemplate.remove(ToolQueries.byIdsAndTag(ids, tag), Tool.class).getDeletedCount();
+	}
+
+	@Override
+	public Map<String, Integer> countByTag() {
+		// grouping by id and tag first counts a tag repeated in one tool once
+		Aggregation aggregation = Aggregation.newAggregation(
+				Aggregation.unwind("tags"),
+				Aggregation.group("_id", "tags"),
+				Aggregation.group("tags").count().as("count"));
+		Map<String, Integer> counts = new HashMap<>();
+		for (Document count : this.mongoTemplate.aggregate(aggregation, Tool.class, Document.class)) {
+			counts.put(count.getString("_id"), count.getInteger("count"));
+		}
+		return counts;
+	}
+
+	@Override
+	public long allocateChangeSeqs(int count) {
+		Document counter = this.mongoTemplate.findAndModify(ToolQueries.changeSeqCounter(),
+				ToolQueries.allocateChangeSeqs(count), FindAndModifyOptions.options().upsert(true).returnNew(true),
+				Document.class, ToolQueries.COUNTERS_COLLECTION);
+		return ToolQueries.changeSeqOf(counter);
+	}
+
+	@Override
+	public boolean claimStore(String node, Duration ttl) {
+		Instant now = Instant.now();
+		try {
+			this.mongoTemplate.upsert(ToolQueries.claimableBy(node, now), ToolQueries.claim(node, now.plus(ttl)),
+					ToolQueries.COUNTERS_COLLECTION);
+			return true;
+		} catch (DuplicateKeyException e) {
+			return false;
+		}
+	}
+
+	@Override
+	public void releaseStore(String node) {
+		this.mongoTemplate.remove(ToolQueries.claimOf(node), ToolQueries.COUNTERS_COLLECTION);
+	}
+
+	@Override
+	public void saveTombstones(List<String> ids, long firstSeq) {
+		BulkOperations operations = this.mongoTemplate.bulkOps(BulkMode.UNORDERED,
+				ToolQueries.TOMBSTONES_COLLECTION);
+		for (int i = 0; i < ids.size(); i++) {
+			Update update = new Update().set(ToolQueries.CHANGE_SEQ, firstSeq + i).currentDate("deletedAt");
+			operations.upsert(Query.query(Criteria.where("_id").is(ids.get(i))), update);
+		}
+		operations.execute();
+	}
+
+	@Override
+	public List<ToolChange> findChanges(long after, long upTo, int limit) {
+		Query range = ToolQueries.changes(after, upTo, limit);
+		List<Tool> written = this.mongoTemplate.find(range, Tool.class);
+		List<Document> deleted = this.mongoTemplate.find(range, Document.class, ToolQueries.TOMBSTONES_COLLECTION);
+		Map<String, Tool> kept = this.kept(deleted);
+		// both are in change order, so a merge of the two keeps it
+		List<ToolChange> changes = new ArrayList<>(Math.min(limit, written.size() + deleted.size()));
+		int w = 0;
+		int d = 0;
+		while (changes.size() < limit && (w < written.size() || d < deleted.size())) {
+			long deletedSeq = d < deleted.size() ? ToolQueries.changeSeqOf(deleted.get(d)) : Long.MAX_VALUE;
+			if (w < written.size() && written.get(w).getChangeSeq() < deletedSeq) {
+				Tool tool = written.get(w++);
+				changes.add(new ToolChange(tool.getChangeSeq(), tool.getId(), tool));
+			} else {
+				String id = deleted.get(d++).getString("_id");
+				changes.add(new ToolChange(deletedSeq, id, kept.get(id)));
+			}
+		}
+		return changes;
+	}
+
+	/**
+	 * Tools that are still there, written before their tombstone. A tool that
+	 * lost the tag while {@link #removeTagged(Collection, String)} ran wasn't deleted, so
+	 * it is reported with its current state instead.
+	 */
+	private Map<String, Tool> kept(List<Document> tombstones) {
+		Map<String, Tool> kept = new HashMap<>();
+		if (tombstones.isEmpty()) {
+			return kept;
+		}
+		Map<String, Long> deletedSeqs = new HashMap<>();
+		for (Document tombstone : tombstones) {
+			deletedSeqs.put(tombstone.getString("_id"), ToolQueries.changeSeqOf(tombstone));
+		}
+		for (Tool tool : this.mongoTemplate.find(ToolQueries.byIds(deletedSeqs.keySet()), Tool.class)) {
+			if (tool.getChangeSeq() == null || tool.getChangeSeq() < deletedSeqs.get(tool.getId())) {
+				kept.put(tool.getId(), tool);
+			}
+		}
+		return kept;
+	}
+
+	@Override
+	public List<String> findUnsequencedIds(int limit) {
+		return this.findIds(ToolQueries.unsequenced(limit));
+	}
+
+	@Override
+	public void stampUnsequenced(List<String> ids, long firstSeq) {
+		BulkOperations operations = this.mongoTemplate.bulkOps(BulkMode.UNORDERED, Tool.class);
+		for (int i = 0; i < ids.size(); i++) {
+			operations.updateOne(ToolQueries.unsequenced(ids.get(i)),
+					new Update().set(ToolQueries.CHANGE_SEQ, firstSeq + i));
+		}
+		operations.execute();
+	}
+
+	private List<String> findIds(Query query) {
+		query.fields().include("id");
+		List<String> ids = new ArrayList<>();
+		for (Tool tool : this.mongoTemplate.find(query, Tool.class)) {
+			ids.add(tool.getId());
+		}
+		return ids;
+	}
+
+}
@@ -0,0 +1,458 @@
+package com.pardini.vuttr.domain.repositories.memory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.annotation.PreDestroy;
+
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Repository;
+import org.springframework.util.unit.DataSize;
+
+import com.pardini.vuttr.domain.dtos.ToolPatchDto;
+import com.pardini.vuttr.domain.model.Tool;
+import com.pardini.vuttr.domain.repositories.BulkUpsertResult;
+import com.pardini.vuttr.domain.repositories.TagMatch;
+import com.pardini.vuttr.domain.repositories.ToolChange;
+import com.pardini.vuttr.domain.repositories.ToolFields;
+import com.pardini.vuttr.domain.repositories.ToolRepository;
+
+/**
+ * {@link ToolRepository} backed by a {@link MemoryToolStore} instead of
+ * MongoDB, enabled with the {@code memory} profile. Tools are copied in and
+ * out, so callers can't change stored state.
+ * <p>
+ * Versions, modification dates and write conflicts follow what MongoDB does
+ * for the same calls. Text search scores title matches three times higher
+ * than description matches, like the text index, without stemming.
+ */
+@Repository
+@Profile("memory")
+public class MemoryToolRepository implements ToolRepository {
+
+	private static final Logger log = LoggerFactory.getLogger(MemoryToolRepository.class);
+
+	private final MemoryToolStore store;
+
+	/** How long deletions are kept for {@link #findChanges(long, long, int)}. */
+	private final Duration tombstoneRetention;
+
+	public MemoryToolRepository(@Value("${vuttr.memory.directory:data}") Path directory,
+			@Value("${vuttr.memory.log-chunk-size:16MB}") DataSize logChunkSize,
+			@Value("${vuttr.memory.fsync:false}") boolean fsync,
+			@Value("${vuttr.changes.tombstone-retention:30d}") Duration tombstoneRetention) throws IOException {
+		this.store = MemoryToolStore.open(directory, Math.toIntExact(logChunkSize.toBytes()), fsync);
+		this.tombstoneRetention = tombstoneRetention;
+	}
+
+	/**
+	 * Compacts the log into a snapshot, leaving out deletions older than
+	 * {@code vuttr.changes.tombstone-retention}.
+	 */
+	@Scheduled(initialDelayString = "${vuttr.memory.snapshot-interval:PT5M}",
+			fixedDelayString = "${vuttr.memory.snapshot-interval:PT5M}")
+	public void snapshot() {
+		try {
+			this.store.snapshot(Instant.now().minus(this.tombstoneRetention));
+		} catch (IOException e) {
+			log.warn("Could not write a snapshot of the tools, the log keeps growing", e);
+		}
+	}
+
+	@PreDestroy
+	public void close() throws IOException {
+		this.store.close();
+	}
+
+	@Override
+	public <S extends Tool> S save(S entity) {
+		return this.write(entity, false);
+	}
+
+	@Override
+	public <S extends Tool> List<S> insert(Iterable<S> entities) {
+		List<S> inserted = new ArrayList<>();
+		entities.forEach(entity -> inserted.add(this.write(entity, true)));
+		return inserted;
+	}
+
+	@Override
+	public Optional<Tool> findById(String id) {
+		return Optional.ofNullable(copy(this.store.get(id)));
+	}
+
+	@Override
+	public List<Tool> findAllById(Iterable<String> ids) {
+		List<Tool> found = new ArrayList<>();
+		for (String id : ids) {
+			Tool tool = this.store.get(id);
+			if (tool != null) {
+				found.add(copy(tool));
+			}
+		}
+		return found;
+	}
+
+	@Override
+	public List<Tool> findPage(List<String> tags, TagMatch match, String afterId, int limit, ToolFields fields) {
+		NavigableSet<String> ids;
+		if (tags == null || tags.isEmpty()) {
+			ids = this.store.tools().navigableKeySet();
+		} else if (tags.size() == 1 || match != TagMatch.ANY) {
+			ids = this.smallestPosting(tags);
+		} else {
+			ids = this.firstOfAny(tags, afterId, limit);
+		}
+		List<Tool> page = new ArrayList<>(limit);
+		for (String id : after(ids, afterId)) {
+			if (page.size() == limit) {
+				break;
+			}
+			Tool tool = this.store.get(id);
+			if (tool != null && (tags == null || tags.isEmpty() || match == TagMatch.ANY
+					|| tool.getTags().containsAll(tags))) {
+				page.add(fields.project(copy(tool)));
+			}
+		}
+		return page;
+	}
+
+	@Override
+	public Optional<Tool> findFields(String id, ToolFields fields) {
+		return this.findById(id).map(fields::project);
+	}
+
+	@Override
+	public Stream<Tool> streamAll() {
+		return this.store.tools().values().stream().map(MemoryToolRepository::copy);
+	}
+
+	@Override
+	public List<Tool> search(String text, int skip, int limit) {
+		Set<String> terms = terms(text).collect(Collectors.toSet());
+		Map<Tool, Integer> scores = new HashMap<>();
+		for (Tool tool : this.store.tools().values()) {
+			int score = 3 * matches(tool.getTitle(), terms) + matches(tool.getDescription(), terms);
+			if (score > 0) {
+				scores.put(tool, score);
+			}
+		}
+		return scores.entrySet().stream()
+			.sorted(Map.Entry.<Tool, Integer>comparingByValue().reversed()
+				.thenComparing(entry -> entry.getKey().getId()))
+			.skip(skip)
+			.limit(limit)
+			.map(entry -> copy(entry.getKey()))
+			.collect(Collectors.toList());
+	}
+
+	@Override
+	public Stream<Tool> streamTags() {
+		return this.store.tools().values().stream().map(tool -> {
+			Tool tags = new Tool(tool.getId(), null, null, null, copyOf(tool.getTags()));
+			tags.setVersion(tool.getVersion());
+			return tags;
+		});
+	}
+
+	@Override
+	public Map<Integer, String> insertUnordered(List<Tool> tools) {
+		Map<Integer, String> errors = new HashMap<>();
+		for (int i = 0; i < tools.size(); i++) {
+			Tool tool = tools.get(i);
+			try {
+				Tool saved = this.write(tool, true);
+				tool.setVersion(saved.getVersion());
+				tool.setLastModified(saved.getLastModified());
+			} catch (RuntimeException e) {
+				errors.put(i, e.getMessage());
+			}
+		}
+		return errors;
+	}
+
+	@Override
+	public BulkUpsertResult upsertAll(List<Tool> tools) {
+		Set<Integer> inserted = new HashSet<>();
+		Map<Integer, String> errors = new HashMap<>();
+		for (int i = 0; i < tools.size(); i++) {
+			Tool tool = tools.get(i);
+			boolean[] created = { false };
+			try {
+				this.store.update(tool.getId(), current -> {
+					created[0] = current == null;
+					Tool upserted = stored(tool.getId(), tool.getTitle(), tool.getLink(), tool.getDescription(),
+							tool.getTags(), current == null ? null : current.getVersion(), tool.getChangeSeq());
+					upserted.setCreatedSeq(current == null ? tool.getCreatedSeq() : current.getCreatedSeq());
+					return upserted;
+				});
+			} catch (RuntimeException e) {
+				errors.put(i, e.getMessage());
+				continue;
+			}
+			if (created[0]) {
+				inserted.add(i);
+			}
+		}
+		return new BulkUpsertResult(inserted, errors);
+	}
+
+	@Override
+	public Optional<Tool> patch(String id, ToolPatchDto patch, long changeSeq) {
+		Tool patched = this.store.update(id, current -> {
+			if (current == null) {
+				return null;
+			}
+			List<String> tags = copyOf(patch.getTags() != null ? patch.getTags() : current.getTags());
+			if (patch.getAddTags() != null) {
+				tags = tags == null ? new ArrayList<>() : tags;
+				for (String tag : patch.getAddTags()) {
+					if (!tags.contains(tag)) {
+						tags.add(tag);
+					}
+				}
+			}
+			if (patch.getRemoveTags() != null && tags != null) {
+				tags.removeAll(patch.getRemoveTags());
+			}
+			Tool tool = stored(id, patch.getTitle() != null ? patch.getTitle() : current.getTitle(),
+					patch.getLink() != null ? patch.getLink() : current.getLink(),
+					patch.getDescription() != null ? patch.getDescription() : current.getDescription(), tags,
+					current.getVersion(), changeSeq);
+			tool.setCreatedSeq(current.getCreatedSeq());
+			return tool;
+		});
+		return Optional.ofNullable(copy(patched));
+	}
+
+	@Override
+	public boolean removeById(String id) {
+		return this.store.remove(id);
+	}
+
+	@Override
+	public long removeAllById(Collection<String> ids) {
+		return new HashSet<>(ids).stream().filter(this.store::remove).count();
+	}
+
+	@Override
+	public List<String> findIdsByTag(String tag, String afterId, int limit) {
+		NavigableSet<String> ids = this.store.idsByTag(tag);
+		return (afterId == null ? ids : ids.tailSet(afterId, false)).stream()
+			.limit(limit)
+			.collect(Collectors.toList());
+	}
+
+	@Override
+	public long removeTagged(Collection<String> ids, String tag) {
+		long removed = 0;
+		for (String id : new HashSet<>(ids)) {
+			boolean[] carried = { false };
+			this.store.update(id, current -> {
+				if (current == null || !current.getTags().contains(tag)) {
+					return current;
+				}
+				carried[0] = true;
+				return null;
+			});
+			if (carried[0]) {
+				removed++;
+			}
+		}
+		return removed;
+	}
+
+	@Override
+	public Map<String, Integer> countByTag() {
+		return this.store.countByTag();
+	}
+
+	@Override
+	public long allocateChangeSeqs(int count) {
+		return this.store.allocateChangeSeqs(count);
+	}
+
+	/**
+	 * The store lives in this process, no other node can write to it.
+	 */
+	@Override
+	public boolean claimStore(String node, Duration ttl) {
+		return true;
+	}
+
+	@Override
+	public void releaseStore(String node) {
+	}
+
+	@Override
+	public void saveTombstones(List<String> ids, long firstSeq) {
+		for (int i = 0; i < ids.size(); i++) {
+			this.store.tombstone(ids.get(i), firstSeq + i);
+		}
+	}
+
+	@Override
+	public List<ToolChange> findChanges(long after, long upTo, int limit) {
+		List<ToolChange> changes = new ArrayList<>();
+		for (Map.Entry<Long, String> change : this.store.changes(after, upTo).entrySet()) {
+			if (changes.size() == limit) {
+				break;
+			}
+			long seq = change.getKey();
+			String id = change.getValue();
+			// an id written again since is found again at its new number
+			Tool tool = this.store.get(id);
+			if (tool != null && tool.getChangeSeq() != null && tool.getChangeSeq() == seq) {
+				changes.add(new ToolChange(seq, id, copy(tool)));
+			} else if (Long.valueOf(seq).equals(this.store.tombstoneOf(id))) {
+				boolean kept = tool != null && (tool.getChangeSeq() == null || tool.getChangeSeq() < seq);
+				changes.add(new ToolChange(seq, id, kept ? copy(tool) : null));
+			}
+		}
+		return changes;
+	}
+
+	@Override
+	public List<String> findUnsequencedIds(int limit) {
+		return this.store.tools().values().stream()
+			.filter(tool -> tool.getChangeSeq() == null)
+			.limit(limit)
+			.map(Tool::getId)
+			.collect(Collectors.toList());
+	}
+
+	@Override
+	public void stampUnsequenced(List<String> ids, long firstSeq) {
+		for (int i = 0; i < ids.size(); i++) {
+			long changeSeq = firstSeq + i;
+			this.store.update(ids.get(i), current -> {
+				if (current == null || current.getChangeSeq() != null) {
+					return current;
+				}
+				Tool stamped = copy(current);
+				stamped.setChangeSeq(changeSeq);
+				return stamped;
+			});
+		}
+	}
+
+	/**
+	 * Inserts a tool without a version, or replaces one whose version matches
+	 * the stored one, the way Spring Data saves a versioned entity.
+	 */
+	@SuppressWarnings("unchecked")
+	private <S extends Tool> S write(S entity, boolean insertOnly) {
+		String id = entity.getId() != null ? entity.getId() : new ObjectId().toHexString();
+		Tool saved = this.store.update(id, current -> {
+			if (entity.getVersion() == null || insertOnly) {
+				if (current != null) {
+					throw new DuplicateKeyException("Tool " + id + " already exists");
+				}
+				Tool tool = stored(id, entity.getTitle(), entity.getLink(), entity.getDescription(),
+						entity.getTags(), null, entity.getChangeSeq());
+				tool.setVersion(0L);
+				tool.setCreatedSeq(entity.getCreatedSeq());
+				return tool;
+			}
+			if (current == null || !entity.getVersion().equals(current.getVersion())) {
+				throw new OptimisticLockingFailureException("Tool " + id + " was modified concurrently");
+			}
+			Tool tool = stored(id, entity.getTitle(), entity.getLink(), entity.getDescription(), entity.getTags(),
+					current.getVersion(), entity.getChangeSeq());
+			tool.setCreatedSeq(current.getCreatedSeq());
+			return tool;
+		});
+		return (S) copy(saved);
+	}
+
+	/**
+	 * New state of a tool, one version after {@code previousVersion}.
+	 */
+	private static Tool stored(String id, String title, String link, String description, List<String> tags,
+			Long previousVersion, Long changeSeq) {
+		Tool tool = new Tool(id, title, link, description, copyOf(tags));
+		tool.setVersion(previousVersion == null ? 1 : previousVersion + 1);
+		tool.setLastModified(Instant.now());
+		tool.setChangeSeq(changeSeq);
+		return tool;
+	}
+
+	private static Tool copy(Tool tool) {
+		if (tool == null) {
+			return null;
+		}
+		Tool copy = new Tool(tool.getId(), tool.getTitle(), tool.getLink(), tool.getDescription(),
+				copyOf(tool.getTags()));
+		copy.setVersion(tool.getVersion());
+		copy.setLastModified(tool.getLastModified());
+		copy.setChangeSeq(tool.getChangeSeq());
+		copy.setCreatedSeq(tool.getCreatedSeq());
+		return copy;
+	}
+
+	private static List<String> copyOf(List<String> tags) {
+		return tags == null ? null : new ArrayList<>(tags);
+	}
+
+	/**
+	 * Posting of the least used tag: every tool carrying all the tags is in it.
+	 */
+	private NavigableSet<String> smallestPosting(List<String> tags) {
+		NavigableSet<String> smallest = null;
+		for (String tag : tags) {
+			NavigableSet<String> ids = this.store.idsByTag(tag);
+			if (smallest == null || ids.size() < smallest.size()) {
+				smallest = ids;
+			}
+		}
+		return smallest;
+	}
+
+	/**
+	 * The first {@code limit} ids after {@code afterId} carrying any of the
+	 * tags, which are among the first {@code limit} of each tag.
+	 */
+	private NavigableSet<String> firstOfAny(List<String> tags, String afterId, int limit) {
+		TreeSet<String> ids = new TreeSet<>();
+		for (String tag : tags) {
+			after(this.store.idsByTag(tag), afterId).stream().limit(limit).forEach(ids::add);
+		}
+		return ids;
+	}
+
+	private static NavigableSet<String> after(NavigableSet<String> ids, String afterId) {
+		return afterId == null ? ids : ids.tailSet(afterId, false);
+	}
+
+	private static Stream<String> terms(String text) {
+		return text == null ? Stream.empty()
+				: Stream.of(text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")).filter(term -> !term.isEmpty());
+	}
+
+	private static int matches(String text, Set<String> terms) {
+		return (int) terms(text).filter(terms::contains).count();
+	}
+
+}
@@ -0,0 +1,442 @@
+package com.pardini.vuttr.domain.repositories.memory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.pardini.vuttr.domain.model.Tool;
+
+/**
+ * Tools kept in memory, ordered by id, with a set of ids per tag. Every write
+ * is appended to a {@link ToolLog} before it is applied, and the log is
+ * periodically compacted into a snapshot.
+ * <p>
+ * Files are numbered by generation: {@code tools-N.snapshot} holds the state
+ * at the start of {@code tools-N.log}. Opening the store loads the newest
+ * complete snapshot and replays the logs from its generation on.
+ * <p>
+ * Writes to the same id are serialized on one of a fixed set of lock stripes,
+ * writes to different ids run concurrently. Stored tools are never modified,
+ * only replaced, so readers need no lock.
+ */
+final class MemoryToolStore implements Closeable {
+
+	private static final Logger log = LoggerFactory.getLogger(MemoryToolStore.class);
+
+	private static final Pattern FILE_NAME = Pattern.compile("tools-(\\d+)\\.(log|snapshot)");
+
+	private static final int STRIPES = 64;
+
+	private final ConcurrentSkipListMap<String, Tool> tools = new ConcurrentSkipListMap<>();
+
+	private final Map<String, NavigableSet<String>> idsByTag = new ConcurrentHashMap<>();
+
+	/** Id written or deleted at each change number still current. */
+	private final ConcurrentSkipListMap<Long, String> changes = new ConcurrentSkipListMap<>();
+
+	/** Deletion of each deleted id still kept. */
+	private final Map<String, Tombstone> tombstones = new ConcurrentHashMap<>();
+
+	/** Highest change number allocated. */
+	private final AtomicLong changeSeq = new AtomicLong();
+
+	private final Object[] stripes = new Object[STRIPES];
+
+	/** Held shared by writers and exclusively while the log is switched. */
+	private final ReentrantReadWriteLock logSwitch = new ReentrantReadWriteLock();
+
+	private final Path directory;
+
+	private final int chunkSize;
+
+	private final boolean fsync;
+
+	private ToolLog toolLog;
+
+	private long generation;
+
+	private MemoryToolStore(Path directory, int chunkSize, boolean fsync) {
+		this.directory = directory;
+		this.chunkSize = chunkSize;
+		this.fsync = fsync;
+		for (int i = 0; i < STRIPES; i++) {
+			this.stripes[i] = new Object();
+		}
+	}
+
+	/**
+	 * Opens the store kept in the directory, creating it if needed.
+	 */
+	static MemoryToolStore open(Path directory, int chunkSize, boolean fsync) throws IOException {
+		Files.createDirectories(directory);
+		MemoryToolStore store = new MemoryToolStore(directory, chunkSize, fsync);
+		store.load();
+		return store;
+	}
+
+	Tool get(String id) {
+		return this.tools.get(id);
+	}
+
+	/**
+	 * Read-only view of the tools by id.
+	 */
+	NavigableMap<String, Tool> tools() {
+		return Collections.unmodifiableNavigableMap(this.tools);
+	}
+
+	/**
+	 * Read-only view of the ids of the tools carrying the tag.
+	 */
+	NavigableSet<String> idsByTag(String tag) {
+		NavigableSet<String> ids = this.idsByTag.get(tag);
+		return ids == null ? Collections.emptyNavigableSet() : Collections.unmodifiableNavigableSet(ids);
+	}
+
+	Map<String, Integer> countByTag() {
+		Map<String, Integer> counts = new HashMap<>();
+		this.idsByTag.forEach((tag, ids) -> {
+			int count = ids.size();
+			if (count > 0) {
+				counts.put(tag, count);
+			}
+		});
+		return counts;
+	}
+
+	/**
+	 * Replaces the tool with the id by what the change returns for it, null if
+	 * it doesn't exist. Returning null deletes the tool; returning the argument
+	 * writes nothing. Returns the new state.
+	 */
+	Tool update(String id, UnaryOperator<Tool> change) {
+		return this.locked(id, () -> {
+			Tool current = this.tools.get(id);
+			Tool next = change.apply(current);
+			if (next != current) {
+				if (next == null) {
+					this.append(ToolRecords.remove(id));
+					this.forget(id);
+				} else {
+					this.append(ToolRecords.put(next));
+					this.apply(next);
+				}
+			}
+			return next;
+		});
+	}
+
+	/**
+	 * Deletes the tool, returning false if there was none with the id.
+	 */
+	boolean remove(String id) {
+		return this.locked(id, () -> {
+			if (!this.tools.containsKey(id)) {
+				return false;
+			}
+			this.append(ToolRecords.remove(id));
+			this.forget(id);
+			return true;
+		});
+	}
+
+	/**
+	 * Records the deletion of the id at the change number, replacing an
+	 * earlier tombstone.
+	 */
+	void tombstone(String id, long changeSeq) {
+		Tombstone tombstone = new Tombstone(changeSeq, Instant.now());
+		this.locked(id, () -> {
+			this.append(ToolRecords.tombstone(id, changeSeq, tombstone.deletedAt));
+			this.applyTombstone(id, tombstone);
+			return null;
+		});
+	}
+
+	/**
+	 * Read-only view of the ids written or deleted at each change number in
+	 * the range.
+	 */
+	NavigableMap<Long, String> changes(long after, long upTo) {
+		return Collections.unmodifiableNavigableMap(this.changes.subMap(after, false, upTo, true));
+	}
+
+	Long tombstoneOf(String id) {
+		Tombstone tombstone = this.tombstones.get(id);
+		return tombstone == null ? null : tombstone.changeSeq;
+	}
+
+	long allocateChangeSeqs(int count) {
+		if (count == 0) {
+			return this.changeSeq.get();
+		}
+		this.logSwitch.readLock().lock();
+		try {
+			long last = this.changeSeq.addAndGet(count);
+			this.append(ToolRecords.changeSeq(last));
+			return last;
+		} finally {
+			this.logSwitch.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Drops the tombstones of deletions before {@code tombstonesBefore}, then
+	 * writes a snapshot of the current state and drops the files it replaces.
+	 * Writers are only held while the log is switched, not while the
+	 * snapshot is written. Writes nothing if nothing was written since the
+	 * last snapshot.
+	 */
+	synchronized void snapshot(Instant tombstonesBefore) throws IOException {
+		List<Tool> tools;
+		Map<String, Tombstone> tombstones;
+		long changeSeq;
+		long next;
+		this.logSwitch.writeLock().lock();
+		try {
+			this.prune(tombstonesBefore);
+			if (this.toolLog.size() == 0) {
+				return;
+			}
+			tools = new ArrayList<>(this.tools.values());
+			tombstones = new HashMap<>(this.tombstones);
+			changeSeq = this.changeSeq.get();
+			next = this.generation + 1;
+			ToolLog nextLog = ToolLog.open(this.file(next, "log"), this.chunkSize, this.fsync, null);
+			this.toolLog.close();
+			this.toolLog = nextLog;
+			this.generation = next;
+		} finally {
+			this.logSwitch.writeLock().unlock();
+		}
+		ToolSnapshots.write(this.file(next, "snapshot"), tools, tombstones, changeSeq);
+		this.deleteBefore(next);
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		this.logSwitch.writeLock().lock();
+		try {
+			this.toolLog.close();
+		} finally {
+			this.logSwitch.writeLock().unlock();
+		}
+	}
+
+	private void load() throws IOException {
+		NavigableMap<Long, Path> snapshots = new TreeMap<>();
+		NavigableMap<Long, Path> logs = new TreeMap<>();
+		try (Stream<Path> files = Files.list(this.directory)) {
+			files.forEach(file -> {
+				Matcher matcher = FILE_NAME.matcher(file.getFileName().toString());
+				if (matcher.matches()) {
+					(matcher.group(2).equals("log") ? logs : snapshots).put(Long.parseLong(matcher.group(1)), file);
+				}
+			});
+		}
+		ToolRecords.Visitor replay = new Replay();
+		for (Map.Entry<Long, Path> snapshot : snapshots.descendingMap().entrySet()) {
+			if (ToolSnapshots.read(snapshot.getValue(), replay)) {
+				this.generation = snapshot.getKey();
+				break;
+			}
+			log.warn("Ignoring incomplete snapshot {}", snapshot.getValue());
+			this.clear();
+		}
+		NavigableMap<Long, Path> pending = logs.tailMap(this.generation, true);
+		for (Map.Entry<Long, Path> entry : pending.entrySet()) {
+			ToolLog replayed = ToolLog.open(entry.getValue(), this.chunkSize, this.fsync, replay);
+			if (entry.getKey().equals(pending.lastKey())) {
+				this.toolLog = replayed;
+				this.generation = entry.getKey();
+			} else {
+				replayed.close();
+			}
+		}
+		if (this.toolLog == null) {
+			this.toolLog = ToolLog.open(this.file(this.generation, "log"), this.chunkSize, this.fsync, replay);
+		}
+		log.info("Loaded {} tools from {}", this.tools.size(), this.directory);
+	}
+
+	private void deleteBefore(long generation) throws IOException {
+		try (Stream<Path> files = Files.list(this.directory)) {
+			for (Path file : (Iterable<Path>) files::iterator) {
+				Matcher matcher = FILE_NAME.matcher(file.getFileName().toString());
+				if (matcher.matches() && Long.parseLong(matcher.group(1)) < generation) {
+					Files.deleteIfExists(file);
+				}
+			}
+		}
+	}
+
+	private Path file(long generation, String extension) {
+		return this.directory.resolve(String.format("tools-%010d.%s", generation, extension));
+	}
+
+	private <T> T locked(String id, Supplier<T> write) {
+		this.logSwitch.readLock().lock();
+		try {
+			synchronized (this.stripes[Math.floorMod(id.hashCode(), STRIPES)]) {
+				return write.get();
+			}
+		} finally {
+			this.logSwitch.readLock().unlock();
+		}
+	}
+
+	private void append(ByteBuffer record) {
+		try {
+			this.toolLog.append(record);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Could not append to the tool log", e);
+		}
+	}
+
+	private void apply(Tool tool) {
+		Tool previous = this.tools.put(tool.getId(), tool);
+		this.reindexChange(previous, tool.getChangeSeq(), tool.getId());
+		List<String> tags = tool.getTags() == null ? List.of() : tool.getTags();
+		if (previous != null && previous.getTags() != null) {
+			for (String tag : previous.getTags()) {
+				if (!tags.contains(tag)) {
+					this.unindex(tag, tool.getId());
+				}
+			}
+		}
+		for (String tag : tags) {
+			this.idsByTag.compute(tag, (key, ids) -> {
+				NavigableSet<String> updated = ids == null ? new ConcurrentSkipListSet<>() : ids;
+				updated.add(tool.getId());
+				return updated;
+			});
+		}
+	}
+
+	private void forget(String id) {
+		Tool previous = this.tools.remove(id);
+		this.reindexChange(previous, null, id);
+		if (previous != null && previous.getTags() != null) {
+			previous.getTags().forEach(tag -> this.unindex(tag, id));
+		}
+	}
+
+	private void applyTombstone(String id, Tombstone tombstone) {
+		Tombstone previous = this.tombstones.put(id, tombstone);
+		if (previous != null) {
+			this.changes.remove(previous.changeSeq, id);
+		}
+		this.changes.put(tombstone.changeSeq, id);
+		this.changeSeq.accumulateAndGet(tombstone.changeSeq, Math::max);
+	}
+
+	/**
+	 * Forgets deletions older than the change tokens still accepted. Only
+	 * called with writers held off.
+	 */
+	private void prune(Instant deletedBefore) {
+		this.tombstones.entrySet().removeIf(entry -> {
+			Tombstone tombstone = entry.getValue();
+			if (!tombstone.deletedAt.isBefore(deletedBefore)) {
+				return false;
+			}
+			this.changes.remove(tombstone.changeSeq, entry.getKey());
+			return true;
+		});
+	}
+
+	/**
+	 * Moves the id from the change number of its previous state to the new
+	 * one, null if it has none.
+	 */
+	private void reindexChange(Tool previous, Long changeSeq, String id) {
+		if (previous != null && previous.getChangeSeq() != null) {
+			this.changes.remove(previous.getChangeSeq(), id);
+		}
+		if (changeSeq != null) {
+			this.changes.put(changeSeq, id);
+			this.changeSeq.accumulateAndGet(changeSeq, Math::max);
+		}
+	}
+
+	private void unindex(String tag, String id) {
+		this.idsByTag.computeIfPresent(tag, (key, ids) -> {
+			ids.remove(id);
+			return ids.isEmpty() ? null : ids;
+		});
+	}
+
+	private void clear() {
+		this.tools.clear();
+		this.idsByTag.clear();
+		this.changes.clear();
+		this.tombstones.clear();
+		this.changeSeq.set(0);
+	}
+
+	/** Applies replayed records to memory only. */
+	private final class Replay implements ToolRecords.Visitor {
+
+		@Override
+		public void put(Tool tool) {
+			MemoryToolStore.this.apply(tool);
+		}
+
+		@Override
+		public void remove(String id) {
+			MemoryToolStore.this.forget(id);
+		}
+
+		@Override
+		public void changeSeq(long changeSeq) {
+			// allocations may be appended out of order, the highest one wins
+			MemoryToolStore.this.changeSeq.accumulateAndGet(changeSeq, Math::max);
+		}
+
+		@Override
+		public void tombstone(String id, long changeSeq, Instant deletedAt) {
+			MemoryToolStore.this.applyTombstone(id, new Tombstone(changeSeq, deletedAt));
+		}
+
+	}
+
+	/** Change number and time of a deletion. */
+	static final class Tombstone {
+
+		final long changeSeq;
+
+		final Instant deletedAt;
+
+		Tombstone(long changeSeq, Instant deletedAt) {
+			this.changeSeq = changeSeq;
+			this.deletedAt = deletedAt;
+		}
+
+	}
+
+}
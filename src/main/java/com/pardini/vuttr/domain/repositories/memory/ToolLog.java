@@ -0,0 +1,112 @@
+package com.pardini.vuttr.domain.repositories.memory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Append-only file of {@link ToolRecords}, written through a memory mapping.
+ * The file is mapped one chunk at a time, so an append is a copy into memory.
+ * <p>
+ * Mapped pages belong to the operating system, so appended records survive a
+ * crash of the process. With {@code fsync} every append is also forced to the
+ * device before it returns, to survive a crash of the machine.
+ */
+final class ToolLog implements Closeable {
+
+	/** Largest window mapped at once while replaying. */
+	private static final long REPLAY_WINDOW = 1L << 30;
+
+	private final FileChannel channel;
+
+	private final int chunkSize;
+
+	private final boolean fsync;
+
+	private MappedByteBuffer chunk;
+
+	private long position;
+
+	private ToolLog(FileChannel channel, int chunkSize, boolean fsync, long position) {
+		this.channel = channel;
+		this.chunkSize = chunkSize;
+		this.fsync = fsync;
+		this.position = position;
+	}
+
+	/**
+	 * Opens the log, creating it if needed, and replays its records. Appends
+	 * continue after the last valid record; anything after it is dropped.
+	 */
+	static ToolLog open(Path file, int chunkSize, boolean fsync, ToolRecords.Visitor visitor) throws IOException {
+		FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE);
+		try {
+			long end = replay(channel, visitor);
+			channel.truncate(end);
+			return new ToolLog(channel, chunkSize, fsync, end);
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Reads the records of a file and returns the offset following the last
+	 * valid one.
+	 */
+	static long replay(FileChannel channel, ToolRecords.Visitor visitor) throws IOException {
+		long size = channel.size();
+		long position = 0;
+		while (position < size) {
+			ByteBuffer window = channel.map(MapMode.READ_ONLY, position, Math.min(size - position, REPLAY_WINDOW));
+			while (ToolRecords.read(window, visitor)) {
+				// records are applied by the visitor
+			}
+			position += window.position();
+			// only a full window can end in the middle of a valid record
+			boolean cut = window.capacity() == REPLAY_WINDOW && window.position() > 0
+					&& (window.remaining() < ToolRecords.HEADER_SIZE || ToolRecords.sizeAt(window) > window.remaining());
+			if (!cut) {
+				break;
+			}
+		}
+		return position;
+	}
+
+	synchronized void append(ByteBuffer record) throws IOException {
+		if (this.chunk == null || this.chunk.remaining() < record.remaining()) {
+			this.chunk = this.channel.map(MapMode.READ_WRITE, this.position,
+					Math.max(this.chunkSize, record.remaining()));
+		}
+		this.position += record.remaining();
+		this.chunk.put(record);
+		if (this.fsync) {
+			this.chunk.force();
+		}
+	}
+
+	/**
+	 * Bytes of records in the log.
+	 */
+	synchronized long size() {
+		return this.position;
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		if (this.chunk != null) {
+			this.chunk.force();
+			this.chunk = null;
+		}
+		// the unused tail of the last chunk would otherwise stay in the file
+		this.channel.truncate(this.position);
+		this.channel.close();
+	}
+
+}
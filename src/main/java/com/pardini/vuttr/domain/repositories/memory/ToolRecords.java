@@ -0,0 +1,223 @@
+package com.pardini.vuttr.domain.repositories.memory;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import com.pardini.vuttr.domain.model.Tool;
+
+/**
+ * Binary records shared by the write-ahead log and the snapshots. A record is
+ * its body length, the CRC32 of the body and the body, whose first byte is the
+ * record type. A zero length or a checksum mismatch ends a file, so a record
+ * torn by a crash is dropped with everything after it.
+ */
+final class ToolRecords {
+
+	/** Length and checksum. */
+	static final int HEADER_SIZE = 8;
+
+	private static final byte PUT = 1;
+
+	private static final byte REMOVE = 2;
+
+	private static final byte COMMIT = 4;
+
+	private static final byte TOMBSTONE = 5;
+
+	private static final byte CHANGE_SEQ = 6;
+
+	private static final int NULL = -1;
+
+	/**
+	 * Receives the records of a file, in order.
+	 */
+	interface Visitor {
+
+		void put(Tool tool);
+
+		void remove(String id);
+
+		void changeSeq(long changeSeq);
+
+		void tombstone(String id, long changeSeq, Instant deletedAt);
+
+		default void commit() {
+		}
+
+	}
+
+	private ToolRecords() {
+	}
+
+	static ByteBuffer put(Tool tool) {
+		byte[][] strings = { bytes(tool.getId()), bytes(tool.getTitle()), bytes(tool.getLink()),
+				bytes(tool.getDescription()) };
+		List<String> tags = tool.getTags();
+		byte[][] tagBytes = new byte[tags == null ? 0 : tags.size()][];
+		for (int i = 0; i < tagBytes.length; i++) {
+			tagBytes[i] = bytes(tags.get(i));
+		}
+		int size = 1 + 4 + 8 + 8 + 4 + 8 + 8;
+		for (byte[] string : strings) {
+			size += sizeOf(string);
+		}
+		for (byte[] tag : tagBytes) {
+			size += sizeOf(tag);
+		}
+		ByteBuffer body = begin(size).put(PUT);
+		for (byte[] string : strings) {
+			putBytes(body, string);
+		}
+		body.putInt(tags == null ? NULL : tagBytes.length);
+		for (byte[] tag : tagBytes) {
+			putBytes(body, tag);
+		}
+		body.putLong(tool.getVersion() == null ? Long.MIN_VALUE : tool.getVersion());
+		Instant lastModified = tool.getLastModified();
+		body.putLong(lastModified == null ? Long.MIN_VALUE : lastModified.getEpochSecond());
+		body.putInt(lastModified == null ? 0 : lastModified.getNano());
+		body.putLong(tool.getChangeSeq() == null ? Long.MIN_VALUE : tool.getChangeSeq());
+		body.putLong(tool.getCreatedSeq() == null ? Long.MIN_VALUE : tool.getCreatedSeq());
+		return end(body);
+	}
+
+	static ByteBuffer remove(String id) {
+		byte[] bytes = bytes(id);
+		return end(putBytes(begin(1 + sizeOf(bytes)).put(REMOVE), bytes));
+	}
+
+	static ByteBuffer changeSeq(long changeSeq) {
+		return end(begin(1 + 8).put(CHANGE_SEQ).putLong(changeSeq));
+	}
+
+	static ByteBuffer tombstone(String id, long changeSeq, Instant deletedAt) {
+		byte[] bytes = bytes(id);
+		return end(putBytes(begin(1 + sizeOf(bytes) + 8 + 8 + 4).put(TOMBSTONE), bytes)
+			.putLong(changeSeq)
+			.putLong(deletedAt.getEpochSecond())
+			.putInt(deletedAt.getNano()));
+	}
+
+	static ByteBuffer commit() {
+		return end(begin(1).put(COMMIT));
+	}
+
+	/**
+	 * Reads the record at the position of the buffer and moves past it.
+	 * Returns false, leaving the position unchanged, at the end of the records
+	 * or if the buffer ends inside one.
+	 */
+	static boolean read(ByteBuffer buffer, Visitor visitor) {
+		if (buffer.remaining() < HEADER_SIZE) {
+			return false;
+		}
+		int start = buffer.position();
+		int length = buffer.getInt(start);
+		if (length <= 0 || length > buffer.remaining() - HEADER_SIZE) {
+			return false;
+		}
+		ByteBuffer body = buffer.duplicate();
+		body.position(start + HEADER_SIZE).limit(start + HEADER_SIZE + length);
+		CRC32 crc = new CRC32();
+		crc.update(body.duplicate());
+		if ((int) crc.getValue() != buffer.getInt(start + 4)) {
+			return false;
+		}
+		switch (body.get()) {
+		case PUT:
+			visitor.put(readTool(body));
+			break;
+		case REMOVE:
+			visitor.remove(getString(body));
+			break;
+		case COMMIT:
+			visitor.commit();
+			break;
+		case TOMBSTONE:
+			visitor.tombstone(getString(body), body.getLong(), Instant.ofEpochSecond(body.getLong(), body.getInt()));
+			break;
+		case CHANGE_SEQ:
+			visitor.changeSeq(body.getLong());
+			break;
+		default:
+			return false;
+		}
+		buffer.position(start + HEADER_SIZE + length);
+		return true;
+	}
+
+	/**
+	 * Size the record starting at the position of the buffer says it has,
+	 * header included, or 0 if the buffer is too short to tell.
+	 */
+	static int sizeAt(ByteBuffer buffer) {
+		return buffer.remaining() < HEADER_SIZE ? 0 : HEADER_SIZE + Math.max(buffer.getInt(buffer.position()), 0);
+	}
+
+	private static Tool readTool(ByteBuffer body) {
+		String id = getString(body);
+		String title = getString(body);
+		String link = getString(body);
+		String description = getString(body);
+		int tagCount = body.getInt();
+		List<String> tags = null;
+		if (tagCount != NULL) {
+			tags = new ArrayList<>(tagCount);
+			for (int i = 0; i < tagCount; i++) {
+				tags.add(getString(body));
+			}
+		}
+		Tool tool = new Tool(id, title, link, description, tags);
+		long version = body.getLong();
+		tool.setVersion(version == Long.MIN_VALUE ? null : version);
+		long seconds = body.getLong();
+		int nanos = body.getInt();
+		tool.setLastModified(seconds == Long.MIN_VALUE ? null : Instant.ofEpochSecond(seconds, nanos));
+		long changeSeq = body.getLong();
+		tool.setChangeSeq(changeSeq == Long.MIN_VALUE ? null : changeSeq);
+		long createdSeq = body.getLong();
+		tool.setCreatedSeq(createdSeq == Long.MIN_VALUE ? null : createdSeq);
+		return tool;
+	}
+
+	private static ByteBuffer begin(int bodySize) {
+		ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + bodySize);
+		buffer.position(HEADER_SIZE);
+		return buffer;
+	}
+
+	private static ByteBuffer end(ByteBuffer buffer) {
+		int length = buffer.position() - HEADER_SIZE;
+		CRC32 crc = new CRC32();
+		crc.update(buffer.array(), HEADER_SIZE, length);
+		buffer.putInt(0, length).putInt(4, (int) crc.getValue());
+		return buffer.flip();
+	}
+
+	private static byte[] bytes(String string) {
+		return string == null ? null : string.getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static int sizeOf(byte[] bytes) {
+		return 4 + (bytes == null ? 0 : bytes.length);
+	}
+
+	private static ByteBuffer putBytes(ByteBuffer buffer, byte[] bytes) {
+		return bytes == null ? buffer.putInt(NULL) : buffer.putInt(bytes.length).put(bytes);
+	}
+
+	private static String getString(ByteBuffer buffer) {
+		int length = buffer.getInt();
+		if (length == NULL) {
+			return null;
+		}
+		byte[] bytes = new byte[length];
+		buffer.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+}
@@ -0,0 +1,113 @@
+package com.pardini.vuttr.domain.repositories.memory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Map;
+
+import com.pardini.vuttr.domain.model.Tool;
+
+/**
+ * Compacted copies of the store: one record per tool, one per tombstone, the
+ * change sequence counter and a final commit record. A snapshot without its
+ * commit record was cut short and is ignored.
+ */
+final class ToolSnapshots {
+
+	private static final int WRITE_BUFFER_SIZE = 1 << 20;
+
+	private ToolSnapshots() {
+	}
+
+	/**
+	 * Writes the snapshot next to the target and moves it in place once it is
+	 * on the device, so the target is either the previous or the new snapshot.
+	 */
+	static void write(Path file, Collection<Tool> tools, Map<String, MemoryToolStore.Tombstone> tombstones,
+			long changeSeq) throws IOException {
+		Path partial = file.resolveSibling(file.getFileName() + ".partial");
+		try (FileChannel channel = FileChannel.open(partial, StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+			ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+			for (Tool tool : tools) {
+				write(channel, buffer, ToolRecords.put(tool));
+			}
+			for (Map.Entry<String, MemoryToolStore.Tombstone> tombstone : tombstones.entrySet()) {
+				write(channel, buffer, ToolRecords.tombstone(tombstone.getKey(), tombstone.getValue().changeSeq,
+						tombstone.getValue().deletedAt));
+			}
+			write(channel, buffer, ToolRecords.changeSeq(changeSeq));
+			write(channel, buffer, ToolRecords.commit());
+			flush(channel, buffer);
+			channel.force(true);
+		}
+		Files.move(partial, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	/**
+	 * Replays a snapshot. Returns false if it has no commit record, in which
+	 * case the visitor may have seen part of it.
+	 */
+	static boolean read(Path file, ToolRecords.Visitor visitor) throws IOException {
+		boolean[] committed = { false };
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			ToolLog.replay(channel, new ToolRecords.Visitor() {
+
+				@Override
+				public void put(Tool tool) {
+					visitor.put(tool);
+				}
+
+				@Override
+				public void remove(String id) {
+					visitor.remove(id);
+				}
+
+				@Override
+				public void changeSeq(long changeSeq) {
+					visitor.changeSeq(changeSeq);
+				}
+
+				@Override
+				public void tombstone(String id, long changeSeq, Instant deletedAt) {
+					visitor.tombstone(id, changeSeq, deletedAt);
+				}
+
+				@Override
+				public void commit() {
+					committed[0] = true;
+				}
+
+			});
+		}
+		return committed[0];
+	}
+
+	private static void write(FileChannel channel, ByteBuffer buffer, ByteBuffer record) throws IOException {
+		if (buffer.remaining() < record.remaining()) {
+			flush(channel, buffer);
+		}
+		if (buffer.remaining() < record.remaining()) {
+			while (record.hasRemaining()) {
+				channel.write(record);
+			}
+		} else {
+			buffer.put(record);
+		}
+	}
+
+	private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+}
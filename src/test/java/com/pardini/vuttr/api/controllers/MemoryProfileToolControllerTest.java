@@ -0,0 +1,11 @@
+package com.pardini.vuttr.api.controllers;
+
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * {@link ToolControllerTest} with the {@code memory} profile.
+ */
+@ActiveProfiles("memory")
+public class MemoryProfileToolControllerTest extends ToolControllerTest {
+
+}
@@ -0,0 +1,141 @@
+package com.pardini.vuttr.api.controllers;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.pardini.vuttr.api.exceptions.BadRequestException;
+import com.pardini.vuttr.api.exceptions.ResourceNotFoundException;
+import com.pardini.vuttr.api.services.ReactiveToolService;
+import com.pardini.vuttr.domain.dtos.PageDto;
+import com.pardini.vuttr.domain.dtos.ToolDto;
+import com.pardini.vuttr.domain.model.Tool;
+import com.pardini.vuttr.domain.repositories.TagMatch;
+import com.pardini.vuttr.domain.repositories.ToolFields;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@WebFluxTest(ReactiveToolController.class)
+public class ReactiveToolControllerTest {
+
+	@Autowired
+	private WebTestClient webTestClient;
+
+	@MockBean
+	private ReactiveToolService mockToolService;
+
+	@BeforeEach
+	public void setUp() {
+		when(mockToolService.getCollectionVersion()).thenReturn(Mono.just(1L));
+	}
+
+	@Test
+	public void shouldReturnATool_whenGetById() {
+		Tool mockTool = new Tool("abc123", "title", "link", "description", Arrays.asList("mock1", "mock2"));
+		when(mockToolService.getById("abc123", ToolFields.ALL)).thenReturn(Mono.just(mockTool));
+
+		webTestClient.get().uri("/tools/{id}", "abc123").exchange()
+			.expectStatus().isOk()
+			.expectBody(Tool.class).isEqualTo(mockTool);
+	}
+
+	@Test
+	public void shouldReturnNotFound_whenGetByIdIsEmpty() {
+		when(mockToolService.getById("missing", ToolFields.ALL))
+			.thenReturn(Mono.error(new ResourceNotFoundException("Tool not found")));
+
+		webTestClient.get().uri("/tools/{id}", "missing").exchange()
+			.expectStatus().isNotFound()
+			.expectBody().jsonPath("$.message").isEqualTo("Tool not found");
+	}
+
+	@Test
+	public void shouldReturnAPage_whenGetByTags() {
+		List<String> tags = Arrays.asList("node", "java");
+		Tool mockTool = new Tool("abc123", "title", "link", "description", tags);
+		when(mockToolService.getByTags(tags, TagMatch.ANY, null, 5, ToolFields.ALL))
+			.thenReturn(Mono.just(new PageDto<>(List.of(mockTool), "next")));
+
+		webTestClient.get().uri("/tools?tags=node,java&match=any&limit=5").exchange()
+			.expectStatus().isOk()
+			.expectBody()
+			.jsonPath("$.items[0].id").isEqualTo("abc123")
+			.jsonPath("$.next").isEqualTo("next");
+	}
+
+	@Test
+	public void shouldReturnNotModified_whenCollectionVersionMatches() {
+		webTestClient.get().uri("/tools").header("If-None-Match", "\"tools-1\"").exchange()
+			.expectStatus().isNotModified()
+			.expectHeader().valueEquals("Vary", "Accept")
+			.expectBody().isEmpty();
+		verify(mockToolService, never()).getAll(null, null, ToolFields.ALL);
+	}
+
+	@Test
+	public void shouldReturnBadRequest_whenServiceRejectsTheLimit() {
+		when(mockToolService.getAll(null, 0, ToolFields.ALL))
+			.thenReturn(Mono.error(new BadRequestException("Limit must be greater than zero")));
+
+		webTestClient.get().uri("/tools?limit=0").exchange()
+			.expectStatus().isBadRequest();
+	}
+
+	@Test
+	public void shouldReturnBadRequest_whenCreateIsInvalid() {
+		webTestClient.post().uri("/tools").contentType(MediaType.APPLICATION_JSON).bodyValue(new ToolDto())
+			.exchange()
+			.expectStatus().isBadRequest()
+			.expectBody().jsonPath("$.fieldErrors").isNotEmpty();
+	}
+
+	@Test
+	public void shouldReturnCreated_whenCreate() {
+		ToolDto dto = new ToolDto();
+		dto.setTitle("title");
+		dto.setLink("link");
+		dto.setDescription("description long enough");
+		dto.setTags(List.of("tag"));
+		Tool mockTool = new Tool("abc123", "title", "link", "description long enough", List.of("tag"));
+		when(mockToolService.save(any(ToolDto.class))).thenReturn(Mono.just(mockTool));
+
+		webTestClient.post().uri("/tools").contentType(MediaType.APPLICATION_JSON).bodyValue(dto).exchange()
+			.expectStatus().isCreated()
+			.expectBody().jsonPath("$.id").isEqualTo("abc123");
+	}
+
+	@Test
+	public void shouldStreamNdjson_whenExport() {
+		Tool first = new Tool("1", "first", "link", "description", List.of("a"));
+		Tool second = new Tool("2", "second", "link", "description", List.of("b"));
+		when(mockToolService.export()).thenReturn(Flux.just(first, second));
+
+		webTestClient.get().uri("/tools/export").accept(MediaType.APPLICATION_NDJSON).exchange()
+			.expectStatus().isOk()
+			.expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+			.expectBodyList(Tool.class).contains(first, second);
+	}
+
+	@Test
+	public void shouldReturnOk_whenDelete() {
+		when(mockToolService.delete("abc123")).thenReturn(Mono.empty());
+
+		webTestClient.delete().uri("/tools/{id}", "abc123").exchange()
+			.expectStatus().isOk();
+		verify(mockToolService).delete("abc123");
+	}
+
+}
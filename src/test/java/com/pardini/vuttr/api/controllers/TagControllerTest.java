@@ -0,0 +1,70 @@
+package com.pardini.vuttr.api.controllers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.pardini.vuttr.api.exceptions.ServiceUnavailableException;
+import com.pardini.vuttr.api.services.TagService;
+import com.pardini.vuttr.domain.dtos.TagCountDto;
+
+@WebMvcTest(TagController.class)
+public class TagControllerTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@MockBean
+	private TagService mockTagService;
+
+	@Test
+	public void shouldReturnFacetCounts_whenGetTagsWithTag() throws Exception {
+		when(mockTagService.getCounts("java")).thenReturn(
+				new ArrayList<>(Arrays.asList(new TagCountDto("java", 2), new TagCountDto("spring", 1))));
+
+		mockMvc.perform(get("/tags").param("with", "java"))
+			.andExpect(status().isOk())
+			.andExpect(result -> assertEquals("[{\"tag\":\"java\",\"count\":2},{\"tag\":\"spring\",\"count\":1}]",
+					result.getResponse().getContentAsString()))
+			;
+
+		verify(mockTagService, times(1)).getCounts("java");
+	}
+
+	@Test
+	public void shouldReturnSuggestions_whenGetSuggest() throws Exception {
+		when(mockTagService.suggest("no", 2)).thenReturn(
+				new ArrayList<>(Arrays.asList(new TagCountDto("node", 3), new TagCountDto("nosql", 2))));
+
+		mockMvc.perform(get("/tags/suggest").param("prefix", "no").param("limit", "2"))
+			.andExpect(status().isOk())
+			.andExpect(result -> assertEquals("[{\"tag\":\"node\",\"count\":3},{\"tag\":\"nosql\",\"count\":2}]",
+					result.getResponse().getContentAsString()))
+			;
+
+		verify(mockTagService, times(1)).suggest("no", 2);
+	}
+
+	@Test
+	public void shouldReturnServiceUnavailable_whenIndexIsLoading() throws Exception {
+		when(mockTagService.suggest("no", null)).thenThrow(ServiceUnavailableException.class);
+
+		mockMvc.perform(get("/tags/suggest").param("prefix", "no"))
+			.andExpect(status().isServiceUnavailable())
+			.andExpect(result -> assertTrue(result.getResolvedException() instanceof ServiceUnavailableException));
+	}
+
+}
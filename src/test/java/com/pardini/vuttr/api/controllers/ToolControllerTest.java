@@ -6,37 +6,75 @@ import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
 import org.junit.jupiter.api.Test;
+import org.msgpack.jackson.dataformat.MessagePackFactory;
+import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.json.AutoConfigureJsonTesters;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.pardini.vuttr.api.exceptions.BadRequestException;
+import com.pardini.vuttr.api.exceptions.GoneException;
 import com.pardini.vuttr.api.exceptions.ResourceNotFoundException;
+import com.pardini.vuttr.api.exceptions.TooManyRequestsException;
+import com.pardini.vuttr.api.services.CachedJson;
+import com.pardini.vuttr.api.services.ToolEventStream;
+import com.pardini.vuttr.api.services.ToolResponseCache;
 import com.pardini.vuttr.api.services.ToolService;
+import com.pardini.vuttr.config.BinaryFormatsConfig;
+import com.pardini.vuttr.domain.dtos.BatchItemResultDto;
+import com.pardini.vuttr.domain.dtos.BatchResultDto;
+import com.pardini.vuttr.domain.dtos.ChangesDto;
+import com.pardini.vuttr.domain.dtos.DeleteResultDto;
+import com.pardini.vuttr.domain.dtos.PageDto;
+import com.pardini.vuttr.domain.dtos.ToolBatchItemDto;
+import com.pardini.vuttr.domain.dtos.ToolChangeDto;
 import com.pardini.vuttr.domain.dtos.ToolDto;
+import com.pardini.vuttr.domain.dtos.ToolPatchDto;
+import com.pardini.vuttr.domain.model.ProjectedTool;
 import com.pardini.vuttr.domain.model.Tool;
+import com.pardini.vuttr.domain.repositories.TagMatch;
+import com.pardini.vuttr.domain.repositories.ToolFields;
 
 @AutoConfigureJsonTesters
 @WebMvcTest(ToolController.class)
+@Import(BinaryFormatsConfig.class)
 public class ToolControllerTest {
 
 	@Autowired
@@ -44,6 +82,12 @@ public class ToolControllerTest {
 
 	@MockBean
 	private ToolService mockToolService;
+
+	@MockBean
+	private ToolResponseCache mockResponseCache;
+
+	@MockBean
+	private ToolEventStream mockToolEvents;
 	
 	private static String asJsonString(final Object obj) {
 	    try {
@@ -62,26 +106,94 @@ public class ToolControllerTest {
 		
 		String expected = asJsonString(mockTool);
 		
-		when(mockToolService.getById(mockId)).thenReturn(mockTool);
+		when(mockToolService.getById(mockId, ToolFields.ALL)).thenReturn(mockTool);
 
 		mockMvc.perform(get("/tools/{id}", mockId))
 			.andExpect(status().isOk())
 			.andExpect(result-> assertEquals(expected, result.getResponse().getContentAsString()));
 
-		verify(mockToolService, times(1)).getById(mockId);
+		verify(mockToolService, times(1)).getById(mockId, ToolFields.ALL);
 	}
 	
 	@Test
 	public void shouldThrowResourceNotFoundException_whenSearchedToolDoesNotExist() throws Exception {
-		when(mockToolService.getById("abc123")).thenThrow(ResourceNotFoundException.class);
+		when(mockToolService.getById("abc123", ToolFields.ALL)).thenThrow(ResourceNotFoundException.class);
 		
 		mockMvc.perform(get("/tools/{id}", "abc123"))
 			.andExpect(status().isNotFound())
 			.andExpect(result -> assertTrue(result.getResolvedException() instanceof ResourceNotFoundException));
 		
-		verify(mockToolService, times(1)).getById("abc123");
+		verify(mockToolService, times(1)).getById("abc123", ToolFields.ALL);
 	}
 	
+	@Test
+	public void shouldReturnVersionHeaders_whenGetById() throws Exception {
+		Tool mockTool = new Tool("abc123", "title", "link", "description", Arrays.asList("mock1"));
+		mockTool.setVersion(3L);
+		mockTool.setLastModified(Instant.parse("2022-03-01T10:15:30Z"));
+		when(mockToolService.getById("abc123", ToolFields.ALL)).thenReturn(mockTool);
+
+		mockMvc.perform(get("/tools/{id}", "abc123"))
+			.andExpect(status().isOk())
+			.andExpect(header().string("ETag", "W/\"3\""))
+			.andExpect(header().string("Vary", "Accept"))
+			.andExpect(header().string("Last-Modified", "Tue, 01 Mar 2022 10:15:30 GMT"));
+	}
+
+	@Test
+	public void shouldReturnNotModified_whenToolVersionMatches() throws Exception {
+		Tool mockTool = new Tool("abc123", "title", "link", "description", Arrays.asList("mock1"));
+		mockTool.setVersion(3L);
+		when(mockToolService.getById("abc123", ToolFields.ALL)).thenReturn(mockTool);
+
+		mockMvc.perform(get("/tools/{id}", "abc123").header("If-None-Match", "\"3\""))
+			.andExpect(status().isNotModified())
+			.andExpect(content().string(""));
+	}
+
+	@Test
+	public void shouldReturnNotModified_withoutReadingThePage_whenCollectionVersionMatches() throws Exception {
+		when(mockToolService.getCollectionVersion()).thenReturn(7L);
+
+		mockMvc.perform(get("/tools").header("If-None-Match", "\"tools-7\""))
+			.andExpect(status().isNotModified())
+			.andExpect(header().string("ETag", "W/\"tools-7\""))
+			.andExpect(header().string("Vary", "Accept"));
+
+		verify(mockToolService, never()).getAll(null, null, ToolFields.ALL);
+	}
+
+	@Test
+	public void shouldReturnCollectionETag_whenCollectionChanged() throws Exception {
+		when(mockToolService.getCollectionVersion()).thenReturn(8L);
+		when(mockToolService.getAll(null, null, ToolFields.ALL)).thenReturn(new PageDto<>(new ArrayList<>(), null));
+
+		mockMvc.perform(get("/tools").header("If-None-Match", "\"tools-7\""))
+			.andExpect(status().isOk())
+			.andExpect(header().string("ETag", "W/\"tools-8\""))
+			.andExpect(header().string("Vary", "Accept"));
+	}
+
+	@Test
+	public void shouldSelectFieldsAndTagTheRepresentation_whenFieldsRequested() throws Exception {
+		ToolFields fields = ToolFields.parse(Arrays.asList("title", "tags"));
+		Tool projected = new ProjectedTool("a", "a", null, null, Arrays.asList("a"));
+		when(mockToolService.getCollectionVersion()).thenReturn(7L);
+		when(mockToolService.getAll(Mockito.isNull(), Mockito.isNull(), Mockito.argThat(f -> f.key().equals(fields.key()))))
+			.thenReturn(new PageDto<>(Arrays.asList(projected), null));
+
+		mockMvc.perform(get("/tools").param("fields", "tags,title"))
+			.andExpect(status().isOk())
+			.andExpect(header().string("ETag", "W/\"tools-7;title,tags\""))
+			.andExpect(content().json("{\"items\":[{\"id\":\"a\",\"title\":\"a\",\"tags\":[\"a\"]}],\"next\":null}", true));
+	}
+
+	@Test
+	public void shouldReturnBadRequest_whenFieldIsUnknown() throws Exception {
+		mockMvc.perform(get("/tools/{id}", "a").param("fields", "secret"))
+			.andExpect(status().isBadRequest());
+	}
+
 	@Test
 	public void shouldReturnAListOfAllTools_whenDoNotHaveQueryParams() throws Exception {
 		var tool1 = new Tool("a", "a", "a", "a", new ArrayList<>(Arrays.asList("a", "b")));
@@ -90,7 +202,7 @@ public class ToolControllerTest {
 		
 		List<Tool> toolsList = new ArrayList<>(Arrays.asList(tool1, tool2, tool3));
 		
-		when(mockToolService.getAll()).thenReturn(toolsList);
+		when(mockToolService.getAll(null, null, ToolFields.ALL)).thenReturn(new PageDto<>(toolsList, null));
 		
 		mockMvc.perform(get("/tools"))
 			.andExpect(status().isOk())
@@ -99,7 +211,33 @@ public class ToolControllerTest {
 			.andExpect(result -> assertThat(result.getResponse().getContentAsString(), containsString(asJsonString(tool3))))
 			;
 		
-		verify(mockToolService, times(1)).getAll();
+		verify(mockToolService, times(1)).getAll(null, null, ToolFields.ALL);
+	}
+	
+	@Test
+	public void shouldForwardCursorAndLimit_whenPaginating() throws Exception {
+		var tool1 = new Tool("a", "a", "a", "a", new ArrayList<>(Arrays.asList("a", "b")));
+		
+		when(mockToolService.getAll("Yg", 1, ToolFields.ALL)).thenReturn(new PageDto<>(new ArrayList<>(Arrays.asList(tool1)), "YQ"));
+		
+		mockMvc.perform(get("/tools").param("cursor", "Yg").param("limit", "1"))
+			.andExpect(status().isOk())
+			.andExpect(result -> assertThat(result.getResponse().getContentAsString(), containsString(asJsonString(tool1))))
+			.andExpect(result -> assertThat(result.getResponse().getContentAsString(), containsString("\"next\":\"YQ\"")))
+			;
+		
+		verify(mockToolService, times(1)).getAll("Yg", 1, ToolFields.ALL);
+	}
+	
+	@Test
+	public void shouldReturnBadRequest_whenCursorIsInvalid() throws Exception {
+		when(mockToolService.getAll("!", null, ToolFields.ALL)).thenThrow(BadRequestException.class);
+		
+		mockMvc.perform(get("/tools").param("cursor", "!"))
+			.andExpect(status().isBadRequest())
+			.andExpect(result -> assertTrue(result.getResolvedException() instanceof BadRequestException));
+		
+		verify(mockToolService, times(1)).getAll("!", null, ToolFields.ALL);
 	}
 	
 	@Test
@@ -110,7 +248,7 @@ public class ToolControllerTest {
 		
 		List<Tool> toolsList = new ArrayList<>(Arrays.asList(tool2, tool3));
 		
-		when(mockToolService.getByTag("c")).thenReturn(toolsList);
+		when(mockToolService.getByTag("c", null, null, ToolFields.ALL)).thenReturn(new PageDto<>(toolsList, null));
 		
 		mockMvc.perform(get("/tools").param("tag", "c"))
 			.andExpect(status().isOk())
@@ -119,19 +257,81 @@ public class ToolControllerTest {
 			.andExpect(result -> assertThat(result.getResponse().getContentAsString(), containsString(asJsonString(tool3))))
 			;
 		
-		verify(mockToolService, times(1)).getByTag("c");
+		verify(mockToolService, times(1)).getByTag("c", null, null, ToolFields.ALL);
+	}
+	
+	@Test
+	public void shouldQueryAllTagsAtOnce_whenFilterSeveralTags() throws Exception {
+		var tool1 = new Tool("a", "a", "a", "a", new ArrayList<>(Arrays.asList("a", "b")));
+		
+		when(mockToolService.getByTags(Arrays.asList("a", "b"), TagMatch.ANY, null, null, ToolFields.ALL))
+			.thenReturn(new PageDto<>(new ArrayList<>(Arrays.asList(tool1)), null));
+		
+		mockMvc.perform(get("/tools").param("tags", "a,b").param("match", "any"))
+			.andExpect(status().isOk())
+			.andExpect(result -> assertThat(result.getResponse().getContentAsString(), containsString(asJsonString(tool1))))
+			;
+		
+		verify(mockToolService, times(1)).getByTags(Arrays.asList("a", "b"), TagMatch.ANY, null, null, ToolFields.ALL);
+	}
+	
+	@Test
+	public void shouldReturnBadRequest_whenTagMatchIsUnknown() throws Exception {
+		mockMvc.perform(get("/tools").param("tags", "a,b").param("match", "some"))
+			.andExpect(status().isBadRequest());
 	}
 	
 	@Test
-	public void shouldReturnEmptyList_whenFilterTagNotExists() throws Exception {
-		when(mockToolService.getByTag("d")).thenReturn(new ArrayList<Tool>());
+	public void shouldReturnRankedPage_whenSearch() throws Exception {
+		var tool1 = new Tool("a", "a", "a", "a", new ArrayList<>(Arrays.asList("a", "b")));
+		
+		when(mockToolService.search("notes", null, 5)).thenReturn(new PageDto<>(new ArrayList<>(Arrays.asList(tool1)), null));
+		
+		mockMvc.perform(get("/tools/search").param("q", "notes").param("limit", "5"))
+			.andExpect(status().isOk())
+			.andExpect(result -> assertThat(result.getResponse().getContentAsString(), containsString(asJsonString(tool1))))
+			;
+		
+		verify(mockToolService, times(1)).search("notes", null, 5);
+	}
+	
+	@Test
+	public void shouldReturnChangesAndNextToken_whenChangesAreRequested() throws Exception {
+		var tool1 = new Tool("a", "a", "a", "a", new ArrayList<>(Arrays.asList("a", "b")));
+		var changes = new ChangesDto(new ArrayList<>(Arrays.asList(
+				new ToolChangeDto(ToolChangeDto.Type.CREATE, tool1.getId(), tool1),
+				new ToolChangeDto(ToolChangeDto.Type.DELETE, "gone", null))), "token2");
+		when(mockToolService.getChanges("token1", null)).thenReturn(changes);
+
+		mockMvc.perform(get("/tools/changes").param("since", "token1"))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.changes[0].type").value("CREATE"))
+			.andExpect(jsonPath("$.changes[0].tool.title").value(tool1.getTitle()))
+			.andExpect(jsonPath("$.changes[1].type").value("DELETE"))
+			.andExpect(jsonPath("$.changes[1].tool").doesNotExist())
+			.andExpect(jsonPath("$.next").value("token2"))
+			;
+	}
+
+	@Test
+	public void shouldReturnGone_whenChangesTokenExpired() throws Exception {
+		when(mockToolService.getChanges("old", null)).thenThrow(new GoneException("Token expired"));
+
+		mockMvc.perform(get("/tools/changes").param("since", "old"))
+			.andExpect(status().isGone())
+			;
+	}
+
+	@Test
+	public void shouldReturnEmptyPage_whenFilterTagNotExists() throws Exception {
+		when(mockToolService.getByTag("d", null, null, ToolFields.ALL)).thenReturn(new PageDto<>(new ArrayList<Tool>(), null));
 		
 		mockMvc.perform(get("/tools").param("tag", "d"))
 			.andExpect(status().isOk())
-			.andExpect(result -> assertEquals("[]", result.getResponse().getContentAsString()))
+			.andExpect(result -> assertEquals("{\"items\":[],\"next\":null}", result.getResponse().getContentAsString()))
 			;
 		
-		verify(mockToolService, times(1)).getByTag("d");
+		verify(mockToolService, times(1)).getByTag("d", null, null, ToolFields.ALL);
 	}
 	
 	@Test
@@ -180,6 +380,42 @@ public class ToolControllerTest {
 		verify(mockToolService, times(1)).update("a", toolDtoMock);
 	}
 	
+	@Test
+	public void shouldPatchOnlyTheGivenFields_whenPatchRequest() throws Exception {
+		var patch = new ToolPatchDto();
+		patch.setAddTags(new ArrayList<>(Arrays.asList("a3")));
+		var patchedTool = new Tool("a", "title", "link", "description more than 15", Arrays.asList("a1", "a3"));
+
+		when(mockToolService.patch("a", patch)).thenReturn(patchedTool);
+
+		mockMvc.perform(patch("/tools/{id}", "a")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("{\"addTags\":[\"a3\"]}")
+			)
+			.andExpect(status().isOk())
+			.andExpect(result -> assertThat(result.getResponse().getContentAsString(), containsString(asJsonString(patchedTool))))
+			;
+
+		verify(mockToolService, times(1)).patch("a", patch);
+	}
+
+	@Test
+	public void shouldReturnBadRequest_whenPatchChangesTagsTwice() throws Exception {
+		mockMvc.perform(patch("/tools/{id}", "a")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("{\"addTags\":[\"a3\"],\"removeTags\":[\"a1\"]}")
+			)
+			.andExpect(status().isBadRequest())
+			.andExpect(content().string(containsString("changingTagsOnce")))
+			;
+	}
+
+	@Test
+	public void shouldReturnBadRequest_whenPatchIsEmpty() throws Exception {
+		mockMvc.perform(patch("/tools/{id}", "a").contentType(MediaType.APPLICATION_JSON).content("{}"))
+			.andExpect(status().isBadRequest());
+	}
+
 	@Test
 	public void shouldCreateNewTool_whenPostRequest() throws Exception {
 		var toolDtoMock = new ToolDto();
@@ -204,6 +440,183 @@ public class ToolControllerTest {
 		verify(mockToolService, times(1)).save(toolDtoMock);
 	}
 	
+	@Test
+	public void shouldReturnAccepted_whenCreateWithAcceptedAck() throws Exception {
+		var toolDtoMock = new ToolDto();
+		toolDtoMock.setTitle("title");
+		toolDtoMock.setLink("link");
+		toolDtoMock.setDescription("description more than 15");
+		toolDtoMock.setTags(new ArrayList<>(Arrays.asList("a1", "a2")));
+		var queuedTool = new Tool("abc", "title", "link", "description more than 15", new ArrayList<>(Arrays.asList("a1", "a2")));
+		when(mockToolService.accept(toolDtoMock)).thenReturn(queuedTool);
+
+		mockMvc.perform(post("/tools?ack=accepted")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(asJsonString(toolDtoMock)))
+			.andExpect(status().isAccepted())
+			.andExpect(content().json(asJsonString(queuedTool)));
+
+		verify(mockToolService, never()).save(Mockito.any());
+	}
+
+	@Test
+	public void shouldReturnTooManyRequests_whenWriteQueueIsFull() throws Exception {
+		var toolDtoMock = new ToolDto();
+		toolDtoMock.setTitle("title");
+		toolDtoMock.setLink("link");
+		toolDtoMock.setDescription("description more than 15");
+		toolDtoMock.setTags(new ArrayList<>(Arrays.asList("a1")));
+		when(mockToolService.accept(toolDtoMock)).thenThrow(new TooManyRequestsException("Write queue is full, retry later"));
+
+		mockMvc.perform(post("/tools?ack=accepted")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(asJsonString(toolDtoMock)))
+			.andExpect(status().isTooManyRequests())
+			.andExpect(header().string("Retry-After", "1"));
+
+		mockMvc.perform(post("/tools?ack=eventually")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(asJsonString(toolDtoMock)))
+			.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	public void shouldWriteCbor_whenAcceptIsCbor() throws Exception {
+		var mockTool = new Tool("abc123", "title", "link", "description", new ArrayList<>(Arrays.asList("a1", "a2")));
+		when(mockToolService.getById("abc123", ToolFields.ALL)).thenReturn(mockTool);
+
+		MvcResult result = mockMvc.perform(get("/tools/{id}", "abc123").accept(MediaType.APPLICATION_CBOR))
+			.andExpect(status().isOk())
+			.andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_CBOR))
+			.andReturn();
+
+		Tool decoded = new ObjectMapper(new CBORFactory()).readValue(result.getResponse().getContentAsByteArray(), Tool.class);
+		assertEquals(asJsonString(mockTool), asJsonString(decoded));
+	}
+
+	@Test
+	public void shouldReadAndWriteMessagePack_whenCreate() throws Exception {
+		var messagePack = new ObjectMapper(new MessagePackFactory());
+		var toolDtoMock = new ToolDto();
+		toolDtoMock.setTitle("title");
+		toolDtoMock.setLink("link");
+		toolDtoMock.setDescription("description more than 15");
+		toolDtoMock.setTags(new ArrayList<>(Arrays.asList("a1", "a2")));
+		var newToolMock = new Tool("abc", "title", "link", "description more than 15", new ArrayList<>(Arrays.asList("a1", "a2")));
+		when(mockToolService.save(toolDtoMock)).thenReturn(newToolMock);
+
+		MvcResult result = mockMvc.perform(post("/tools")
+				.contentType("application/x-msgpack")
+				.accept("application/x-msgpack")
+				.content(messagePack.writeValueAsBytes(toolDtoMock)))
+			.andExpect(status().isCreated())
+			.andExpect(content().contentTypeCompatibleWith("application/x-msgpack"))
+			.andReturn();
+
+		Tool decoded = messagePack.readValue(result.getResponse().getContentAsByteArray(), Tool.class);
+		assertEquals(asJsonString(newToolMock), asJsonString(decoded));
+	}
+
+	@Test
+	public void shouldWriteSmile_whenListingWithSmileAccept() throws Exception {
+		var tool1 = new Tool("a", "a", "a", "a", new ArrayList<>(Arrays.asList("a", "b")));
+		when(mockToolService.getAll(null, null, ToolFields.ALL)).thenReturn(new PageDto<>(List.of(tool1), null));
+
+		MvcResult result = mockMvc.perform(get("/tools").accept("application/x-jackson-smile"))
+			.andExpect(status().isOk())
+			.andExpect(content().contentTypeCompatibleWith("application/x-jackson-smile"))
+			.andReturn();
+
+		JsonNode page = new ObjectMapper(new SmileFactory()).readTree(result.getResponse().getContentAsByteArray());
+		assertEquals(asJsonString(tool1), page.get("items").get(0).toString());
+	}
+
+	@Test
+	public void shouldWriteCachedJson_whenResponseCacheEnabled() throws Exception {
+		byte[] body = "{\"id\":\"abc123\",\"version\":3}".getBytes(StandardCharsets.UTF_8);
+		when(mockResponseCache.isEnabled()).thenReturn(true);
+		when(mockResponseCache.tool(eq("abc123"), any())).thenReturn(new CachedJson(body, 3L, null));
+
+		mockMvc.perform(get("/tools/{id}", "abc123").accept(MediaType.APPLICATION_JSON))
+			.andExpect(status().isOk())
+			.andExpect(content().contentType(MediaType.APPLICATION_JSON))
+			.andExpect(content().bytes(body))
+			.andExpect(header().string("ETag", "W/\"3\""));
+
+		verify(mockToolService, never()).getById("abc123", ToolFields.ALL);
+	}
+
+	@Test
+	public void shouldWriteCachedPage_whenResponseCacheEnabled() throws Exception {
+		byte[] body = "{\"items\":[]}".getBytes(StandardCharsets.UTF_8);
+		when(mockResponseCache.isEnabled()).thenReturn(true);
+		when(mockToolService.getCollectionVersion()).thenReturn(7L);
+		when(mockResponseCache.page(eq(7L), anyString(), any())).thenReturn(new CachedJson(body, null, null));
+
+		mockMvc.perform(get("/tools").param("tag", "node"))
+			.andExpect(status().isOk())
+			.andExpect(content().bytes(body))
+			.andExpect(header().string("ETag", "W/\"tools-7\""));
+
+		verify(mockToolService, never()).getByTag("node", null, null, ToolFields.ALL);
+	}
+
+	@Test
+	public void shouldSkipResponseCache_whenAcceptIsNotJson() throws Exception {
+		var mockTool = new Tool("abc123", "title", "link", "description", new ArrayList<>(Arrays.asList("a1")));
+		when(mockResponseCache.isEnabled()).thenReturn(true);
+		when(mockToolService.getById("abc123", ToolFields.ALL)).thenReturn(mockTool);
+
+		mockMvc.perform(get("/tools/{id}", "abc123").accept(MediaType.APPLICATION_CBOR))
+			.andExpect(status().isOk())
+			.andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_CBOR));
+
+		verify(mockResponseCache, never()).tool(anyString(), any());
+	}
+
+	@Test
+	public void shouldStreamNdjson_whenExport() throws Exception {
+		doAnswer(invocation -> {
+			OutputStream out = invocation.getArgument(0);
+			out.write("{\"id\":\"a\"}\n{\"id\":\"b\"}\n".getBytes());
+			return null;
+		}).when(mockToolService).export(Mockito.any(OutputStream.class));
+		
+		mockMvc.perform(get("/tools/export"))
+			.andExpect(status().isOk())
+			.andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+			.andExpect(result -> assertEquals("{\"id\":\"a\"}\n{\"id\":\"b\"}\n", result.getResponse().getContentAsString()))
+			;
+		
+		verify(mockToolService, times(1)).export(Mockito.any(OutputStream.class));
+	}
+	
+	@Test
+	public void shouldReturnPerItemResults_whenPostBatch() throws Exception {
+		var item = new ToolBatchItemDto();
+		item.setTitle("title");
+		item.setLink("link");
+		item.setDescription("description more than 15");
+		item.setTags(new ArrayList<>(Arrays.asList("a1", "a2")));
+		
+		var batchResult = new BatchResultDto();
+		batchResult.addItem(new BatchItemResultDto(0, "abc", BatchItemResultDto.Status.CREATED));
+		
+		when(mockToolService.saveAll(Arrays.asList(item))).thenReturn(batchResult);
+		
+		mockMvc.perform(post("/tools/batch")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(asJsonString(Arrays.asList(item)))
+				.characterEncoding("utf-8")
+			)
+			.andExpect(status().isOk())
+			.andExpect(result -> assertThat(result.getResponse().getContentAsString(), containsString("\"created\":1")))
+			.andExpect(result -> assertThat(result.getResponse().getContentAsString(), containsString("\"status\":\"CREATED\"")))
+			;
+		
+		verify(mockToolService, times(1)).saveAll(Arrays.asList(item));
+	}
+	
 	// TODO: find a way to test when some attribute passed by post or put is not valid
 	
 	@Test
@@ -229,5 +642,22 @@ public class ToolControllerTest {
 		
 		verify(mockToolService, times(1)).delete("a");
 	}
-	
+
+	@Test
+	public void shouldDeleteEveryListedTool_whenDeleteWithIds() throws Exception {
+		when(mockToolService.deleteAll(Arrays.asList("a", "b"))).thenReturn(new DeleteResultDto(2));
+
+		mockMvc.perform(delete("/tools").param("ids", "a,b"))
+			.andExpect(status().isOk())
+			.andExpect(content().json("{\"deleted\":2}"));
+	}
+
+	@Test
+	public void shouldReturnBadRequest_whenDeleteWithoutFilter() throws Exception {
+		mockMvc.perform(delete("/tools"))
+			.andExpect(status().isBadRequest());
+
+		verify(mockToolService, never()).deleteByTag(Mockito.any());
+	}
+
 }
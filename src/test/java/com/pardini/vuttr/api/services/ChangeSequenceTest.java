@@ -0,0 +1,96 @@
+package com.pardini.vuttr.api.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import com.pardini.vuttr.domain.repositories.ToolRepository;
+
+public class ChangeSequenceTest {
+
+	private final ToolRepository repository = mock(ToolRepository.class);
+
+	private final AtomicLong counter = new AtomicLong(100);
+
+	private ChangeSequence open(int blockSize) {
+		when(repository.allocateChangeSeqs(Mockito.anyInt()))
+			.thenAnswer(invocation -> counter.addAndGet(invocation.<Integer>getArgument(0)));
+		return new ChangeSequence(repository, Duration.ofDays(1), blockSize);
+	}
+
+	@Test
+	public void whenWritesFitTheBlock_shouldReadTheCounterOnce() {
+		var sequence = open(10);
+
+		assertEquals(102L, (long) sequence.write(3, first -> first));
+		assertEquals(105L, (long) sequence.write(1, first -> first));
+		assertEquals(105L, sequence.stable());
+		verify(repository, times(1)).allocateChangeSeqs(Mockito.anyInt());
+
+		assertEquals(111L, (long) sequence.write(8, first -> first));
+		assertEquals(118L, sequence.stable());
+		verify(repository, times(2)).allocateChangeSeqs(10);
+	}
+
+	@Test
+	public void whenAWriteIsInFlight_shouldStopBeforeIt() throws InterruptedException {
+		var sequence = open(10);
+		var started = new CountDownLatch(1);
+		var release = new CountDownLatch(1);
+		var writer = new Thread(() -> sequence.write(1, first -> {
+			started.countDown();
+			try {
+				release.await(5, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return first;
+		}));
+		writer.start();
+		started.await(5, TimeUnit.SECONDS);
+
+		sequence.write(1, first -> first);
+		assertEquals(101L, sequence.stable());
+
+		release.countDown();
+		writer.join();
+		assertEquals(103L, sequence.stable());
+	}
+
+	@Test
+	public void whenNothingWasWritten_shouldReadTheCounter() {
+		var sequence = open(10);
+
+		assertEquals(101L, sequence.stable());
+		verify(repository).allocateChangeSeqs(1);
+	}
+
+	@Test
+	public void whenRestarted_shouldStartPastEveryVersionBefore() {
+		var sequence = open(10);
+		long version = sequence.version();
+		sequence.write(1, first -> first);
+		assertEquals(version + 1, sequence.version());
+		// a failed write may have landed
+		assertThrows(IllegalStateException.class, () -> sequence.write(1, first -> {
+			throw new IllegalStateException("write failed");
+		}));
+		assertEquals(version + 2, sequence.version());
+
+		var restarted = open(10);
+		assertThat(restarted.version()).isGreaterThan(sequence.version());
+	}
+
+}
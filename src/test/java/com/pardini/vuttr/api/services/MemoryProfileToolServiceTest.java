@@ -0,0 +1,25 @@
+package com.pardini.vuttr.api.services;
+
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+/**
+ * {@link ToolServiceTest} with the {@code memory} profile, where the mocked
+ * repository stands in for the in-memory store.
+ */
+@ActiveProfiles("memory")
+public class MemoryProfileToolServiceTest extends ToolServiceTest {
+
+	@TempDir
+	static Path directory;
+
+	@DynamicPropertySource
+	static void memoryDirectory(DynamicPropertyRegistry registry) {
+		registry.add("vuttr.memory.directory", () -> directory.toString());
+	}
+
+}
@@ -0,0 +1,103 @@
+package com.pardini.vuttr.api.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import com.pardini.vuttr.api.exceptions.ResourceNotFoundException;
+import com.pardini.vuttr.domain.dtos.ChangesDto;
+import com.pardini.vuttr.domain.dtos.ToolChangeDto;
+import com.pardini.vuttr.domain.dtos.ToolDto;
+import com.pardini.vuttr.domain.dtos.ToolPatchDto;
+import com.pardini.vuttr.domain.model.Tool;
+import com.pardini.vuttr.domain.repositories.ToolFields;
+
+/**
+ * {@link ToolService} over the in-memory store, with no MongoDB at all.
+ */
+@SpringBootTest
+@ActiveProfiles({ "test", "memory" })
+public class MemoryToolServiceTest {
+
+	@TempDir
+	static Path directory;
+
+	@DynamicPropertySource
+	static void memoryDirectory(DynamicPropertyRegistry registry) {
+		registry.add("vuttr.memory.directory", () -> directory.toString());
+	}
+
+	@Autowired
+	private ToolService toolService;
+
+	@Test
+	public void whenWrittenThroughTheService_shouldBeReadBackAndDeleted() {
+		ToolDto dto = new ToolDto();
+		dto.setTitle("title1");
+		dto.setLink("link1");
+		dto.setDescription("description1");
+		dto.setTags(List.of("memory-tag1", "memory-tag2"));
+		long collectionVersion = toolService.getCollectionVersion();
+
+		Tool saved = toolService.save(dto);
+		ToolPatchDto patch = new ToolPatchDto();
+		patch.setRemoveTags(List.of("memory-tag2"));
+		Tool patched = toolService.patch(saved.getId(), patch);
+
+		assertEquals(saved.getId(), toolService.getById(saved.getId()).getId());
+		assertEquals(1L, patched.getVersion());
+		assertEquals(List.of("memory-tag1"), patched.getTags());
+		assertEquals(List.of(patched), toolService.getByTag("memory-tag1", null, null, ToolFields.ALL).getItems());
+		assertEquals(0, toolService.getByTag("memory-tag2", null, null, ToolFields.ALL).getItems().size());
+		assertEquals(collectionVersion + 2, toolService.getCollectionVersion());
+
+		toolService.delete(saved.getId());
+		assertThrows(ResourceNotFoundException.class, () -> toolService.getById(saved.getId()));
+	}
+
+	@Test
+	public void whenAskedForChanges_shouldReturnWritesAndDeletesAfterTheToken() {
+		String since = toolService.getChanges(null, 100).getNext();
+		while (!toolService.getChanges(since, 100).getChanges().isEmpty()) {
+			since = toolService.getChanges(since, 100).getNext();
+		}
+		ToolDto dto = new ToolDto();
+		dto.setTitle("title1");
+		dto.setLink("link1");
+		dto.setDescription("description1");
+		dto.setTags(List.of("changes-tag"));
+		Tool kept = toolService.save(dto);
+		Tool deleted = toolService.save(dto);
+		String afterCreates = toolService.getChanges(since, 100).getNext();
+		ToolPatchDto patch = new ToolPatchDto();
+		patch.setTitle("title2");
+		toolService.patch(kept.getId(), patch);
+		toolService.delete(deleted.getId());
+
+		ChangesDto changes = toolService.getChanges(since, 100);
+		ChangesDto first = toolService.getChanges(since, 1);
+
+		assertEquals(List.of(ToolChangeDto.Type.CREATE, ToolChangeDto.Type.DELETE),
+				changes.getChanges().stream().map(ToolChangeDto::getType).collect(Collectors.toList()));
+		assertEquals(List.of(ToolChangeDto.Type.UPDATE, ToolChangeDto.Type.DELETE),
+				toolService.getChanges(afterCreates, 100).getChanges().stream().map(ToolChangeDto::getType)
+					.collect(Collectors.toList()));
+		assertEquals("title2", changes.getChanges().get(0).getTool().getTitle());
+		assertEquals(deleted.getId(), changes.getChanges().get(1).getId());
+		assertEquals(kept.getId(), first.getChanges().get(0).getId());
+		assertEquals(deleted.getId(), toolService.getChanges(first.getNext(), 1).getChanges().get(0).getId());
+		assertEquals(0, toolService.getChanges(changes.getNext(), 100).getChanges().size());
+	}
+
+}
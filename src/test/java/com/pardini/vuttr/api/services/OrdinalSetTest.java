@@ -0,0 +1,78 @@
+package com.pardini.vuttr.api.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+
+public class OrdinalSetTest {
+
+	@Test
+	public void whenAddingAndRemoving_shouldKeepSortedDistinctOrdinals() {
+		var set = OrdinalSet.EMPTY.with(7).with(3).with(7).with(100);
+
+		assertThat(set.toArray()).containsExactly(3, 7, 100);
+		assertEquals(3, set.cardinality());
+
+		set = set.without(7).without(42);
+
+		assertThat(set.toArray()).containsExactly(3, 100);
+		assertTrue(set.contains(100));
+		assertFalse(set.contains(7));
+	}
+
+	@Test
+	public void whenDense_shouldBehaveLikeSparse() {
+		var set = OrdinalSet.EMPTY;
+		for (int i = 0; i < 1000; i++) {
+			set = set.with(i);
+		}
+
+		assertEquals(1000, set.cardinality());
+		assertThat(set.page(500, 3)).containsExactly(501, 502, 503);
+
+		for (int i = 0; i < 1000; i += 2) {
+			set = set.without(i);
+		}
+
+		assertEquals(500, set.cardinality());
+		assertThat(set.page(-1, 3)).containsExactly(1, 3, 5);
+	}
+
+	@Test
+	public void whenCombiningSets_shouldMatchReferenceImplementation() {
+		var random = new Random(42);
+		for (int round = 0; round < 50; round++) {
+			var left = new TreeSet<Integer>();
+			var right = new TreeSet<Integer>();
+			var leftSet = OrdinalSet.EMPTY;
+			var rightSet = OrdinalSet.EMPTY;
+			int bound = 1 + random.nextInt(5000);
+			for (int i = random.nextInt(3000); i > 0; i--) {
+				int value = random.nextInt(bound);
+				left.add(value);
+				leftSet = leftSet.with(value);
+			}
+			for (int i = random.nextInt(3000); i > 0; i--) {
+				int value = random.nextInt(bound);
+				right.add(value);
+				rightSet = rightSet.with(value);
+			}
+
+			var and = new TreeSet<>(left);
+			and.retainAll(right);
+			var or = new TreeSet<>(left);
+			or.addAll(right);
+
+			assertThat(leftSet.and(rightSet).toArray()).containsExactly(and.stream().mapToInt(Integer::intValue).toArray());
+			assertEquals(and.size(), leftSet.andCardinality(rightSet));
+			assertThat(leftSet.or(rightSet).toArray()).containsExactly(or.stream().mapToInt(Integer::intValue).toArray());
+		}
+	}
+
+}
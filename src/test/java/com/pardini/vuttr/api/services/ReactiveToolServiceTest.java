@@ -0,0 +1,81 @@
+package com.pardini.vuttr.api.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.pardini.vuttr.domain.repositories.ReactiveToolRepository;
+
+import reactor.core.publisher.Mono;
+
+@ExtendWith(MockitoExtension.class)
+public class ReactiveToolServiceTest {
+
+	@Mock
+	private ReactiveToolRepository toolRepository;
+
+	@Mock
+	private ToolService toolService;
+
+	@Mock
+	private ChangeSequence changeSequence;
+
+	@InjectMocks
+	private ReactiveToolService reactiveToolService;
+
+	@BeforeEach
+	public void setUp() {
+		ReflectionTestUtils.setField(reactiveToolService, "batchMaxItems", 100);
+	}
+
+	@Test
+	public void whenDeleted_shouldLeaveATombstoneAndNotify() {
+		when(changeSequence.tryTake(1)).thenReturn(7L);
+		when(toolRepository.removeById("id1")).thenReturn(Mono.just(true));
+		when(toolRepository.saveTombstones(List.of("id1"), 7L)).thenReturn(Mono.empty());
+
+		reactiveToolService.delete("id1").block();
+
+		verify(toolRepository).saveTombstones(List.of("id1"), 7L);
+		verify(changeSequence).done(7L);
+		verify(toolService).removed("id1");
+		verify(toolService).collectionChanged();
+	}
+
+	@Test
+	public void whenDeletingIds_shouldNumberEachOne() {
+		when(changeSequence.tryTake(2)).thenReturn(10L);
+		when(toolRepository.removeAllById(List.of("id1", "id2"))).thenReturn(Mono.just(1L));
+		when(toolRepository.saveTombstones(List.of("id1", "id2"), 10L)).thenReturn(Mono.empty());
+
+		var result = reactiveToolService.deleteAll(List.of("id1", "id2", "id1")).block();
+
+		assertEquals(1L, result.getDeleted());
+		verify(toolService).removed("id2");
+		verify(toolService).collectionChanged();
+	}
+
+	@Test
+	public void whenNothingWasDeleted_shouldLeaveNoTombstone() {
+		when(changeSequence.tryTake(1)).thenReturn(3L);
+		when(toolRepository.removeAllById(List.of("id1"))).thenReturn(Mono.just(0L));
+
+		reactiveToolService.deleteAll(List.of("id1")).block();
+
+		verify(toolRepository, never()).saveTombstones(Mockito.anyList(), Mockito.anyLong());
+		verify(toolService, never()).collectionChanged();
+	}
+
+}
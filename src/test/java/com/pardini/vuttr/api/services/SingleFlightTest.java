@@ -0,0 +1,137 @@
+package com.pardini.vuttr.api.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.pardini.vuttr.api.exceptions.ResourceNotFoundException;
+import com.pardini.vuttr.api.exceptions.ServiceUnavailableException;
+
+public class SingleFlightTest {
+
+	private final ExecutorService executor = Executors.newCachedThreadPool();
+
+	private final AtomicInteger calls = new AtomicInteger();
+
+	@AfterEach
+	public void tearDown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void whenCalledConcurrently_shouldShareOneCall() throws Exception {
+		var flight = new SingleFlight<String, String>(Duration.ofSeconds(5));
+		var release = new CountDownLatch(1);
+		var leader = executor.submit(() -> flight.execute("id1", () -> blockedCall(release, "tool")));
+		awaitCalls(1);
+
+		var waiters = new ArrayList<CompletableFuture<String>>();
+		for (int i = 0; i < 5; i++) {
+			waiters.add(CompletableFuture.supplyAsync(() -> flight.execute("id1", () -> "other"), executor));
+		}
+		awaitWaiting(flight, "id1", 5);
+		release.countDown();
+
+		assertEquals("tool", leader.get(5, TimeUnit.SECONDS));
+		for (CompletableFuture<String> waiter : waiters) {
+			assertEquals("tool", waiter.get(5, TimeUnit.SECONDS));
+		}
+		assertEquals(1, calls.get());
+		assertEquals(1, flight.executed());
+		assertEquals(5, flight.coalesced());
+	}
+
+	@Test
+	public void whenCallFails_shouldThrowTheSameExceptionToWaiters() throws Exception {
+		var flight = new SingleFlight<String, String>(Duration.ofSeconds(5));
+		var release = new CountDownLatch(1);
+		var notFound = new ResourceNotFoundException("Tool not found");
+		var leader = executor.submit(() -> flight.execute("id1", () -> {
+			blockedCall(release, null);
+			throw notFound;
+		}));
+		awaitCalls(1);
+		var waiter = CompletableFuture.supplyAsync(() -> flight.execute("id1", () -> "other"), executor);
+		awaitWaiting(flight, "id1", 1);
+		release.countDown();
+
+		var leaderFailure = assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS));
+		var waiterFailure = assertThrows(ExecutionException.class, () -> waiter.get(5, TimeUnit.SECONDS));
+		assertSame(notFound, leaderFailure.getCause());
+		assertSame(notFound, waiterFailure.getCause());
+	}
+
+	@Test
+	public void whenCallTakesLongerThanTimeout_shouldFailTheWaiterAndKeepTheCall() throws Exception {
+		var flight = new SingleFlight<String, String>(Duration.ofSeconds(5));
+		var release = new CountDownLatch(1);
+		var leader = executor.submit(() -> flight.execute("id1", () -> blockedCall(release, "slow")));
+		awaitCalls(1);
+
+		assertThrows(ServiceUnavailableException.class,
+				() -> flight.execute("id1", Duration.ofMillis(50), () -> "fresh"));
+		var patient = CompletableFuture.supplyAsync(() -> flight.execute("id1", () -> "other"), executor);
+		awaitWaiting(flight, "id1", 1);
+		release.countDown();
+
+		assertEquals("slow", leader.get(5, TimeUnit.SECONDS));
+		assertEquals("slow", patient.get(5, TimeUnit.SECONDS));
+		assertEquals(1, flight.timedOut());
+		assertEquals(1, flight.executed());
+	}
+
+	@Test
+	public void whenForgotten_shouldNotJoinTheCallInFlight() throws Exception {
+		var flight = new SingleFlight<String, String>(Duration.ofSeconds(5));
+		var release = new CountDownLatch(1);
+		executor.submit(() -> flight.execute("id1:", () -> blockedCall(release, "old")));
+		awaitCalls(1);
+
+		flight.forget(key -> key.startsWith("id1:"));
+		var value = flight.execute("id1:", () -> "new");
+
+		assertEquals("new", value);
+		assertEquals(0, flight.coalesced());
+		release.countDown();
+	}
+
+	private String blockedCall(CountDownLatch release, String value) {
+		calls.incrementAndGet();
+		try {
+			release.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		return value;
+	}
+
+	private void awaitCalls(int expected) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (calls.get() < expected && System.nanoTime() < deadline) {
+			Thread.sleep(5);
+		}
+	}
+
+	private void awaitWaiting(SingleFlight<String, String> flight, String key, int expected)
+			throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (flight.waiting(key) < expected && System.nanoTime() < deadline) {
+			Thread.sleep(5);
+		}
+		assertEquals(expected, flight.waiting(key));
+	}
+
+}
@@ -0,0 +1,174 @@
+package com.pardini.vuttr.api.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.pardini.vuttr.domain.dtos.TagCountDto;
+import com.pardini.vuttr.domain.model.Tool;
+import com.pardini.vuttr.domain.repositories.TagMatch;
+
+public class TagIndexTest {
+
+	private List<String> ids(TagIndex index, int[] ordinals) {
+		var ids = new ArrayList<String>();
+		for (int ordinal : ordinals) {
+			ids.add(index.idOf(ordinal));
+		}
+		return ids;
+	}
+
+	@Test
+	public void whenRebuilt_shouldAnswerAllAndAnyQueries() {
+		var index = new TagIndex();
+		assertFalse(index.isReady());
+
+		index.rebuild(Arrays.asList(
+				new Tool("a", "a", "a", "a", Arrays.asList("java", "spring")),
+				new Tool("b", "b", "b", "b", Arrays.asList("java")),
+				new Tool("c", "c", "c", "c", Arrays.asList("node"))).iterator());
+
+		assertTrue(index.isReady());
+		assertThat(ids(index, index.find(Arrays.asList("java", "spring"), TagMatch.ALL, -1, 10))).containsExactly("a");
+		assertThat(ids(index, index.find(Arrays.asList("spring", "node"), TagMatch.ANY, -1, 10))).containsExactly("a", "c");
+		assertThat(index.find(Arrays.asList("missing"), TagMatch.ALL, -1, 10)).isEmpty();
+	}
+
+	@Test
+	public void whenToolIsUpdatedOrRemoved_shouldMoveItBetweenTags() {
+		var index = new TagIndex();
+		index.put("a", Arrays.asList("java"));
+		index.put("a", Arrays.asList("kotlin"));
+
+		assertThat(index.find(Arrays.asList("java"), TagMatch.ALL, -1, 10)).isEmpty();
+		assertThat(ids(index, index.find(Arrays.asList("kotlin"), TagMatch.ALL, -1, 10))).containsExactly("a");
+
+		int ordinal = index.find(Arrays.asList("kotlin"), TagMatch.ALL, -1, 10)[0];
+		index.remove("a");
+
+		assertThat(index.find(Arrays.asList("kotlin"), TagMatch.ALL, -1, 10)).isEmpty();
+		assertNull(index.idOf(ordinal));
+	}
+
+	@Test
+	public void whenSuggesting_shouldReturnMostUsedTagsWithPrefix() {
+		var index = new TagIndex();
+		index.put("a", Arrays.asList("node", "nodejs"));
+		index.put("b", Arrays.asList("node", "nosql"));
+		index.put("c", Arrays.asList("node", "nosql", "java"));
+
+		var suggestions = index.suggest("no", 2);
+
+		assertThat(suggestions).extracting(TagCountDto::getTag).containsExactly("node", "nosql");
+		assertThat(suggestions).extracting(TagCountDto::getCount).containsExactly(3, 2);
+
+		index.remove("a");
+
+		assertThat(index.suggest("nodej", 10)).isEmpty();
+		assertThat(index.suggest("", 10)).extracting(TagCountDto::getTag).containsExactly("node", "nosql", "java");
+	}
+
+	@Test
+	public void whenCounting_shouldReturnTotalsAndFacets() {
+		var index = new TagIndex();
+		index.put("a", Arrays.asList("java", "spring"));
+		index.put("b", Arrays.asList("java", "quarkus"));
+		index.put("c", Arrays.asList("node"));
+
+		assertThat(index.counts(null)).extracting(TagCountDto::getTag).containsExactly("java", "node", "quarkus", "spring");
+		assertThat(index.counts(null)).extracting(TagCountDto::getCount).containsExactly(2, 1, 1, 1);
+
+		var facets = index.counts("java");
+
+		assertThat(facets).extracting(TagCountDto::getTag).containsExactly("java", "quarkus", "spring");
+		assertThat(facets).extracting(TagCountDto::getCount).containsExactly(2, 1, 1);
+	}
+
+	@Test
+	public void whenWrittenDuringRebuild_shouldKeepTheWrite() {
+		var index = new TagIndex();
+		Iterator<Tool> tools = new Iterator<Tool>() {
+			private boolean done;
+
+			@Override
+			public boolean hasNext() {
+				return !done;
+			}
+
+			@Override
+			public Tool next() {
+				done = true;
+				// a writer commits while the rebuild is still reading
+				index.put("b", Arrays.asList("java"));
+				return new Tool("a", "a", "a", "a", Arrays.asList("java"));
+			}
+		};
+
+		index.rebuild(tools);
+
+		assertThat(ids(index, index.find(Arrays.asList("java"), TagMatch.ALL, -1, 10))).containsExactlyInAnyOrder("a", "b");
+	}
+
+	@Test
+	public void whenRebuildFails_shouldKeepCurrentContent() {
+		var index = new TagIndex();
+		index.put("a", Arrays.asList("java"));
+		Iterator<Tool> failing = new Iterator<Tool>() {
+			@Override
+			public boolean hasNext() {
+				return true;
+			}
+
+			@Override
+			public Tool next() {
+				throw new IllegalStateException("cursor lost");
+			}
+		};
+
+		Assertions.assertThrows(IllegalStateException.class, () -> index.rebuild(failing));
+
+		assertThat(ids(index, index.find(Arrays.asList("java"), TagMatch.ALL, -1, 10))).containsExactly("a");
+	}
+
+	@Test
+	public void whenTaggedToolsRemoved_shouldForgetThemUnderEveryTag() {
+		var index = new TagIndex();
+		index.rebuild(Arrays.asList(
+				new Tool("a", "a", "a", "a", Arrays.asList("java", "spring")),
+				new Tool("b", "b", "b", "b", Arrays.asList("java", "node")),
+				new Tool("c", "c", "c", "c", Arrays.asList("node"))).iterator());
+
+		index.removeTagged("java");
+
+		assertEquals(0, index.find(Arrays.asList("java"), TagMatch.ALL, -1, 10).length);
+		assertEquals(List.of("c"), ids(index, index.find(Arrays.asList("node"), TagMatch.ALL, -1, 10)));
+		assertEquals(List.of("node"), index.suggest("", 10).stream().map(TagCountDto::getTag).collect(Collectors.toList()));
+	}
+
+	@Test
+	public void whenToolsComeAndGo_shouldReuseTheirOrdinals() {
+		var index = new TagIndex();
+		index.put("kept", Arrays.asList("java"));
+		for (int i = 0; i < 5000; i++) {
+			index.put("tool" + i, Arrays.asList("java"));
+			index.remove("tool" + i);
+		}
+		index.put("new", Arrays.asList("java"));
+
+		int[] ordinals = index.find(Arrays.asList("java"), TagMatch.ALL, -1, 10);
+		assertThat(ordinals).containsExactly(0, 1);
+		assertEquals(List.of("kept", "new"), ids(index, ordinals));
+	}
+
+}
@@ -0,0 +1,103 @@
+package com.pardini.vuttr.api.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.pardini.vuttr.domain.model.Tool;
+
+public class ToolCacheTest {
+
+	private final Tool tool = new Tool("id1", "title1", "link1", "description1",
+			new ArrayList<>(Arrays.asList("tag1")));
+
+	@Test
+	public void whenLoadedTwice_shouldCallLoaderOnceAndCountHit() {
+		var cache = new ToolCache(10, Duration.ofMinutes(1), false);
+		var loads = new AtomicInteger();
+
+		cache.get("id1", id -> { loads.incrementAndGet(); return Optional.of(tool); });
+		var returned = cache.get("id1", id -> { loads.incrementAndGet(); return Optional.of(tool); });
+
+		assertThat(returned).containsSame(tool);
+		assertEquals(1, loads.get());
+		assertEquals(1, cache.stats().hitCount());
+		assertEquals(1, cache.stats().missCount());
+	}
+
+	@Test
+	public void whenNegativeCachingIsOff_shouldLoadMissingIdEveryTime() {
+		var cache = new ToolCache(10, Duration.ofMinutes(1), false);
+		var loads = new AtomicInteger();
+
+		cache.get("x", id -> { loads.incrementAndGet(); return Optional.empty(); });
+		cache.get("x", id -> { loads.incrementAndGet(); return Optional.empty(); });
+
+		assertEquals(2, loads.get());
+	}
+
+	@Test
+	public void whenNegativeCachingIsOn_shouldRememberMissingId() {
+		var cache = new ToolCache(10, Duration.ofMinutes(1), true);
+		var loads = new AtomicInteger();
+
+		cache.get("x", id -> { loads.incrementAndGet(); return Optional.empty(); });
+		var returned = cache.get("x", id -> { loads.incrementAndGet(); return Optional.empty(); });
+
+		assertThat(returned).isEmpty();
+		assertEquals(1, loads.get());
+	}
+
+	@Test
+	public void whenInvalidated_shouldLoadAgain() {
+		var cache = new ToolCache(10, Duration.ofMinutes(1), true);
+		var loads = new AtomicInteger();
+
+		cache.get("x", id -> { loads.incrementAndGet(); return Optional.empty(); });
+		cache.invalidate("x");
+		var returned = cache.get("x", id -> { loads.incrementAndGet(); return Optional.of(tool); });
+
+		assertThat(returned).containsSame(tool);
+		assertEquals(2, loads.get());
+	}
+
+	@Test
+	public void whenWrittenDuringABulkLoad_shouldNotKeepTheOldTool() throws InterruptedException {
+		var cache = new ToolCache(10, Duration.ofMinutes(1), false);
+		var writer = new Thread(() -> cache.invalidate("id1"));
+
+		var returned = cache.getAll(List.of("id1"), ids -> {
+			// the write lands and invalidates after the old tool was read
+			writer.start();
+			try {
+				writer.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return List.of(tool);
+		});
+
+		assertThat(returned).containsEntry("id1", tool);
+		assertNull(cache.getIfPresent("id1"));
+	}
+
+	@Test
+	public void whenBulkLoaded_shouldKeepTheLoadedTools() {
+		var cache = new ToolCache(10, Duration.ofMinutes(1), false);
+
+		cache.getAll(List.of("id1", "x"), ids -> List.of(tool));
+
+		assertThat(cache.getIfPresent("id1")).isSameAs(tool);
+		assertNull(cache.getIfPresent("x"));
+	}
+
+}
@@ -0,0 +1,130 @@
+package com.pardini.vuttr.api.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import com.pardini.vuttr.domain.dtos.ToolDto;
+import com.pardini.vuttr.domain.model.Tool;
+
+/**
+ * {@code GET /tools/stream} read over a real connection, on the in-memory
+ * store.
+ */
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
+@ActiveProfiles({ "test", "memory" })
+public class ToolEventStreamTest {
+
+	@TempDir
+	static Path directory;
+
+	@DynamicPropertySource
+	static void memoryDirectory(DynamicPropertyRegistry registry) {
+		registry.add("vuttr.memory.directory", () -> directory.toString());
+	}
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private ToolService toolService;
+
+	@Autowired
+	private ToolEventStream toolEvents;
+
+	private final HttpClient client = HttpClient.newHttpClient();
+
+	@Test
+	public void whenSubscribedToATag_shouldReceiveItsWritesAndEveryDelete() throws Exception {
+		BlockingQueue<String> lines = this.subscribe("?tags=Stream-Tag", null);
+
+		Tool tagged = toolService.save(dto("stream-tag"));
+		toolService.save(dto("other-tag"));
+
+		assertEquals("event:create", next(lines, "event:"));
+		assertTrue(next(lines, "data:").contains(tagged.getId()));
+		// a change read after the delete would already be its tombstone
+		toolService.delete(tagged.getId());
+		assertEquals("event:delete", next(lines, "event:"));
+		assertEquals("data:{\"type\":\"DELETE\",\"id\":\"" + tagged.getId() + "\"}", next(lines, "data:"));
+	}
+
+	@Test
+	public void whenATaggedToolIsUpdated_shouldSendUpdateAndUntaggedOnceItLosesTheTag() throws Exception {
+		Tool tagged = toolService.save(dto("untag-tag"));
+		BlockingQueue<String> lines = this.subscribe("?tags=untag-tag", null);
+
+		toolService.update(tagged.getId(), dto("untag-tag"));
+		assertEquals("event:update", next(lines, "event:"));
+		assertTrue(next(lines, "data:").startsWith("data:{\"type\":\"UPDATE\""));
+
+		toolService.update(tagged.getId(), dto("another-tag"));
+		assertEquals("event:untagged", next(lines, "event:"));
+		assertEquals("data:{\"type\":\"UNTAGGED\",\"id\":\"" + tagged.getId() + "\"}", next(lines, "data:"));
+	}
+
+	@Test
+	public void whenReconnectingWithLastEventId_shouldReplayTheMissedWrites() throws Exception {
+		BlockingQueue<String> lines = this.subscribe("", null);
+		toolService.save(dto("replay-tag"));
+		String lastEventId = next(lines, "id:").substring("id:".length());
+
+		Tool missed = toolService.save(dto("replay-tag"));
+		BlockingQueue<String> resumed = this.subscribe("", lastEventId);
+
+		assertTrue(next(resumed, "data:").contains(missed.getId()));
+	}
+
+	private BlockingQueue<String> subscribe(String query, String lastEventId) throws InterruptedException {
+		int subscribers = toolEvents.subscribers();
+		HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/tools/stream" + query));
+		if (lastEventId != null) {
+			request.header("Last-Event-ID", lastEventId);
+		}
+		BlockingQueue<String> lines = new LinkedBlockingQueue<>();
+		client.sendAsync(request.build(), HttpResponse.BodyHandlers.ofLines())
+			.thenAccept(response -> response.body().forEach(lines::add));
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (toolEvents.subscribers() == subscribers && System.nanoTime() < deadline) {
+			Thread.sleep(5);
+		}
+		return lines;
+	}
+
+	private static String next(BlockingQueue<String> lines, String prefix) throws InterruptedException {
+		String line;
+		do {
+			line = lines.poll(5, TimeUnit.SECONDS);
+		} while (line != null && !line.startsWith(prefix));
+		return line;
+	}
+
+	private static ToolDto dto(String tag) {
+		ToolDto dto = new ToolDto();
+		dto.setTitle("title");
+		dto.setLink("link");
+		dto.setDescription("description long enough");
+		dto.setTags(List.of(tag));
+		return dto;
+	}
+
+}
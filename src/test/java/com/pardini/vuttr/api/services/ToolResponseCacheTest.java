@@ -0,0 +1,75 @@
+package com.pardini.vuttr.api.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pardini.vuttr.domain.dtos.PageDto;
+import com.pardini.vuttr.domain.model.Tool;
+
+public class ToolResponseCacheTest {
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	private final Tool tool = new Tool("id1", "title1", "link1", "description1",
+			new ArrayList<>(Arrays.asList("tag1")));
+
+	private final ToolResponseCache cache = new ToolResponseCache(objectMapper, DataSize.ofMegabytes(1),
+			Duration.ofMinutes(1));
+
+	@Test
+	public void whenToolLoadedTwice_shouldEncodeOnceAndReturnSameBytes() throws Exception {
+		var loads = new AtomicInteger();
+		tool.setVersion(4L);
+
+		var first = cache.tool("id1", () -> { loads.incrementAndGet(); return tool; });
+		var second = cache.tool("id1", () -> { loads.incrementAndGet(); return tool; });
+
+		assertThat(second.getBody()).isSameAs(first.getBody());
+		assertEquals(objectMapper.writeValueAsString(tool), new String(first.getBody(), StandardCharsets.UTF_8));
+		assertEquals(4L, first.getVersion());
+		assertEquals(1, loads.get());
+	}
+
+	@Test
+	public void whenToolInvalidated_shouldEncodeAgain() {
+		var loads = new AtomicInteger();
+
+		cache.tool("id1", () -> { loads.incrementAndGet(); return tool; });
+		cache.invalidate("id1");
+		cache.tool("id1", () -> { loads.incrementAndGet(); return tool; });
+
+		assertEquals(2, loads.get());
+	}
+
+	@Test
+	public void whenCollectionVersionChanges_shouldLoadPageAgain() {
+		var loads = new AtomicInteger();
+		var page = new PageDto<>(List.of(tool), null);
+
+		cache.page(1, "tag=tag1", () -> { loads.incrementAndGet(); return page; });
+		cache.page(1, "tag=tag1", () -> { loads.incrementAndGet(); return page; });
+		cache.page(2, "tag=tag1", () -> { loads.incrementAndGet(); return page; });
+
+		assertEquals(2, loads.get());
+	}
+
+	@Test
+	public void whenMaximumSizeIsZero_shouldBeDisabled() {
+		var disabled = new ToolResponseCache(objectMapper, DataSize.ofBytes(0), Duration.ofMinutes(1));
+
+		assertThat(disabled.isEnabled()).isFalse();
+		assertThat(cache.isEnabled()).isTrue();
+	}
+
+}
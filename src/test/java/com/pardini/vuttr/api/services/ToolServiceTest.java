@@ -4,39 +4,83 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
-import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
+import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import com.pardini.vuttr.api.exceptions.BadRequestException;
+import com.pardini.vuttr.api.exceptions.GoneException;
 import com.pardini.vuttr.api.exceptions.ResourceNotFoundException;
+import com.pardini.vuttr.api.exceptions.ServiceUnavailableException;
+import com.pardini.vuttr.domain.dtos.BatchItemResultDto;
+import com.pardini.vuttr.domain.dtos.ToolBatchItemDto;
 import com.pardini.vuttr.domain.dtos.ToolDto;
+import com.pardini.vuttr.domain.dtos.ToolPatchDto;
+import com.pardini.vuttr.domain.model.ProjectedTool;
 import com.pardini.vuttr.domain.model.Tool;
+import com.pardini.vuttr.domain.repositories.BulkUpsertResult;
+import com.pardini.vuttr.domain.repositories.TagMatch;
+import com.pardini.vuttr.domain.repositories.ToolChange;
+import com.pardini.vuttr.domain.repositories.ToolFields;
 import com.pardini.vuttr.domain.repositories.ToolRepository;
 
 @SpringBootTest
+@ActiveProfiles("test")
 public class ToolServiceTest {
 
 	@Autowired
 	private ToolService toolService;
 
-	@MockBean
+	@Autowired
+	private ToolCache toolCache;
+
+	@Autowired
+	private TagIndex tagIndex;
+
+	@Autowired
+	private LostWrites lostWrites;
+
+	@Autowired
+	private ChangeSequence changeSequence;
+
+	/** Named like the fields it goes into, so it is picked over the profile's repository. */
+	@MockBean(name = "toolRepository")
 	private ToolRepository mockRepository;
 
+	/** Change sequence counter, kept across tests like the {@link ChangeSequence} bean. */
+	private static final AtomicLong changeSeqCounter = new AtomicLong();
+
 	private Tool tool1;
 	private Tool tool2;
 	private Tool tool3;
@@ -45,6 +89,9 @@ public class ToolServiceTest {
 
 	@BeforeEach
 	public void setUp() {
+		when(mockRepository.allocateChangeSeqs(Mockito.anyInt()))
+			.thenAnswer(invocation -> changeSeqCounter.addAndGet(invocation.<Integer>getArgument(0)));
+
 		tool1 = new Tool("id1", "title1", "link1", "description1", new ArrayList<>(Arrays.asList("tag1", "tag2")));
 		tool2 = new Tool("id2", "title2", "link2", "description2", new ArrayList<>(Arrays.asList("tag2", "tag3")));
 		tool3 = new Tool("id3", "title3", "link3", "description3", new ArrayList<>(Arrays.asList("tag3", "tag1")));
@@ -65,6 +112,8 @@ public class ToolServiceTest {
 		tool1 = tool2 = tool3 = null;
 		toolList = null;
 		toolDto = null;
+		toolCache.invalidateAll();
+		tagIndex.clear();
 	}
 
 	/**
@@ -83,14 +132,65 @@ public class ToolServiceTest {
 	}
 
 	@Test
-	public void whenGetAll_thenReturnListOfAllTools() {
-		when(mockRepository.findAll()).thenReturn(toolList);
+	public void whenGetAll_thenReturnFirstPageOfTools() {
+		when(mockRepository.findPage(null, null, null, 21, ToolFields.ALL)).thenReturn(toolList);
+
+		var returned = toolService.getAll(null, null, ToolFields.ALL);
+
+		assertThat(returned.getItems()).isEqualTo(toolList);
+		assertThat(returned.getNext()).isNull();
+
+		verify(mockRepository, times(1)).findPage(null, null, null, 21, ToolFields.ALL);
+	}
+
+	@Test
+	public void whenMoreToolsThanLimit_shouldReturnCursorToNextPage() {
+		toolList.add(tool3);
+		when(mockRepository.findPage(null, null, null, 3, ToolFields.ALL)).thenReturn(toolList);
+
+		var firstPage = toolService.getAll(null, 2, ToolFields.ALL);
+
+		assertThat(firstPage.getItems()).containsExactly(tool1, tool2);
+		assertThat(firstPage.getNext()).isNotNull();
+
+		when(mockRepository.findPage(null, null, "id2", 3, ToolFields.ALL)).thenReturn(new ArrayList<>(Arrays.asList(tool3)));
+
+		var secondPage = toolService.getAll(firstPage.getNext(), 2, ToolFields.ALL);
+
+		assertThat(secondPage.getItems()).containsExactly(tool3);
+		assertThat(secondPage.getNext()).isNull();
+	}
+
+	@Test
+	public void whenLimitAboveMaximum_shouldClampToMaximum() {
+		when(mockRepository.findPage(null, null, null, 101, ToolFields.ALL)).thenReturn(toolList);
 
-		var returned = toolService.getAll();
+		toolService.getAll(null, 5000, ToolFields.ALL);
 
-		assertThat(returned).isSameAs(toolList);
+		verify(mockRepository, times(1)).findPage(null, null, null, 101, ToolFields.ALL);
+	}
 
-		verify(mockRepository, times(1)).findAll();
+	@Test
+	public void whenLimitIsNotPositive_shouldThrowBadRequestException() {
+		Assertions.assertThrows(BadRequestException.class, () -> toolService.getAll(null, 0, ToolFields.ALL));
+	}
+
+	@Test
+	public void whenCursorIsMalformed_shouldThrowBadRequestException() {
+		Assertions.assertThrows(BadRequestException.class, () -> toolService.getAll("not a cursor!", null, ToolFields.ALL));
+	}
+
+	@Test
+	public void whenExport_shouldWriteOneJsonDocumentPerLine() throws Exception {
+		when(mockRepository.streamAll()).thenReturn(Stream.of(tool1, tool2));
+
+		var out = new ByteArrayOutputStream();
+		toolService.export(out);
+
+		assertEquals("{\"id\":\"id1\",\"title\":\"title1\",\"link\":\"link1\",\"description\":\"description1\","
+				+ "\"tags\":[\"tag1\",\"tag2\"],\"version\":null,\"lastModified\":null}\n"
+				+ "{\"id\":\"id2\",\"title\":\"title2\",\"link\":\"link2\",\"description\":\"description2\","
+				+ "\"tags\":[\"tag2\",\"tag3\"],\"version\":null,\"lastModified\":null}\n", out.toString(StandardCharsets.UTF_8));
 	}
 
 	@Test
@@ -105,6 +205,65 @@ public class ToolServiceTest {
 
 	}
 
+	@Test
+	public void whenSearchSameIdTwice_shouldReadRepositoryOnce() {
+		when(mockRepository.findById("id3")).thenReturn(Optional.of(tool3));
+
+		toolService.getById("id3");
+		var returned = toolService.getById("id3");
+
+		assertThat(returned).isSameAs(tool3);
+
+		verify(mockRepository, times(1)).findById("id3");
+	}
+
+	@Test
+	public void whenSearchByIdWithFields_shouldReadOnlyThoseFields() {
+		var fields = ToolFields.parse(Arrays.asList("tags", "title"));
+		var projected = new ProjectedTool("id3", "title3", null, null, tool3.getTags());
+		when(mockRepository.findFields("id3", fields)).thenReturn(Optional.of(projected));
+
+		assertThat(toolService.getById("id3", fields)).isSameAs(projected);
+
+		verify(mockRepository, never()).findById("id3");
+	}
+
+	@Test
+	public void whenSearchCachedIdWithFields_shouldTrimTheCachedTool() {
+		when(mockRepository.findById("id3")).thenReturn(Optional.of(tool3));
+		toolService.getById("id3");
+
+		var returned = toolService.getById("id3", ToolFields.parse(Arrays.asList("title")));
+
+		assertAll("Should keep only the selected fields",
+			() -> assertThat(returned).isInstanceOf(ProjectedTool.class),
+			() -> assertEquals("id3", returned.getId()),
+			() -> assertEquals("title3", returned.getTitle()),
+			() -> assertEquals(null, returned.getDescription()),
+			() -> assertEquals(null, returned.getTags())
+		);
+		verify(mockRepository, never()).findFields(Mockito.any(), Mockito.any());
+	}
+
+	@Test
+	public void whenFieldsAreListedInAnyOrder_shouldShareOneKey() {
+		assertEquals("title,tags", ToolFields.parse(Arrays.asList("tags", "id", "title")).key());
+		Assertions.assertThrows(IllegalArgumentException.class, () -> ToolFields.parse(Arrays.asList("secret")));
+	}
+
+	@Test
+	public void whenUpdate_shouldInvalidateCachedTool() {
+		Tool updated = new Tool("id3", "title4", "link4", "description4", new ArrayList<>(Arrays.asList("tag4")));
+		when(mockRepository.findById("id3")).thenReturn(Optional.of(tool3));
+		when(mockRepository.patch(Mockito.eq("id3"), Mockito.any(ToolPatchDto.class), Mockito.anyLong())).thenReturn(Optional.of(updated));
+
+		toolService.getById("id3");
+		toolService.update("id3", toolDto);
+		when(mockRepository.findById("id3")).thenReturn(Optional.of(updated));
+
+		assertThat(toolService.getById("id3")).isSameAs(updated);
+	}
+
 	@Test
 	public void whenSearchNonExistingId_shouldThrowResourceNotFoundException() {
 		testWhenShouldThrowResourceNotFoundException();
@@ -113,25 +272,84 @@ public class ToolServiceTest {
 	@Test
 	public void whenSearchByTag_shouldReturnAListOfMatchedTools() {
 		var expected = new ArrayList<Tool>(Arrays.asList(tool2, tool3));
-		when(mockRepository.findByTags("tag3")).thenReturn(expected);
+		when(mockRepository.findPage(Arrays.asList("tag3"), TagMatch.ALL, null, 21, ToolFields.ALL)).thenReturn(expected);
 
-		var returned = toolService.getByTag("tag3");
+		var returned = toolService.getByTag("tag3", null, null, ToolFields.ALL);
 
-		assertThat(returned).isSameAs(expected);
+		assertThat(returned.getItems()).isEqualTo(expected);
 
-		verify(mockRepository, times(1)).findByTags("tag3");
+		verify(mockRepository, times(1)).findPage(Arrays.asList("tag3"), TagMatch.ALL, null, 21, ToolFields.ALL);
 	}
 
 	@Test
-	public void whenUpdate_shouldReturnUpdatedTool() {
-		
+	public void whenSearchBySeveralTags_shouldRunOneQueryWithTheRequestedMatch() {
+		var tags = Arrays.asList("tag1", "tag3");
+		var expected = new ArrayList<Tool>(Arrays.asList(tool3));
+		when(mockRepository.findPage(tags, TagMatch.ALL, null, 21, ToolFields.ALL)).thenReturn(expected);
 
-		when(mockRepository.findById("id3")).thenReturn(Optional.of(tool3));
+		var returned = toolService.getByTags(tags, TagMatch.ALL, null, null, ToolFields.ALL);
+
+		assertThat(returned.getItems()).isEqualTo(expected);
+
+		verify(mockRepository, times(1)).findPage(tags, TagMatch.ALL, null, 21, ToolFields.ALL);
+	}
+
+	@Test
+	public void whenSearchByTooManyTags_shouldThrowBadRequestException() {
+		var tags = new ArrayList<String>();
+		for (int i = 0; i < 21; i++) {
+			tags.add("tag" + i);
+		}
+
+		Assertions.assertThrows(BadRequestException.class,
+				() -> toolService.getByTags(tags, TagMatch.ANY, null, null, ToolFields.ALL));
+	}
+
+	@Test
+	public void whenTagIndexIsReady_shouldServeTagPagesFromMemory() {
+		tagIndex.rebuild(Arrays.asList(tool1, tool2, tool3).iterator());
+		when(mockRepository.findAllById(Mockito.anyIterable())).thenReturn(Arrays.asList(tool1, tool3));
+
+		var firstPage = toolService.getByTag("tag1", null, 1, ToolFields.ALL);
+
+		assertThat(firstPage.getItems()).containsExactly(tool1);
+		assertThat(firstPage.getNext()).isNotNull();
+
+		var secondPage = toolService.getByTag("tag1", firstPage.getNext(), 1, ToolFields.ALL);
+
+		assertThat(secondPage.getItems()).containsExactly(tool3);
+		assertThat(secondPage.getNext()).isNull();
+
+		verify(mockRepository, Mockito.never()).findPage(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.anyInt(), Mockito.any());
+	}
+
+	@Test
+	public void whenSearch_shouldPageThroughRankedResultsByOffset() {
+		when(mockRepository.search("java", 0, 3)).thenReturn(new ArrayList<>(Arrays.asList(tool3, tool1, tool2)));
+		when(mockRepository.search("java", 2, 3)).thenReturn(new ArrayList<>(Arrays.asList(tool2)));
+
+		var firstPage = toolService.search("java", null, 2);
+
+		assertThat(firstPage.getItems()).containsExactly(tool3, tool1);
+		assertThat(firstPage.getNext()).isNotNull();
+
+		var secondPage = toolService.search("java", firstPage.getNext(), 2);
+
+		assertThat(secondPage.getItems()).containsExactly(tool2);
+		assertThat(secondPage.getNext()).isNull();
+	}
 
+	@Test
+	public void whenSearchTextIsBlank_shouldThrowBadRequestException() {
+		Assertions.assertThrows(BadRequestException.class, () -> toolService.search(" ", null, null));
+	}
+
+	@Test
+	public void whenUpdate_shouldReturnUpdatedTool() {
 		Tool expected = new Tool("id3", "title4", "link4", "description4",
 				new ArrayList<String>(Arrays.asList("tag4", "tag1")));
 
-		when(mockRepository.save(Mockito.any(Tool.class))).thenReturn(expected);
+		when(mockRepository.patch(Mockito.eq("id3"), Mockito.eq(ToolPatchDto.of(toolDto)), Mockito.anyLong())).thenReturn(Optional.of(expected));
 
 		var returned = toolService.update("id3", toolDto);
 
@@ -145,13 +363,29 @@ public class ToolServiceTest {
 			() -> assertEquals(expected.getTags(), returned.getTags())
 		);
 
-		verify(mockRepository, times(1)).findById("id3");
-		verify(mockRepository, times(1)).save(Mockito.any(Tool.class));
+		// a single round trip: no read before the write
+		verify(mockRepository, never()).findById("id3");
+		verify(mockRepository, times(1)).patch(Mockito.eq("id3"), Mockito.eq(ToolPatchDto.of(toolDto)), Mockito.anyLong());
 	}
 	
 	@Test
 	public void whenUpdateNonExistingTool_shouldThrowResourceNotFoundException() {
-		testWhenShouldThrowResourceNotFoundException();
+		when(mockRepository.patch(Mockito.eq("d"), Mockito.any(ToolPatchDto.class), Mockito.anyLong())).thenReturn(Optional.empty());
+
+		Assertions.assertThrows(ResourceNotFoundException.class, () -> toolService.update("d", toolDto));
+	}
+
+	@Test
+	public void whenPatch_shouldReindexTheReturnedTags() {
+		tagIndex.rebuild(Arrays.asList(tool1, tool2, tool3).iterator());
+		var patch = new ToolPatchDto();
+		patch.setAddTags(Arrays.asList("tag9"));
+		Tool patched = new Tool("id3", "title3", "link3", "description3", Arrays.asList("tag3", "tag1", "tag9"));
+		when(mockRepository.patch(Mockito.eq("id3"), Mockito.eq(patch), Mockito.anyLong())).thenReturn(Optional.of(patched));
+
+		toolService.patch("id3", patch);
+
+		assertEquals("id3", tagIndex.idOf(tagIndex.find(Arrays.asList("tag9"), TagMatch.ALL, -1, 10)[0]));
 	}
 	
 	@Test
@@ -175,7 +409,109 @@ public class ToolServiceTest {
 
 		verify(mockRepository, times(1)).save(Mockito.any(Tool.class));
 	}
+
+	@Test
+	public void whenSave_shouldChangeCollectionVersion() {
+		when(mockRepository.save(Mockito.any(Tool.class))).thenReturn(tool1);
+		long version = toolService.getCollectionVersion();
+
+		toolService.save(toolDto);
+
+		assertEquals(version + 1, toolService.getCollectionVersion());
+	}
+
+	@Test
+	public void whenAWriteFails_shouldStillChangeCollectionVersion() {
+		toolDto.setDescription("description long enough");
+		var item = new ToolBatchItemDto();
+		BeanUtils.copyProperties(toolDto, item);
+		long version = toolService.getCollectionVersion();
+
+		// the write may have landed before the failure was reported
+		when(mockRepository.upsertAll(Mockito.anyList())).thenThrow(new DataAccessResourceFailureException("timeout"));
+
+		Assertions.assertThrows(DataAccessResourceFailureException.class,
+				() -> toolService.saveAll(Arrays.asList(item)));
+
+		assertEquals(version + 1, toolService.getCollectionVersion());
+	}
 	
+	@Test
+	public void whenSaveAll_shouldValidateEachItemAndBulkWriteTheValidOnes() {
+		toolDto.setDescription("description long enough");
+		var created = new ToolBatchItemDto();
+		BeanUtils.copyProperties(toolDto, created);
+		var updated = new ToolBatchItemDto();
+		BeanUtils.copyProperties(toolDto, updated);
+		updated.setId("5f8d0d55b54764421b7156c9");
+		var invalid = new ToolBatchItemDto();
+		invalid.setId("not-an-object-id");
+
+		when(mockRepository.upsertAll(Mockito.anyList()))
+				.thenReturn(new BulkUpsertResult(new HashSet<>(Arrays.asList(0)), new HashMap<>()));
+
+		var result = toolService.saveAll(Arrays.asList(created, invalid, updated));
+
+		assertAll("Should report every item",
+			() -> assertEquals(1, result.getCreated()),
+			() -> assertEquals(1, result.getUpdated()),
+			() -> assertEquals(1, result.getInvalid()),
+			() -> assertEquals(BatchItemResultDto.Status.CREATED, result.getItems().get(0).getStatus()),
+			() -> assertEquals(BatchItemResultDto.Status.INVALID, result.getItems().get(1).getStatus()),
+			() -> assertTrue(result.getItems().get(1).getErrors().stream().anyMatch(e -> e.getFieldName().equals("id"))),
+			() -> assertEquals("5f8d0d55b54764421b7156c9", result.getItems().get(2).getId())
+		);
+
+		verify(mockRepository, times(1)).upsertAll(Mockito.anyList());
+	}
+
+	@Test
+	public void whenSaveAllNdjson_shouldParseEveryLine() throws Exception {
+		String body = "{\"title\":\"t1\",\"link\":\"l1\",\"description\":\"description long enough\",\"tags\":[\"a\"]}\n"
+				+ "{\"title\":\"t2\",\"link\":\"l2\",\"description\":\"description long enough\",\"tags\":[\"b\"]}\n";
+
+		when(mockRepository.upsertAll(Mockito.anyList()))
+				.thenReturn(new BulkUpsertResult(new HashSet<>(Arrays.asList(0, 1)), new HashMap<>()));
+
+		var result = toolService.saveAll(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+
+		assertEquals(2, result.getCreated());
+	}
+
+	@Test
+	public void whenSaveAllNdjsonHasAMalformedLine_shouldWriteTheLinesBeforeItAndReportIt() throws Exception {
+		String body = "{\"title\":\"t1\",\"link\":\"l1\",\"description\":\"description long enough\",\"tags\":[\"a\"]}\n"
+				+ "{\"title\":";
+
+		when(mockRepository.upsertAll(Mockito.anyList()))
+				.thenReturn(new BulkUpsertResult(new HashSet<>(Arrays.asList(0)), new HashMap<>()));
+
+		var result = toolService.saveAll(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+
+		assertEquals(1, result.getCreated());
+		assertEquals(1, result.getInvalid());
+		assertEquals(1, result.getItems().get(1).getIndex());
+		assertEquals("body", result.getItems().get(1).getErrors().get(0).getFieldName());
+	}
+
+	@Test
+	public void whenSaveAllNdjsonHasTooManyLines_shouldStopAtTheFirstOneOver() throws Exception {
+		String line = "{\"title\":\"t\",\"link\":\"l\",\"description\":\"description long enough\",\"tags\":[\"a\"]}\n";
+		Object batchMaxItems = ReflectionTestUtils.getField(toolService, "batchMaxItems");
+		ReflectionTestUtils.setField(toolService, "batchMaxItems", 2);
+		when(mockRepository.upsertAll(Mockito.anyList()))
+				.thenReturn(new BulkUpsertResult(new HashSet<>(Arrays.asList(0, 1)), new HashMap<>()));
+		try {
+			var result = toolService.saveAll(new ByteArrayInputStream((line + line + line).getBytes(StandardCharsets.UTF_8)));
+
+			assertEquals(2, result.getCreated());
+			assertEquals(1, result.getInvalid());
+			assertEquals(2, result.getItems().get(2).getIndex());
+		} finally {
+			ReflectionTestUtils.setField(toolService, "batchMaxItems", batchMaxItems);
+		}
+	}
+
 	@Test
 	public void whenDeleteNonExistingTool_shouldThrowResourceNotFoundException() {
 		testWhenShouldThrowResourceNotFoundException();
@@ -183,13 +519,153 @@ public class ToolServiceTest {
 	
 	@Test
 	public void whenDelete_shouldCallDeleteRepoMethod() {
-		when(mockRepository.findById("id1")).thenReturn(Optional.of(tool1));
-		
-		doNothing().when(mockRepository).delete(tool1);
+		when(mockRepository.removeById("id1")).thenReturn(true);
 		
 		toolService.delete("id1");
 		
-		verify(mockRepository, times(1)).delete(tool1);
+		verify(mockRepository, times(1)).removeById("id1");
+		verify(mockRepository, never()).findById("id1");
+		verify(mockRepository, times(1)).saveTombstones(Mockito.eq(List.of("id1")), Mockito.anyLong());
+	}
+
+	@Test
+	public void whenDeleteRemovesNothing_shouldThrowResourceNotFoundException() {
+		when(mockRepository.removeById("d")).thenReturn(false);
+
+		Assertions.assertThrows(ResourceNotFoundException.class, () -> toolService.delete("d"));
+
+		verify(mockRepository, never()).saveTombstones(Mockito.anyList(), Mockito.anyLong());
+	}
+
+	@Test
+	public void whenDeleteByTag_shouldDropTaggedToolsFromIndexAndCache() {
+		tagIndex.rebuild(Arrays.asList(tool1, tool2, tool3).iterator());
+		when(mockRepository.findById("id2")).thenReturn(Optional.of(tool2));
+		toolService.getById("id2");
+		when(mockRepository.findIdsByTag(Mockito.eq("tag2"), Mockito.isNull(), Mockito.anyInt()))
+			.thenReturn(List.of("id1", "id2"));
+		when(mockRepository.removeTagged(List.of("id1", "id2"), "tag2")).thenReturn(2L);
+
+		var result = toolService.deleteByTag("tag2");
+
+		assertEquals(2, result.getDeleted());
+		verify(mockRepository, times(1)).saveTombstones(Mockito.eq(List.of("id1", "id2")), Mockito.anyLong());
+		assertEquals(0, tagIndex.find(Arrays.asList("tag2"), TagMatch.ALL, -1, 10).length);
+		assertEquals(1, tagIndex.find(Arrays.asList("tag3"), TagMatch.ALL, -1, 10).length);
+		when(mockRepository.findById("id2")).thenReturn(Optional.empty());
+		Assertions.assertThrows(ResourceNotFoundException.class, () -> toolService.getById("id2"));
+	}
+
+	@Test
+	public void whenDeleteByTag_shouldDeleteAChunkAtATimeAndTombstoneOnlyWhatWasDeleted() {
+		Object batchMaxItems = ReflectionTestUtils.getField(toolService, "batchMaxItems");
+		ReflectionTestUtils.setField(toolService, "batchMaxItems", 2);
+		try {
+			when(mockRepository.findIdsByTag(Mockito.eq("tag1"), Mockito.isNull(), Mockito.eq(2)))
+				.thenReturn(List.of("id1", "id2"));
+			when(mockRepository.findIdsByTag("tag1", "id2", 2)).thenReturn(List.of("id3"));
+			when(mockRepository.findIdsByTag("tag1", "id3", 2)).thenReturn(List.of());
+			when(mockRepository.removeTagged(List.of("id1", "id2"), "tag1")).thenReturn(1L);
+			when(mockRepository.findAllById(List.of("id1", "id2"))).thenReturn(List.of(tool1));
+			when(mockRepository.removeTagged(List.of("id3"), "tag1")).thenReturn(1L);
+
+			var result = toolService.deleteByTag("tag1");
+
+			assertEquals(2, result.getDeleted());
+			verify(mockRepository, times(1)).saveTombstones(Mockito.eq(List.of("id2")), Mockito.anyLong());
+			verify(mockRepository, times(1)).saveTombstones(Mockito.eq(List.of("id3")), Mockito.anyLong());
+		} finally {
+			ReflectionTestUtils.setField(toolService, "batchMaxItems", batchMaxItems);
+		}
+	}
+
+	@Test
+	public void whenDeleteAllWithoutIds_shouldThrowBadRequestException() {
+		Assertions.assertThrows(BadRequestException.class, () -> toolService.deleteAll(new ArrayList<>()));
+	}
+
+	@Test
+	public void whenAQueuedWriteTakesTooLong_shouldThrowServiceUnavailable() throws InterruptedException {
+		var release = new CountDownLatch(1);
+		when(mockRepository.insertUnordered(Mockito.anyList())).thenAnswer(invocation -> {
+			release.await(5, TimeUnit.SECONDS);
+			return Map.of();
+		});
+
+		withWriteBehind(Duration.ofMillis(50), () -> {
+			Assertions.assertThrows(ServiceUnavailableException.class, () -> toolService.save(toolDto));
+			release.countDown();
+		});
+	}
+
+	@Test
+	public void whenAnAcceptedWriteFails_shouldCountIt() throws InterruptedException {
+		when(mockRepository.insertUnordered(Mockito.anyList()))
+			.thenThrow(new DataAccessResourceFailureException("connection lost"));
+		long before = lostWrites.count();
+
+		withWriteBehind(Duration.ofSeconds(5), () -> toolService.accept(toolDto));
+
+		assertEquals(before + 1, lostWrites.count());
+	}
+
+	@Test
+	public void whenAQueuedToolIsRejected_shouldFailItAloneAndKeepTheRest() throws InterruptedException {
+		when(mockRepository.insertUnordered(Mockito.anyList())).thenAnswer(invocation -> {
+			List<Tool> tools = invocation.getArgument(0);
+			Map<Integer, String> errors = new HashMap<>();
+			for (int i = 0; i < tools.size(); i++) {
+				if (tools.get(i).getTitle().equals("rejected")) {
+					errors.put(i, "duplicate key");
+				}
+			}
+			return errors;
+		});
+		var rejected = new ToolDto();
+		BeanUtils.copyProperties(toolDto, rejected);
+		rejected.setTitle("rejected");
+		rejected.setTags(List.of("tag5"));
+		long before = lostWrites.count();
+
+		withWriteBehind(Duration.ofSeconds(5), () -> {
+			toolService.accept(toolDto);
+			toolService.accept(rejected);
+		});
+
+		assertEquals(before + 1, lostWrites.count());
+		assertEquals(1, tagIndex.find(List.of("tag4"), TagMatch.ALL, -1, 10).length);
+		assertEquals(0, tagIndex.find(List.of("tag5"), TagMatch.ALL, -1, 10).length);
+	}
+
+	/** Runs the action with write-behind enabled, then drains the queue. */
+	private void withWriteBehind(Duration timeout, Runnable action) throws InterruptedException {
+		ReflectionTestUtils.setField(toolService, "writeBehindEnabled", true);
+		ReflectionTestUtils.setField(toolService, "writeBehindTimeout", timeout);
+		toolService.startWriteBehind();
+		try {
+			action.run();
+		} finally {
+			toolService.stopWriteBehind();
+			ReflectionTestUtils.setField(toolService, "writeBehind", null);
+			ReflectionTestUtils.setField(toolService, "writeBehindEnabled", false);
+		}
+	}
+
+	@Test
+	public void whenAChangesPageIsCutShort_shouldKeepTheTimeTheClientLastCaughtUp() throws InterruptedException {
+		when(mockRepository.findChanges(Mockito.eq(0L), Mockito.anyLong(), Mockito.eq(1)))
+			.thenReturn(List.of(new ToolChange(1, "id1", tool1)));
+		when(mockRepository.findChanges(Mockito.eq(0L), Mockito.anyLong(), Mockito.eq(10)))
+			.thenReturn(List.of(new ToolChange(1, "id1", tool1)));
+		// the client caught up just before the tombstones it needs start to expire
+		String since = changeSequence.token(0, Instant.now().minus(Duration.ofDays(30)).plusMillis(500));
+
+		String cutShort = toolService.getChanges(since, 1).getNext();
+		String complete = toolService.getChanges(since, 10).getNext();
+		Thread.sleep(700);
+
+		Assertions.assertThrows(GoneException.class, () -> changeSequence.positionOf(cutShort));
+		assertEquals(1L, changeSequence.positionOf(complete).getChangeSeq());
 	}
 
 }
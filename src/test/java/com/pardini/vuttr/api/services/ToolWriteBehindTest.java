@@ -0,0 +1,122 @@
+package com.pardini.vuttr.api.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.pardini.vuttr.api.exceptions.ServiceUnavailableException;
+import com.pardini.vuttr.api.exceptions.TooManyRequestsException;
+import com.pardini.vuttr.domain.model.Tool;
+
+public class ToolWriteBehindTest {
+
+	private final List<List<Tool>> batches = new CopyOnWriteArrayList<>();
+
+	@Test
+	public void whenBatchSizeIsReached_shouldInsertTheBatchAtOnce() throws Exception {
+		var writeBehind = new ToolWriteBehind(10, 3, Duration.ofMinutes(1), this::record);
+
+		var results = new ArrayList<CompletableFuture<Tool>>();
+		for (int i = 0; i < 3; i++) {
+			results.add(writeBehind.submit(tool("id" + i)));
+		}
+
+		assertEquals("id2", results.get(2).get(5, TimeUnit.SECONDS).getId());
+		assertEquals(1, batches.size());
+		assertEquals(3, batches.get(0).size());
+		writeBehind.close();
+	}
+
+	@Test
+	public void whenMaxDelayPasses_shouldInsertAPartialBatch() throws Exception {
+		var writeBehind = new ToolWriteBehind(10, 100, Duration.ofMillis(20), this::record);
+
+		var result = writeBehind.submit(tool("id1"));
+
+		assertEquals("id1", result.get(5, TimeUnit.SECONDS).getId());
+		assertEquals(1, batches.get(0).size());
+		writeBehind.close();
+	}
+
+	@Test
+	public void whenQueueIsFull_shouldRejectAndAfterCloseShouldBeUnavailable() throws Exception {
+		var blocked = new CountDownLatch(1);
+		var release = new CountDownLatch(1);
+		var writeBehind = new ToolWriteBehind(1, 1, Duration.ZERO, tools -> {
+			blocked.countDown();
+			await(release);
+			return Map.of();
+		});
+
+		writeBehind.submit(tool("id1"));
+		blocked.await(5, TimeUnit.SECONDS);
+		writeBehind.submit(tool("id2"));
+
+		assertThrows(TooManyRequestsException.class, () -> writeBehind.submit(tool("id3")));
+		release.countDown();
+		writeBehind.close();
+		assertThrows(ServiceUnavailableException.class, () -> writeBehind.submit(tool("id4")));
+	}
+
+	@Test
+	public void whenBatchFails_shouldFailEveryToolWithoutRetrying() throws Exception {
+		var attempts = new CopyOnWriteArrayList<List<Tool>>();
+		var writeBehind = new ToolWriteBehind(10, 2, Duration.ofMinutes(1), tools -> {
+			attempts.add(List.copyOf(tools));
+			throw new IllegalStateException("rejected");
+		});
+
+		var first = writeBehind.submit(tool("id1"));
+		var second = writeBehind.submit(tool("id2"));
+
+		var failure = assertThrows(CompletionException.class, first::join);
+		assertThat(failure.getCause()).isInstanceOf(IllegalStateException.class);
+		assertSame(failure.getCause(), assertThrows(CompletionException.class, second::join).getCause());
+		assertEquals(1, attempts.size());
+		writeBehind.close();
+	}
+
+	@Test
+	public void whenSomeToolsAreRejected_shouldFailOnlyThoseAndStoreTheRest() throws Exception {
+		var rejected = new IllegalStateException("duplicate");
+		var writeBehind = new ToolWriteBehind(10, 2, Duration.ofMinutes(1), tools -> Map.of(0, rejected));
+
+		var first = writeBehind.submit(tool("id1"));
+		var second = writeBehind.submit(tool("id2"));
+
+		assertSame(rejected, assertThrows(CompletionException.class, first::join).getCause());
+		assertEquals("id2", second.get(5, TimeUnit.SECONDS).getId());
+		writeBehind.close();
+	}
+
+	private Map<Integer, RuntimeException> record(List<Tool> tools) {
+		batches.add(List.copyOf(tools));
+		return Map.of();
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static Tool tool(String id) {
+		return new Tool(id, "title", "link", "description", List.of("tag1"));
+	}
+
+}
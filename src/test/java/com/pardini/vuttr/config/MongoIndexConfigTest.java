@@ -0,0 +1,71 @@
+package com.pardini.vuttr.config;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.pardini.vuttr.domain.model.Tool;
+
+public class MongoIndexConfigTest {
+
+	private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+
+	private final IndexOperations tombstones = mock(IndexOperations.class);
+
+	private final MongoIndexConfig config = new MongoIndexConfig();
+
+	@BeforeEach
+	public void setUp() {
+		when(this.mongoTemplate.indexOps(Tool.class)).thenReturn(mock(IndexOperations.class));
+		when(this.mongoTemplate.indexOps(anyString())).thenReturn(this.tombstones);
+		ReflectionTestUtils.setField(this.config, "mongoTemplate", this.mongoTemplate);
+		ReflectionTestUtils.setField(this.config, "tombstoneRetention", Duration.ofDays(30));
+	}
+
+	@Test
+	public void whenTheRetentionChanged_shouldChangeTheTtlInPlace() {
+		when(this.tombstones.getIndexInfo()).thenReturn(List.of(ttlIndex(Duration.ofDays(7))));
+
+		this.config.ensureIndexes();
+
+		verify(this.mongoTemplate).executeCommand(argThat((Document command) -> "tool_tombstones"
+				.equals(command.get("collMod"))
+				&& Long.valueOf(Duration.ofDays(30).getSeconds())
+					.equals(command.get("index", Document.class).get("expireAfterSeconds"))));
+		// the changeSeq index only
+		verify(this.tombstones, times(1)).ensureIndex(any());
+	}
+
+	@Test
+	public void whenTheRetentionIsUnchanged_shouldOnlyEnsureTheIndex() {
+		when(this.tombstones.getIndexInfo()).thenReturn(List.of(ttlIndex(Duration.ofDays(30))));
+
+		this.config.ensureIndexes();
+
+		verify(this.mongoTemplate, never()).executeCommand(any(Document.class));
+		verify(this.tombstones, times(2)).ensureIndex(any());
+	}
+
+	private static IndexInfo ttlIndex(Duration expireAfter) {
+		return IndexInfo.indexInfoOf(new Document("name", "deletedAt_ttl")
+			.append("key", new Document("deletedAt", 1))
+			.append("expireAfterSeconds", expireAfter.getSeconds()));
+	}
+
+}
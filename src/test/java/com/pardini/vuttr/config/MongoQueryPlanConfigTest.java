@@ -0,0 +1,21 @@
+package com.pardini.vuttr.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+public class MongoQueryPlanConfigTest {
+
+	@Test
+	public void whenParsingTheMode_shouldIgnoreCase() {
+		assertEquals(MongoQueryPlanConfig.Mode.WARN, MongoQueryPlanConfig.Mode.parse("Warn"));
+		assertEquals(MongoQueryPlanConfig.Mode.FAIL, MongoQueryPlanConfig.Mode.parse("fail"));
+	}
+
+	@Test
+	public void whenTheModeIsUnknown_shouldRefuseToStart() {
+		assertThrows(IllegalArgumentException.class, () -> new MongoQueryPlanConfig("fial"));
+	}
+
+}
@@ -0,0 +1,54 @@
+package com.pardini.vuttr.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.bson.BsonDocument;
+import org.bson.BsonInt32;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.BsonDocumentCodec;
+import org.junit.jupiter.api.Test;
+
+import com.mongodb.ServerAddress;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ConnectionDescription;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.CommandSucceededEvent;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class MongoReplySizeListenerTest {
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+	private final MongoReplySizeListener listener = new MongoReplySizeListener(this.registry);
+
+	private final ConnectionDescription connection = new ConnectionDescription(
+			new ServerId(new ClusterId(), new ServerAddress()));
+
+	@Test
+	public void whenCommandSucceeds_shouldRecordReplySizePerCommand() {
+		RawBsonDocument reply = new RawBsonDocument(new BsonDocument("ok", new BsonInt32(1)), new BsonDocumentCodec());
+
+		this.listener.commandSucceeded(this.succeeded("find", reply));
+		this.listener.commandSucceeded(this.succeeded("find", reply));
+		this.listener.commandSucceeded(this.succeeded("insert", reply));
+
+		var find = this.registry.get("mongodb.driver.reply.size").tag("command", "find").summary();
+		assertEquals(2, find.count());
+		assertEquals(2.0 * reply.getByteBuffer().remaining(), find.totalAmount());
+		assertEquals(1, this.registry.get("mongodb.driver.reply.size").tag("command", "insert").summary().count());
+	}
+
+	@Test
+	public void whenReplyIsNotRaw_shouldRecordNothing() {
+		this.listener.commandSucceeded(this.succeeded("find", new BsonDocument("ok", new BsonInt32(1))));
+
+		assertNull(this.registry.find("mongodb.driver.reply.size").summary());
+	}
+
+	private CommandSucceededEvent succeeded(String command, BsonDocument reply) {
+		return new CommandSucceededEvent(null, 1, this.connection, command, reply, 1000);
+	}
+
+}
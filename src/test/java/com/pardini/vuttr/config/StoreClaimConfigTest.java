@@ -0,0 +1,64 @@
+package com.pardini.vuttr.config;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.pardini.vuttr.domain.repositories.ToolRepository;
+
+public class StoreClaimConfigTest {
+
+	private final ToolRepository toolRepository = mock(ToolRepository.class);
+
+	private final ConfigurableApplicationContext context = mock(ConfigurableApplicationContext.class);
+
+	private final StoreClaimConfig config = new StoreClaimConfig();
+
+	@BeforeEach
+	public void setUp() {
+		ReflectionTestUtils.setField(this.config, "toolRepository", this.toolRepository);
+		ReflectionTestUtils.setField(this.config, "context", this.context);
+		ReflectionTestUtils.setField(this.config, "ttl", Duration.ofSeconds(30));
+	}
+
+	@Test
+	public void whenAnotherNodeHoldsTheStore_shouldRefuseToStart() {
+		when(this.toolRepository.claimStore(anyString(), any())).thenReturn(false);
+
+		assertThrows(IllegalStateException.class, this.config::claimStore);
+	}
+
+	@Test
+	public void whenTheClaimIsTakenOver_shouldShutDown() {
+		when(this.toolRepository.claimStore(anyString(), any())).thenReturn(true, false);
+		this.config.claimStore();
+
+		this.config.renewClaim();
+
+		verify(this.context).close();
+	}
+
+	@Test
+	public void whenTheStoreIsUnreachable_shouldKeepRunning() {
+		when(this.toolRepository.claimStore(anyString(), any())).thenReturn(true)
+			.thenThrow(new DataAccessResourceFailureException("down"));
+		this.config.claimStore();
+
+		this.config.renewClaim();
+
+		verify(this.context, never()).close();
+	}
+
+}
@@ -0,0 +1,87 @@
+package com.pardini.vuttr.domain.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+public class TagDictionaryTest {
+
+	@Test
+	public void whenNormalizing_shouldTrimCollapseLowerCaseAndDropDuplicates() {
+		List<String> normalized = TagDictionary.normalize(Arrays.asList("  Node.JS ", "web\t\tframework", "node.js"));
+
+		assertEquals(Arrays.asList("node.js", "web framework"), normalized);
+		assertEquals(null, TagDictionary.normalize((List<String>) null));
+	}
+
+	@Test
+	public void whenToolsHaveEqualTags_shouldShareTheStrings() {
+		var dictionary = new TagDictionary(100);
+		var tool1 = new Tool("id1", "t", "l", "d", dictionary.intern(Arrays.asList(new String("shared-tag"), "b")));
+		var tool2 = new Tool("id2", "t", "l", "d", dictionary.intern(Arrays.asList("c", new String("shared-tag"))));
+
+		assertSame(tool1.getTags().get(0), tool2.getTags().get(1));
+		assertEquals(Arrays.asList("shared-tag", "b"), tool1.getTags());
+		assertTrue(tool2.getTags().contains("shared-tag"));
+		assertThat(tool2.getTags()).doesNotContain("never-used-tag");
+		assertThrows(UnsupportedOperationException.class, () -> tool1.getTags().add("x"));
+	}
+
+	@Test
+	public void whenFull_shouldLeaveNewTagsUnshared() {
+		var dictionary = new TagDictionary(2);
+		dictionary.intern(Arrays.asList("a", "b"));
+
+		var first = dictionary.intern(Arrays.asList(new String("c")));
+		var second = dictionary.intern(Arrays.asList(new String("c")));
+
+		assertEquals(first, second);
+		assertNotSame(first.get(0), second.get(0));
+		assertEquals(2, dictionary.size());
+	}
+
+	@Test
+	public void whenRetaining_shouldReclaimTagsNoLongerCarried() {
+		var dictionary = new TagDictionary(2);
+		dictionary.intern(Arrays.asList("a", "b"));
+
+		dictionary.retainAll(List.of("a"));
+		var tags = dictionary.intern(Arrays.asList(new String("c")));
+
+		assertEquals(2, dictionary.size());
+		assertSame(tags.get(0), dictionary.intern(Arrays.asList(new String("c"))).get(0));
+	}
+
+	@Test
+	public void whenReadFromMongo_shouldHoldTagsInATagList() {
+		var conversions = new MongoCustomConversions(List.of());
+		var mappingContext = new MongoMappingContext();
+		mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+		var converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+		converter.setCustomConversions(conversions);
+		converter.afterPropertiesSet();
+		var document = new Document("_id", "id1").append("tags", Arrays.asList(new String("mongo-tag"), "other"));
+
+		Tool tool = converter.read(Tool.class, document);
+		Document written = new Document();
+		converter.write(tool, written);
+
+		assertThat(tool.getTags()).isInstanceOf(TagList.class);
+		assertEquals(Arrays.asList("mongo-tag", "other"), written.get("tags"));
+	}
+
+}
@@ -0,0 +1,51 @@
+package com.pardini.vuttr.domain.repositories;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+
+public class ToolQueryPlansTest {
+
+	@Test
+	public void whenWinningPlanUsesAnIndex_shouldNotReportAScan() {
+		Document explain = explain(stage("LIMIT", stage("FETCH", stage("IXSCAN", null))),
+				List.of(stage("SORT", stage("COLLSCAN", null))));
+
+		assertFalse(ToolQueryPlans.scansCollection(explain));
+	}
+
+	@Test
+	public void whenWinningPlanScansTheCollection_shouldReportIt() {
+		Document explain = explain(stage("SORT", stage("COLLSCAN", null)), List.of());
+
+		assertTrue(ToolQueryPlans.scansCollection(explain));
+	}
+
+	@Test
+	public void whenAShardScansTheCollection_shouldReportIt() {
+		Document shard = new Document("shardName", "shard1")
+			.append("winningPlan", stage("SORT", stage("COLLSCAN", null)))
+			.append("rejectedPlans", List.of());
+		Document explain = explain(new Document("stage", "SINGLE_SHARD").append("shards", List.of(shard)), List.of());
+
+		assertTrue(ToolQueryPlans.scansCollection(explain));
+	}
+
+	private static Document explain(Document winningPlan, List<Document> rejectedPlans) {
+		return new Document("queryPlanner",
+				new Document("winningPlan", winningPlan).append("rejectedPlans", rejectedPlans));
+	}
+
+	private static Document stage(String name, Document input) {
+		Document stage = new Document("stage", name);
+		if (input != null) {
+			stage.append("inputStage", input);
+		}
+		return stage;
+	}
+
+}
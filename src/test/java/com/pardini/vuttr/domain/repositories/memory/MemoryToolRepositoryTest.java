@@ -0,0 +1,255 @@
+package com.pardini.vuttr.domain.repositories.memory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.util.unit.DataSize;
+
+import com.pardini.vuttr.domain.dtos.ToolPatchDto;
+import com.pardini.vuttr.domain.model.Tool;
+import com.pardini.vuttr.domain.repositories.TagMatch;
+import com.pardini.vuttr.domain.repositories.ToolChange;
+import com.pardini.vuttr.domain.repositories.ToolFields;
+
+public class MemoryToolRepositoryTest {
+
+	@TempDir
+	Path directory;
+
+	private MemoryToolRepository repository;
+
+	@BeforeEach
+	public void setUp() throws IOException {
+		repository = open();
+	}
+
+	@AfterEach
+	public void tearDown() throws IOException {
+		repository.close();
+	}
+
+	@Test
+	public void whenSaved_shouldAssignIdAndVersionAndRejectStaleVersions() {
+		Tool saved = repository.save(tool(null, "tag1"));
+
+		assertThat(saved.getId()).isNotNull();
+		assertEquals(0L, saved.getVersion());
+		assertThat(saved.getLastModified()).isNotNull();
+
+		Tool updated = repository.save(saved);
+		assertEquals(1L, updated.getVersion());
+		assertThrows(OptimisticLockingFailureException.class, () -> repository.save(saved));
+		assertThrows(DuplicateKeyException.class, () -> repository.insert(List.of(tool(saved.getId(), "tag1"))));
+	}
+
+	@Test
+	public void whenPaging_shouldMatchTagsAndContinueAfterTheId() {
+		repository.save(tool("id1", "tag1", "tag2"));
+		repository.save(tool("id2", "tag2"));
+		repository.save(tool("id3", "tag1", "tag2"));
+		repository.save(tool("id4", "tag3"));
+
+		assertEquals(List.of("id1", "id3"), ids(repository.findPage(List.of("tag1", "tag2"), TagMatch.ALL, null, 10,
+				ToolFields.ALL)));
+		assertEquals(List.of("id3", "id4"), ids(repository.findPage(List.of("tag1", "tag3"), TagMatch.ANY, "id1", 10,
+				ToolFields.ALL)));
+		assertEquals(List.of("id2", "id3"), ids(repository.findPage(null, null, "id1", 2, ToolFields.ALL)));
+	}
+
+	@Test
+	public void whenPatched_shouldChangeOnlyThePatchedFieldsAndBumpTheVersion() {
+		repository.save(tool("id1", "tag1", "tag2"));
+		ToolPatchDto patch = new ToolPatchDto();
+		patch.setTitle("new title");
+		patch.setAddTags(List.of("tag3", "tag1"));
+		patch.setRemoveTags(List.of("tag2"));
+
+		Tool patched = repository.patch("id1", patch, 1).orElseThrow();
+
+		assertEquals("new title", patched.getTitle());
+		assertEquals("link", patched.getLink());
+		assertEquals(List.of("tag1", "tag3"), patched.getTags());
+		assertEquals(1L, patched.getVersion());
+		assertThat(repository.patch("missing", patch, 2)).isEmpty();
+		assertEquals(0, repository.findPage(List.of("tag2"), TagMatch.ALL, null, 10, ToolFields.ALL).size());
+	}
+
+	@Test
+	public void whenRemovingByTag_shouldCountOnlyTaggedTools() {
+		repository.save(tool("id1", "tag1"));
+		repository.save(tool("id2", "tag1", "tag2"));
+		repository.save(tool("id3", "tag2"));
+
+		assertEquals(List.of("id1"), repository.findIdsByTag("tag1", null, 1));
+		assertEquals(List.of("id2"), repository.findIdsByTag("tag1", "id1", 10));
+		assertEquals(2, repository.removeTagged(List.of("id1", "id2", "id3"), "tag1"));
+		assertEquals(List.of("id3"), ids(all(repository)));
+		assertEquals(1, repository.removeAllById(List.of("id3", "missing")));
+		assertFalse(repository.removeById("id3"));
+	}
+
+	@Test
+	public void whenSearching_shouldRankTitleMatchesFirst() {
+		Tool inDescription = tool("id1", "tag1");
+		inDescription.setDescription("a fast json parser");
+		Tool inTitle = new Tool("id2", "json tools", "link", "description", List.of("tag1"));
+		repository.save(inDescription);
+		repository.save(inTitle);
+		repository.save(tool("id3", "tag1"));
+
+		assertEquals(List.of("id2", "id1"), ids(repository.search("JSON", 0, 10)));
+		assertEquals(List.of("id1"), ids(repository.search("json", 1, 10)));
+	}
+
+	@Test
+	public void whenReopened_shouldReplayTheLog() throws IOException {
+		repository.save(tool("id1", "tag1"));
+		repository.save(tool("id2", "tag2"));
+		repository.removeById("id1");
+		repository.allocateChangeSeqs(1000);
+		repository.allocateChangeSeqs(10);
+
+		reopen();
+
+		assertEquals(List.of("id2"), ids(all(repository)));
+		assertEquals(List.of("id2"), ids(repository.findPage(List.of("tag2"), TagMatch.ALL, null, 10,
+				ToolFields.ALL)));
+		assertEquals(1010, repository.allocateChangeSeqs(0));
+	}
+
+	@Test
+	public void whenSnapshotted_shouldDropTheOldLogAndReplayLaterWrites() throws IOException {
+		repository.save(tool("id1", "tag1"));
+		repository.allocateChangeSeqs(1000);
+		repository.snapshot();
+		repository.save(tool("id2", "tag1"));
+
+		reopen();
+
+		assertEquals(List.of("id1", "id2"), ids(all(repository)));
+		assertEquals(1000, repository.allocateChangeSeqs(0));
+		assertThat(files()).containsExactlyInAnyOrder("tools-0000000001.snapshot", "tools-0000000001.log");
+	}
+
+	@Test
+	public void whenReopened_shouldKeepChangesAndTombstonesInChangeOrder() throws IOException {
+		Tool first = tool("id1", "tag1");
+		first.setChangeSeq(1L);
+		first.setCreatedSeq(1L);
+		Tool second = tool("id2", "tag1");
+		second.setChangeSeq(2L);
+		repository.save(first);
+		repository.save(second);
+		repository.patch("id1", new ToolPatchDto(), 3);
+		repository.removeById("id2");
+		repository.saveTombstones(List.of("id2"), 4);
+		repository.snapshot();
+		Tool third = tool("id3", "tag1");
+		third.setChangeSeq(5L);
+		third.setCreatedSeq(5L);
+		repository.save(third);
+
+		reopen();
+
+		var changes = repository.findChanges(1, 5, 10);
+		assertEquals(List.of(3L, 4L, 5L), changes.stream().map(ToolChange::getSeq).collect(Collectors.toList()));
+		assertEquals("id1", changes.get(0).getTool().getId());
+		assertFalse(changes.get(0).isCreatedAfter(1));
+		assertTrue(changes.get(1).isDeleted());
+		assertTrue(changes.get(2).isCreatedAfter(4));
+		assertEquals(2, repository.findChanges(0, 4, 10).size());
+		assertEquals(5, repository.allocateChangeSeqs(0));
+	}
+
+	@Test
+	public void whenSnapshotted_shouldDropTombstonesOlderThanTheRetention() throws Exception {
+		repository.close();
+		repository = new MemoryToolRepository(directory, DataSize.ofKilobytes(4), false, Duration.ofMillis(1));
+		repository.saveTombstones(List.of("id1"), 1);
+		Thread.sleep(10);
+
+		repository.snapshot();
+
+		assertEquals(0, repository.findChanges(0, 1, 10).size());
+		reopen();
+		assertEquals(0, repository.findChanges(0, 1, 10).size());
+		assertEquals(1, repository.allocateChangeSeqs(0));
+	}
+
+	@Test
+	public void whenATombstonedToolIsStillThere_shouldReportItsCurrentState() {
+		Tool kept = tool("id1", "tag2");
+		kept.setChangeSeq(1L);
+		repository.save(kept);
+		repository.saveTombstones(List.of("id1"), 2);
+
+		var changes = repository.findChanges(0, 2, 10);
+		assertEquals(List.of(1L, 2L), changes.stream().map(ToolChange::getSeq).collect(Collectors.toList()));
+		assertFalse(changes.get(1).isDeleted());
+		assertEquals(List.of("tag2"), changes.get(1).getTool().getTags());
+	}
+
+	@Test
+	public void whenTheLogEndsWithATornRecord_shouldKeepTheRecordsBeforeIt() throws IOException {
+		repository.save(tool("id1", "tag1"));
+		repository.close();
+		Files.write(directory.resolve("tools-0000000000.log"), new byte[] { 0, 0, 0, 42, 1, 2, 3 },
+				StandardOpenOption.APPEND);
+
+		repository = open();
+		repository.save(tool("id2", "tag1"));
+		reopen();
+
+		assertEquals(List.of("id1", "id2"), ids(all(repository)));
+	}
+
+	private MemoryToolRepository open() throws IOException {
+		return new MemoryToolRepository(directory, DataSize.ofKilobytes(4), false, Duration.ofDays(30));
+	}
+
+	private void reopen() throws IOException {
+		repository.close();
+		repository = open();
+	}
+
+	private List<String> files() throws IOException {
+		try (var files = Files.list(directory)) {
+			return files.map(file -> file.getFileName().toString()).collect(Collectors.toList());
+		}
+	}
+
+	private static Tool tool(String id, String... tags) {
+		return new Tool(id, "title", "link", "description", new ArrayList<>(Arrays.asList(tags)));
+	}
+
+	private static List<Tool> all(MemoryToolRepository repository) {
+		try (Stream<Tool> tools = repository.streamAll()) {
+			return tools.collect(Collectors.toList());
+		}
+	}
+
+	private static List<String> ids(List<Tool> tools) {
+		return tools.stream().map(Tool::getId).collect(Collectors.toList());
+	}
+
+}